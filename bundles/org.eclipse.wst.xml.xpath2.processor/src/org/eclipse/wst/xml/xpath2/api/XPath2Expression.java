@@ -18,6 +18,11 @@ import javax.xml.namespace.QName;
 /**
  * This interface represents a parsed and statically bound XPath2 expression.
  * 
+ * All static resolution is done when the expression is parsed, and evaluation
+ * never modifies the expression, so one instance may be evaluated concurrently
+ * from several threads, provided each call gets its own DynamicContext and the
+ * context nodes are safe to read concurrently.
+ * 
  * @noimplement This interface is not intended to be implemented by clients.
  * @since 2.0
  */
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.XPath2Expression;
+import org.eclipse.wst.xml.xpath2.processor.internal.SharedDynamicContext;
+
+/**
+ * Evaluates one compiled expression under many context items, such as the
+ * documents of a collection, on several threads.
+ *
+ * Results are returned in the order of the context items, and an error
+ * raised for one item is kept with its result rather than ending the batch.
+ * All items share the caller's dynamic context: the current date and time
+ * is read once for the whole batch, and documents loaded by fn:doc are
+ * loaded once. The context items must be safe to read from several
+ * threads; DOM implementations are not in general, while the trees built
+ * by TinyTreeBuilder are. For that reason, with a DynamicContextBuilder,
+ * fn:doc loads documents with TinyTreeBuilder rather than XercesLoader;
+ * other dynamic contexts must supply documents which are safe to read from
+ * several threads.
+ *
+ * @since 2.1
+ */
+public class BatchEvaluator {
+
+	/** Items evaluated ahead of the one the caller waits for, per thread. */
+	private static final int WINDOW_PER_THREAD = 4;
+
+	private static ExecutorService _default_executor;
+
+	private final XPath2Expression _expression;
+	private final ExecutorService _executor;
+	private final int _window;
+
+	/**
+	 * The outcome of evaluating the expression under one context item.
+	 */
+	public static final class Result {
+		private final int _index;
+		private final Object _context;
+		private final ResultSequence _value;
+		private final RuntimeException _error;
+
+		Result(int index, Object context, ResultSequence value, RuntimeException error) {
+			_index = index;
+			_context = context;
+			_value = value;
+			_error = error;
+		}
+
+		/**
+		 * @return The position of the context item in the input, from 0.
+		 */
+		public int getIndex() {
+			return _index;
+		}
+
+		/**
+		 * @return The context item.
+		 */
+		public Object getContext() {
+			return _context;
+		}
+
+		/**
+		 * @return The value of the expression, or null if it failed.
+		 */
+		public ResultSequence getValue() {
+			return _value;
+		}
+
+		/**
+		 * @return The error raised by the evaluation, usually a
+		 *         DynamicError, or null if it succeeded.
+		 */
+		public RuntimeException getError() {
+			return _error;
+		}
+
+		/**
+		 * @return Whether the evaluation raised an error.
+		 */
+		public boolean failed() {
+			return _error != null;
+		}
+	}
+
+	/**
+	 * Creates a batch evaluator which runs on a shared pool with a thread
+	 * per processor.
+	 *
+	 * @param expression
+	 *            The compiled expression.
+	 */
+	public BatchEvaluator(XPath2Expression expression) {
+		this(expression, default_executor(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a batch evaluator which runs on the caller's executor.
+	 *
+	 * @param expression
+	 *            The compiled expression.
+	 * @param executor
+	 *            The executor. It is not shut down by the batch evaluator.
+	 * @param parallelism
+	 *            How many items to evaluate at once, usually the number of
+	 *            threads of the executor.
+	 */
+	public BatchEvaluator(XPath2Expression expression, ExecutorService executor, int parallelism) {
+		if (expression == null || executor == null)
+			throw new IllegalArgumentException("Expression and executor must not be null");
+		_expression = expression;
+		_executor = executor;
+		_window = Math.max(1, parallelism) * WINDOW_PER_THREAD;
+	}
+
+	private static synchronized ExecutorService default_executor() {
+		if (_default_executor == null) {
+			_default_executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				private int _count;
+
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "XPath2 batch " + (++_count));
+					// the pool must not keep the application alive
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return _default_executor;
+	}
+
+	/**
+	 * Evaluates the expression under each of a collection of context items.
+	 *
+	 * @param dc
+	 *            Dynamic context shared by all items.
+	 * @param contexts
+	 *            The context items, typically documents or nodes.
+	 * @return A result for each item, in the order of the collection.
+	 */
+	public List<Result> evaluate(DynamicContext dc, Collection<?> contexts) {
+		ArrayList<Result> results = new ArrayList<Result>(contexts.size());
+		for (Iterator<Result> i = evaluate(dc, contexts.iterator()); i.hasNext();)
+			results.add(i.next());
+		return results;
+	}
+
+	/**
+	 * Evaluates the expression under each context item of an iterator, as
+	 * the results are read. Only a few items per thread are evaluated ahead
+	 * of the caller, so an iterator which loads documents as it goes keeps
+	 * few of them in memory at once.
+	 *
+	 * The context iterator is only used by the thread reading the results.
+	 *
+	 * @param dc
+	 *            Dynamic context shared by all items.
+	 * @param contexts
+	 *            The context items, typically documents or nodes.
+	 * @return The results, in the order of the items.
+	 */
+	public Iterator<Result> evaluate(DynamicContext dc, Iterator<?> contexts) {
+		return new Results(new SharedDynamicContext(dc), contexts);
+	}
+
+	private final class Results implements Iterator<Result> {
+		private final DynamicContext _dc;
+		private final Iterator<?> _contexts;
+		private final LinkedList<Future<Result>> _pending = new LinkedList<Future<Result>>();
+		private int _submitted;
+
+		Results(DynamicContext dc, Iterator<?> contexts) {
+			_dc = dc;
+			_contexts = contexts;
+			fill();
+		}
+
+		private void fill() {
+			while (_pending.size() < _window && _contexts.hasNext())
+				_pending.add(_executor.submit(new Task(_dc, _submitted++, _contexts.next())));
+		}
+
+		public boolean hasNext() {
+			return !_pending.isEmpty();
+		}
+
+		public Result next() {
+			if (_pending.isEmpty())
+				throw new NoSuchElementException();
+			Future<Result> f = _pending.removeFirst();
+			Result result;
+			try {
+				result = f.get();
+			} catch (InterruptedException e) {
+				cancel();
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a result");
+			} catch (ExecutionException e) {
+				// only errors escape a task
+				cancel();
+				throw (Error) e.getCause();
+			}
+			fill();
+			return result;
+		}
+
+		private void cancel() {
+			for (Iterator<Future<Result>> i = _pending.iterator(); i.hasNext();)
+				i.next().cancel(false);
+			_pending.clear();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private final class Task implements Callable<Result> {
+		private final DynamicContext _dc;
+		private final int _index;
+		private final Object _context;
+
+		Task(DynamicContext dc, int index, Object context) {
+			_dc = dc;
+			_index = index;
+			_context = context;
+		}
+
+		public Result call() {
+			try {
+				ResultSequence rs = _expression.evaluate(_dc, new Object[] { _context });
+				// parts of the result may be computed as they are read, which
+				// should happen here rather than on the caller's thread
+				rs.size();
+				return new Result(_index, _context, rs, null);
+			} catch (RuntimeException e) {
+				return new Result(_index, _context, null, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.api.XPath2Engine;
+import org.eclipse.wst.xml.xpath2.api.XPath2Expression;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.BoundedCache;
+
+/**
+ * An XPath2Engine which remembers the expressions it has compiled, so parsing
+ * the same expression text against the same static context again is a simple
+ * lookup.
+ *
+ * Static contexts are compared by identity, so callers should reuse their
+ * StaticContext instances to benefit from the cache. Lookups never block; when
+ * the cache grows beyond its maximum size, the least recently used entries
+ * are evicted.
+ *
+ * @since 2.1
+ */
+public class CachingEngine implements XPath2Engine {
+
+	/**
+	 * Default number of compiled expressions to keep.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final XPath2Engine _engine;
+	private final BoundedCache<CacheKey, XPath2Expression> _cache;
+
+	static final class CacheKey {
+		private final String expression;
+		private final StaticContext context;
+		private final int hash;
+
+		CacheKey(String expression, StaticContext context) {
+			this.expression = expression;
+			this.context = context;
+			this.hash = expression.hashCode() * 31 + System.identityHashCode(context);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof CacheKey)) return false;
+			CacheKey other = (CacheKey) obj;
+			return context == other.context && expression.equals(other.expression);
+		}
+	}
+
+	/**
+	 * Creates a cache of at most DEFAULT_MAX_SIZE expressions in front of a
+	 * new Engine.
+	 */
+	public CachingEngine() {
+		this(new Engine(), DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a cache in front of the supplied engine.
+	 *
+	 * @param engine
+	 *            The engine which does the actual compilation.
+	 * @param maxSize
+	 *            Maximum number of compiled expressions to keep.
+	 */
+	public CachingEngine(XPath2Engine engine, int maxSize) {
+		if (engine == null) throw new IllegalArgumentException("Engine must not be null");
+		_engine = engine;
+		_cache = new BoundedCache<CacheKey, XPath2Expression>(maxSize);
+	}
+
+	public XPath2Expression parseExpression(String expression, StaticContext context) {
+		CacheKey key = new CacheKey(expression, context);
+
+		XPath2Expression compiled = _cache.get(key);
+		if (compiled != null)
+			return compiled;
+
+		// errors propagate to the caller and are not cached
+		return _cache.put(key, _engine.parseExpression(expression, context));
+	}
+
+	/**
+	 * Removes all compiled expressions from the cache. The statistics are kept.
+	 */
+	public void clear() {
+		_cache.clear();
+	}
+
+	/**
+	 * @return Number of compiled expressions currently cached.
+	 */
+	public int size() {
+		return _cache.size();
+	}
+
+	/**
+	 * @return Maximum number of compiled expressions kept.
+	 */
+	public int getMaxSize() {
+		return _cache.getMaxSize();
+	}
+
+	/**
+	 * @return Number of lookups which found a compiled expression.
+	 */
+	public long getHitCount() {
+		return _cache.getHitCount();
+	}
+
+	/**
+	 * @return Number of lookups which had to compile the expression.
+	 */
+	public long getMissCount() {
+		return _cache.getMissCount();
+	}
+
+	/**
+	 * @return Number of compiled expressions evicted to respect the maximum size.
+	 */
+	public long getEvictionCount() {
+		return _cache.getEvictionCount();
+	}
+}
@@ -14,14 +14,34 @@ package org.eclipse.wst.xml.xpath2.processor;
 
 import java.io.*;
 
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.DocumentBuilderPool;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
 import org.xml.sax.*;
 
 /**
  * The DOM builder loads an DOM from an InputStream. The loading is always namespace aware.
+ * Document builders are pooled and shared by all DOM builders with the same settings.
  */
 public class DOMBuilder implements DOMLoader {
+	private static final ErrorHandler STRICT_HANDLER = new ErrorHandler() {
+		public void fatalError(SAXParseException e) throws SAXException {
+			throw e;
+		}
+
+		public void error(SAXParseException e) throws SAXParseException {
+			throw e;
+		}
+
+		public void warning(SAXParseException e)
+				throws SAXParseException {
+			throw e; // XXX
+		}
+	};
+
+	// non-validating and validating
+	private static final DocumentBuilderPool[] _pools = new DocumentBuilderPool[2];
+
 	boolean _validating;
 	boolean _namespace_aware;
 
@@ -44,29 +64,13 @@ public class DOMBuilder implements DOMLoader {
 	// XXX: fix error reporting
 	public Document load(InputStream in) throws DOMLoaderException {
 
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-		factory.setNamespaceAware(true);
-		factory.setValidating(_validating);
-
+		DocumentBuilderPool pool = pool(_validating);
+		DocumentBuilder builder = null;
 		try {
-			DocumentBuilder builder = factory.newDocumentBuilder();
+			builder = pool.acquire();
 
 			// if(_validating) {
-			builder.setErrorHandler(new ErrorHandler() {
-				public void fatalError(SAXParseException e) throws SAXException {
-					throw e;
-				}
-
-				public void error(SAXParseException e) throws SAXParseException {
-					throw e;
-				}
-
-				public void warning(SAXParseException e)
-						throws SAXParseException {
-					throw e; // XXX
-				}
-			});
+			builder.setErrorHandler(STRICT_HANDLER);
 			// }
 			return builder.parse(in);
 		} catch (SAXException e) {
@@ -76,6 +80,23 @@ public class DOMBuilder implements DOMLoader {
 					+ e.getMessage());
 		} catch (IOException e) {
 			throw new DOMLoaderException("IO exception: " + e.getMessage());
+		} finally {
+			if (builder != null)
+				pool.release(builder);
+		}
+	}
+
+	private static DocumentBuilderPool pool(boolean validating) {
+		int i = validating ? 1 : 0;
+		synchronized (_pools) {
+			if (_pools[i] == null) {
+				DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+				factory.setNamespaceAware(true);
+				factory.setValidating(validating);
+				_pools[i] = new DocumentBuilderPool(factory);
+			}
+			return _pools[i];
 		}
 	}
 
@@ -23,12 +23,15 @@
 
 package org.eclipse.wst.xml.xpath2.processor;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
 import org.eclipse.wst.xml.xpath2.api.Function;
@@ -39,14 +42,18 @@ import org.eclipse.wst.xml.xpath2.api.StaticContext;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeDefinition;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
 import org.eclipse.wst.xml.xpath2.processor.ast.XPath;
+import org.eclipse.wst.xml.xpath2.processor.function.FnFunctionLibrary;
 import org.eclipse.wst.xml.xpath2.processor.internal.Axis;
 import org.eclipse.wst.xml.xpath2.processor.internal.DescendantOrSelfAxis;
 import org.eclipse.wst.xml.xpath2.processor.internal.DynamicContextAdapter;
 import org.eclipse.wst.xml.xpath2.processor.internal.Focus;
+import org.eclipse.wst.xml.xpath2.processor.internal.AxisFilter;
 import org.eclipse.wst.xml.xpath2.processor.internal.ForwardAxis;
+import org.eclipse.wst.xml.xpath2.processor.internal.LazyResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.internal.ParentAxis;
 import org.eclipse.wst.xml.xpath2.processor.internal.ReverseAxis;
 import org.eclipse.wst.xml.xpath2.processor.internal.SelfAxis;
+import org.eclipse.wst.xml.xpath2.processor.internal.SharedDynamicContext;
 import org.eclipse.wst.xml.xpath2.processor.internal.SeqType;
 import org.eclipse.wst.xml.xpath2.processor.internal.StaticContextAdapter;
 import org.eclipse.wst.xml.xpath2.processor.internal.StaticNameError;
@@ -79,11 +86,13 @@ import org.eclipse.wst.xml.xpath2.processor.internal.ast.IfExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.InstOfExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.IntegerLiteral;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.IntersectExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.Literal;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.ItemType;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.MinusExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.ModExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.MulExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.NameTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NodeTest;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.OrExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.PITest;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.ParExpr;
@@ -101,12 +110,14 @@ import org.eclipse.wst.xml.xpath2.processor.internal.ast.StringLiteral;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.SubExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.TextTest;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.TreatAsExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnionExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarExprPair;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarRef;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathVisitor;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.AbstractRegExFunction;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.ConstructorFL;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.FnBoolean;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.FnData;
@@ -128,6 +139,7 @@ import org.eclipse.wst.xml.xpath2.processor.internal.function.OpExcept;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.OpIntersect;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.OpTo;
 import org.eclipse.wst.xml.xpath2.processor.internal.function.OpUnion;
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyNode;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyAtomicType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AttrType;
@@ -142,11 +154,13 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.TextType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSInteger;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLibrary;
+import org.eclipse.wst.xml.xpath2.processor.util.DynamicContextBuilder;
 import org.eclipse.wst.xml.xpath2.processor.util.ResultSequenceUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
 
 /**
  * Default evaluator interface
@@ -158,6 +172,14 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 	private static final QName ANY_ATOMIC_TYPE = new QName("xs",
 			"anyAtomicType", XML_SCHEMA_NS);
 
+	// chunks of a sequence per thread when predicates run in parallel, so
+	// that a thread which gets cheap items can take on another chunk
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	// functions which load documents, whose nodes may be read by only one
+	// thread at a time
+	private static final String[] DOCUMENT_FUNCTIONS = { "doc", "doc-available", "collection" };
+
 	private org.eclipse.wst.xml.xpath2.api.DynamicContext _dc;
 
 	// this is a parameter that may be set on a call...
@@ -186,12 +208,22 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 	}
 
 	private void popScope() {
-		if (_innerScope == null) throw new IllegalStateException("Unmatched scope pop");
-		_innerScope = _innerScope.nextScope;
+		if (_depth == 0) throw new IllegalStateException("Unmatched scope pop");
+		_frame[--_depth] = null;
 	}
 
 	private void pushScope(QName var, org.eclipse.wst.xml.xpath2.api.ResultSequence value) {
-		_innerScope = new VariableScope(var, value, _innerScope);		
+		if (_depth == _frame.length) {
+			int size = _depth * 2;
+			org.eclipse.wst.xml.xpath2.api.ResultSequence[] frame = new org.eclipse.wst.xml.xpath2.api.ResultSequence[size];
+			System.arraycopy(_frame, 0, frame, 0, _depth);
+			_frame = frame;
+			QName[] names = new QName[size];
+			System.arraycopy(_frameNames, 0, names, 0, _depth);
+			_frameNames = names;
+		}
+		_frameNames[_depth] = var;
+		_frame[_depth++] = value;
 	}
 
 	private boolean derivesFrom(NodeType at, QName et) {
@@ -258,27 +290,26 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		};
 	}
 
-	class VariableScope {
-		public VariableScope(QName name, org.eclipse.wst.xml.xpath2.api.ResultSequence value, VariableScope nextScope) {
-			this.name = name;
-			this.value = value;
-			this.nextScope = nextScope;
-		}
-		final public QName name;
-		final public org.eclipse.wst.xml.xpath2.api.ResultSequence value;
-		final public VariableScope nextScope; 
-	}	
-	
-	private VariableScope _innerScope = null;
+	// The variables bound by for, some and every expressions, outermost
+	// first. The static name resolver gives each reference to one of them
+	// its index here, so only unresolved references compare names.
+	private org.eclipse.wst.xml.xpath2.api.ResultSequence[] _frame = new org.eclipse.wst.xml.xpath2.api.ResultSequence[8];
+	private QName[] _frameNames = new QName[8];
+	private int _depth = 0;
+
+	private Object getVariable(VarRef ref) {
+		int slot = ref.slot();
+		if (slot >= 0)
+			return _frame[slot];
+		if (slot == VarRef.EXTERNAL)
+			return _dc.getVariable(ref.external_name());
 
-	private org.eclipse.wst.xml.xpath2.api.ResultSequence getVariable(QName name) {
 		// First, try local scopes
-		VariableScope scope = _innerScope;
-		while (scope != null) {
-			if (name.equals(scope.name)) return scope.value;
-			scope = scope.nextScope;
+		QName name = ref.name();
+		for (int i = _depth - 1; i >= 0; i--) {
+			if (name.equals(_frameNames[i])) return _frame[i];
 		}
-		return (org.eclipse.wst.xml.xpath2.api.ResultSequence) _dc.getVariable(name.asQName());
+		return _dc.getVariable(name.asQName());
 	}
 
 	// XXX this kinda sux
@@ -394,8 +425,11 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 				AnyType item = (AnyType) i.next();
 
 				pushScope(varname, item);
-				do_for_each(iter, finalexpr, destination);
-				popScope();
+				try {
+					do_for_each(iter, finalexpr, destination);
+				} finally {
+					popScope();
+				}
 			}
 			iter.previous();
 		}
@@ -430,8 +464,12 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					AnyType item = (AnyType) i.next();
 	
 					pushScope(varname, item);
-					XSBoolean effbool = do_for_all(iter, finalexpr);
-					popScope();
+					XSBoolean effbool;
+					try {
+						effbool = do_for_all(iter, finalexpr);
+					} finally {
+						popScope();
+					}
 					
 					// ok here we got a "real" result, now figure
 					// out what to do with it
@@ -470,8 +508,12 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					AnyType item = (AnyType) i.next();
 	
 					pushScope(varname, item);
-					XSBoolean effbool = do_exists(iter, finalexpr);
-					popScope();
+					XSBoolean effbool;
+					try {
+						effbool = do_exists(iter, finalexpr);
+					} finally {
+						popScope();
+					}
 	
 					// ok here we got a "real" result, now figure
 					// out what to do with it
@@ -987,6 +1029,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		try {
 			CastExpr ce = new CastExpr((Expr) cexp.left(), (SingleType) cexp
 					.right());
+			ce.set_function(cexp.function());
 
 			visit(ce);
 			castable = true;
@@ -1034,11 +1077,11 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		args.add(ResultSequenceFactory.create_new(aat));
 
 		try {
+			// the expression may be shared between threads, so only resolve
+			// locally if the static checker hasn't done it already
 			Function function = cexp.function();
-			if (function == null) {
+			if (function == null)
 				function = _sc.resolveFunction(type.asQName(), args.size());
-				cexp.set_function(function);
-			}
 			if (function == null)
 				report_error(TypeError.invalid_type(null));
 			return function.evaluate(args, _ec);
@@ -1094,8 +1137,9 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 	// the result.
 	//
 	// i.e. It will execute the step expression for each item in the focus
-	// [each time changing the context item].
-	private ResultSequence do_step(StepExpr se) {
+	// [each time changing the context item]. Nodes are put in document
+	// order, unless the step is known to produce them in that order.
+	private ResultSequence do_step(StepExpr se, boolean ordered) {
 
 		ResultBuffer rs = new ResultBuffer();
 		ArrayList results = new ArrayList();
@@ -1106,6 +1150,14 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		Focus focus = focus();
 		int original_pos = focus.position();
 
+		// a forward axis from a single node already yields nodes in document
+		// order, so pass the (lazy) result on instead of collecting it
+		if (se instanceof AxisStep && ((AxisStep) se).step() instanceof ForwardStep
+				&& original_pos == 1 && !focus.advance_cp()) {
+			return (ResultSequence) se.accept(this);
+		}
+		focus.set_position(original_pos);
+
 		// execute step for all items in focus
 		while (true) {
 			results.add(se.accept(this));
@@ -1161,7 +1213,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 			}
 		}
 		// XXX lame
-		if (node_types) {
+		if (node_types && !ordered) {
 			rs = NodeType.linarize(rs);
 		}
 		return rs.getSequence();
@@ -1219,7 +1271,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					// XXX ?
 					// the expression didn't return any
 					// results...
-					if (rs.size() == 0)
+					if (rs.empty())
 						break;
 
 					// make sure result of previous step are
@@ -1237,7 +1289,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					if (xp.slashes() == 2) {
 						rs = descendant_or_self_node(rs);
 
-						if (rs.size() == 0)
+						if (rs.empty())
 							break;
 					}
 
@@ -1246,7 +1298,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					set_focus(new Focus(rs));
 
 					// do the step for all item in context
-					rs = do_step(se);
+					rs = do_step(se, xp.ordered());
 				}
 				// this is first step...
 				// note... we may be called from upstream...
@@ -1260,7 +1312,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 						rs = root_self_node();
 						set_focus(new Focus(rs));
 
-						rs = do_step(se);
+						rs = do_step(se, xp.ordered());
 					} else if (xp.slashes() == 2) {
 						rs = root_self_node();
 
@@ -1268,7 +1320,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 
 						set_focus(new Focus(rs));
 
-						rs = do_step(se);
+						rs = do_step(se, xp.ordered());
 					} else
 						rs = (ResultSequence) se.accept(this);
 				}
@@ -1309,12 +1361,19 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 
 		NodeType cn = (NodeType) ci;
 
-		// get the nodes on the axis
+		// get the nodes on the axis, as they are asked for
 		ForwardAxis axis = e.iterator();
-		ResultBuffer rb = new ResultBuffer();
-		axis.iterate(cn, rb, _dc.getLimitNode());
+		String kind = axis.principal_node_kind().string_type();
+
+		// if the node test can look at DOM nodes, let the axis apply it, so
+		// the nodes which fail it are never wrapped
+		AxisFilter filter = axis_filter(e.node_test(), kind);
+		if (filter != null)
+			return new LazyResultSequence(axis.iterator(cn, _dc.getLimitNode(), filter));
+
+		ResultSequence nodes = new LazyResultSequence(axis.iterator(cn, _dc.getLimitNode()));
 		// get all nodes in the axis, and principal node
-		Pair arg = new Pair(axis.principal_node_kind().string_type(), rb.getSequence());
+		Pair arg = new Pair(kind, nodes);
 
 		// do the name test
 		_param = arg;
@@ -1363,6 +1422,81 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		return rs;
 	}
 
+	private static final AxisFilter TEXT_FILTER = new AxisFilter() {
+		public boolean accept(Node node) {
+			short type = node.getNodeType();
+			return type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+		}
+	};
+
+	private static final AxisFilter COMMENT_FILTER = new AxisFilter() {
+		public boolean accept(Node node) {
+			return node.getNodeType() == Node.COMMENT_NODE;
+		}
+	};
+
+	// the node test as a test of DOM nodes, or null if it needs the wrapped
+	// nodes (e.g. element and attribute tests, which look at types)
+	private AxisFilter axis_filter(NodeTest test, String type) {
+		if (test instanceof NameTest)
+			return name_filter(((NameTest) test).name(), type);
+		if (test instanceof TextTest)
+			return TEXT_FILTER;
+		if (test instanceof CommentTest)
+			return COMMENT_FILTER;
+		if (test instanceof PITest) {
+			final String target = ((PITest) test).arg();
+			return new AxisFilter() {
+				public boolean accept(Node node) {
+					return node.getNodeType() == Node.PROCESSING_INSTRUCTION_NODE
+							&& (target == null || target.equals(((ProcessingInstruction) node).getTarget()));
+				}
+			};
+		}
+		return null;
+	}
+
+	// same as name_test, on DOM nodes
+	private AxisFilter name_filter(QName name, String type) {
+		final short kind;
+		if (type.equals("element"))
+			kind = Node.ELEMENT_NODE;
+		else if (type.equals("attribute"))
+			kind = Node.ATTRIBUTE_NODE;
+		else
+			return null;
+
+		final String namespace;
+		if (name.prefix() != null) {
+			if (!name.expanded() || name.namespace() == null)
+				return null;
+			namespace = name.namespace();
+		} else if (kind == Node.ELEMENT_NODE) {
+			// unprefixed element names are in the default element namespace
+			String ns = _sc.getDefaultNamespace();
+			namespace = ns != null && ns.length() > 0 ? ns : null;
+		} else {
+			namespace = null;
+		}
+		final boolean any_namespace = "*".equals(namespace);
+		final String local = "*".equals(name.local()) ? null : name.local();
+
+		return new AxisFilter() {
+			public boolean accept(Node node) {
+				if (node.getNodeType() != kind)
+					return false;
+				if (!any_namespace) {
+					String ns = node.getNamespaceURI();
+					if (ns != null && ns.length() == 0)
+						ns = null;
+					if (namespace == null ? ns != null : !namespace.equals(ns))
+						return false;
+				}
+				return local == null || local.equals(node.getLocalName());
+			}
+		};
+	}
+
 	// XXX this routine sux
 	private boolean name_test(NodeType node, QName name, String type) {
 		// make sure principal node kind is the same
@@ -1444,23 +1578,19 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 	 * @return a result sequence
 	 */
 	public Object visit(NameTest e) {
-		QName name = e.name();
+		final QName name = e.name();
 
 		// get the arguments
 		Pair arg = (Pair) _param;
-		String type = (String) arg._one;
+		final String type = (String) arg._one;
 		ResultSequence rs = (ResultSequence) arg._two;
 
-		ResultBuffer rb = new ResultBuffer();
-		
-		for (Iterator i = rs.iterator(); i.hasNext();) {
-			NodeType nt = (NodeType) i.next();
-
-			// check if node passes name test
-			if (name_test(nt, name, type))
-				rb.add(nt);
-		}
-		rs = rb.getSequence();
+		// check if nodes pass the name test as they are pulled
+		rs = new LazyResultSequence(new LazyResultSequence.Filter(rs.iterator()) {
+			protected boolean accept(Item item) {
+				return name_test((NodeType) item, name, type);
+			}
+		});
 		arg._two = rs;
 		
 		return rs;
@@ -1474,20 +1604,15 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 	 * @return a result sequence
 	 */
 	public Object visit(VarRef e) {
-		ResultBuffer rs = new ResultBuffer();
-
-		Object var = getVariable(e.name());
+		Object var = getVariable(e);
 
 		assert var != null;
 
-		if (var instanceof AnyType) {
-		   rs.add((AnyType) var);
-		}
-		else if (var instanceof ResultSequence) {
-		   rs.concat((ResultSequence) var);	
-		}
+		// sequences (and items) are immutable, so they needn't be copied
+		if (var instanceof ResultSequence)
+			return var;
 
-		return rs.getSequence();
+		return ResultBuffer.EMPTY;
 	}
 
 	/**
@@ -1584,10 +1709,10 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 
 		try {
 			Function function = e.function();
-			if (function == null) {
+			if (e.pattern() != null)
+				return ((AbstractRegExFunction) function).evaluate(args, _ec, e.pattern());
+			if (function == null)
 				function = _sc.resolveFunction(e.name().asQName(), args.size());
-				e.set_function(function);
-			}
 			return function.evaluate(args, _ec);
 		} catch (DynamicError err) {
 			report_error(err);
@@ -1648,7 +1773,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					+ e.qname().string()));
 			
 			ResultSequence arg = (ResultSequence) ((Pair) _param)._two;
-			((Pair) _param)._two = item_test(arg, e.qname());
+			((Pair) _param)._two = item_test(arg, e);
 			break;
 
 		case ItemType.KINDTEST:
@@ -1659,7 +1784,9 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		return null;
 	}
 
-	private ResultSequence item_test(ResultSequence rs, QName qname) {
+	private ResultSequence item_test(ResultSequence rs, ItemType it) {
+		QName qname = it.qname();
+		AnyAtomicType aat = null;
 		ResultBuffer rb = new ResultBuffer();
 		for (Iterator i = rs.iterator(); i.hasNext();) {
 			AnyType item = (AnyType) i.next();
@@ -1674,7 +1801,11 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 					continue; // match !
 				}
 				
-				final AnyAtomicType aat = makeAtomic(qname);
+				if (aat == null) {
+					aat = it.atomic_type();
+					if (aat == null)
+						aat = makeAtomic(qname);
+				}
 				if (aat.getClass().isInstance(item)) rb.add(item);
 				
 				// fall through => non-match
@@ -1683,14 +1814,12 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		return rb.getSequence();
 	}
 
-    private ResultSequence kind_test(ResultSequence rs, Class kind) {
-    	ResultBuffer rb = new ResultBuffer();
-		for (Iterator i = rs.iterator(); i.hasNext();) {
-			Item item = (Item) i.next();
-			if (kind.isInstance(item))
-				rb.add(item);
-		}
-		return rb.getSequence();
+    private ResultSequence kind_test(ResultSequence rs, final Class kind) {
+		return new LazyResultSequence(new LazyResultSequence.Filter(rs.iterator()) {
+			protected boolean accept(Item item) {
+				return kind.isInstance(item);
+			}
+		});
 	}
 
 	/**
@@ -1992,7 +2121,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 
 			if (at instanceof NumericType) {
 				try {
-					return FsEq.fs_eq_fast(at, new XSInteger(BigInteger.valueOf(focus().position())), _dc);
+					return FsEq.fs_eq_fast(at, new XSInteger(focus().position()), _dc);
 				} catch (DynamicError err) {
 					report_error(err);
 
@@ -2030,9 +2159,12 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 						int pos = (((IntegerLiteral) fex.primary()).value()
 								.int_value()).intValue();
 
-						if (pos <= focus.last() && pos > 0) {
+						// only pull as many items as needed
+						if (pos > 0) {
 							focus.set_position(pos);
-							rs.add(focus.context_item());
+							AnyType item = focus.context_item();
+							if (item != null)
+								rs.add(item);
 						}
 						focus.set_position(original_cp);
 						return rs.getSequence();
@@ -2041,6 +2173,10 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 			}
 		}
 
+		ResultSequence parallel = parallel_predicate(exprs, focus);
+		if (parallel != null)
+			return parallel;
+
 		// go through all elements
 		while (true) {
 			// do the predicate
@@ -2064,6 +2200,221 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		return rs.getSequence();
 	}
 
+	// tests a long sequence in chunks on the executor of the dynamic
+	// context, if it has one; null means do it serially
+	private ResultSequence parallel_predicate(Collection exprs, Focus focus) {
+		if (!(_dc instanceof DynamicContextBuilder))
+			return null;
+		DynamicContextBuilder dcb = (DynamicContextBuilder) _dc;
+		ExecutorService executor = dcb.getPredicateExecutor();
+		if (executor == null)
+			return null;
+
+		ResultSequence items = focus.sequence();
+		int size = items.size();
+		if (size < dcb.getPredicateThreshold())
+			return null;
+		// the chunks read the nodes at once, which only tiny trees allow,
+		// so neither the items nor anything the predicate reaches may be
+		// another kind of node
+		if (!tiny_only(items) || !tiny_only(exprs))
+			return null;
+
+		// each chunk keeps the absolute positions of its items, so position()
+		// and last() in the predicate mean what they do serially
+		int count = Math.min(size, dcb.getPredicateParallelism() * CHUNKS_PER_THREAD);
+		org.eclipse.wst.xml.xpath2.api.DynamicContext shared = new SharedDynamicContext(_dc);
+		DefaultEvaluator[] evaluators = new DefaultEvaluator[count];
+		for (int c = 0; c < count; c++)
+			evaluators[c] = fork(shared, items);
+		PredicateChunks chunks = new PredicateChunks(evaluators, exprs, size);
+
+		int helpers = Math.min(count, dcb.getPredicateParallelism()) - 1;
+		List<Future<?>> futures = new ArrayList<Future<?>>(helpers);
+		try {
+			for (int h = 0; h < helpers; h++)
+				futures.add(executor.submit(chunks));
+			// the calling thread takes chunks too, and then only waits for
+			// those being tested, so it doesn't matter if the executor is
+			// busy, even with the evaluation this predicate is part of
+			chunks.run();
+			chunks.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DynamicError("FOER0000", "Interrupted while evaluating a predicate");
+		} finally {
+			for (int h = 0; h < futures.size(); h++)
+				futures.get(h).cancel(false);
+		}
+		return chunks.result();
+	}
+
+	private static boolean tiny_only(ResultSequence rs) {
+		if (rs == null)
+			return true;
+		for (Iterator i = rs.iterator(); i.hasNext();) {
+			Object item = i.next();
+			if (item instanceof NodeType && !(((NodeType) item).node_value() instanceof TinyNode))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean tiny_only(Collection exprs) {
+		for (Iterator i = exprs.iterator(); i.hasNext();) {
+			if (!tiny_only((XPathNode) i.next()))
+				return false;
+		}
+		return true;
+	}
+
+	// whether an expression can only reach nodes of the trees of the
+	// context items and of the variables, which are checked here; paths
+	// don't leave the tree they start in, but functions from outside the
+	// standard library might lead anywhere
+	private boolean tiny_only(XPathNode e) {
+		if (e == null || e instanceof Literal || e instanceof CntxItemExpr || e instanceof SingleType || e instanceof SequenceType)
+			return true;
+		if (e instanceof VarRef) {
+			VarRef ref = (VarRef) e;
+			// bound inside the predicate, to something checked here
+			if (ref.slot() >= _depth)
+				return true;
+			Object value = getVariable(ref);
+			return !(value instanceof ResultSequence) || tiny_only((ResultSequence) value);
+		}
+		if (e instanceof BinExpr)
+			return tiny_only(((BinExpr) e).left()) && tiny_only(((BinExpr) e).right());
+		if (e instanceof UnExpr)
+			return tiny_only(((UnExpr) e).arg());
+		if (e instanceof ParExpr)
+			return tiny_only(((ParExpr) e).exprs());
+		if (e instanceof IfExpr) {
+			IfExpr ie = (IfExpr) e;
+			return tiny_only(ie.exprs()) && tiny_only(ie.then_clause()) && tiny_only(ie.else_clause());
+		}
+		if (e instanceof ForExpr || e instanceof QuantifiedExpr) {
+			Iterator pairs = e instanceof ForExpr ? ((ForExpr) e).iterator() : ((QuantifiedExpr) e).iterator();
+			while (pairs.hasNext()) {
+				if (!tiny_only(((VarExprPair) pairs.next()).expr()))
+					return false;
+			}
+			return tiny_only(e instanceof ForExpr ? ((ForExpr) e).expr() : ((QuantifiedExpr) e).expr());
+		}
+		if (e instanceof FunctionCall) {
+			FunctionCall fc = (FunctionCall) e;
+			String ns = fc.name().namespace();
+			if (FnFunctionLibrary.XPATH_FUNCTIONS_NS.equals(ns)) {
+				for (int i = 0; i < DOCUMENT_FUNCTIONS.length; i++) {
+					if (DOCUMENT_FUNCTIONS[i].equals(fc.name().local()))
+						return false;
+				}
+			} else if (!XML_SCHEMA_NS.equals(ns)) {
+				return false;
+			}
+			return tiny_only(fc.args());
+		}
+		if (e instanceof XPathExpr) {
+			for (XPathExpr xp = (XPathExpr) e; xp != null; xp = xp.next()) {
+				StepExpr se = xp.expr();
+				Iterator predicates;
+				if (se instanceof FilterExpr) {
+					if (!tiny_only(((FilterExpr) se).primary()))
+						return false;
+					predicates = ((FilterExpr) se).iterator();
+				} else if (se instanceof AxisStep) {
+					predicates = ((AxisStep) se).iterator();
+				} else {
+					continue;
+				}
+				while (predicates.hasNext()) {
+					if (!tiny_only((Collection) predicates.next()))
+						return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	// an evaluator with the variables in scope here, for another thread
+	private DefaultEvaluator fork(org.eclipse.wst.xml.xpath2.api.DynamicContext dc, ResultSequence items) {
+		DefaultEvaluator e = new DefaultEvaluator(_sc, dc);
+		e._frame = _frame.clone();
+		e._frameNames = _frameNames.clone();
+		e._depth = _depth;
+		e.set_focus(new Focus(items));
+		return e;
+	}
+
+	// The chunks of a sequence whose predicate is tested in parallel. Each
+	// thread running it takes chunks nobody has started until none are
+	// left, so no chunk waits for a thread of the executor to be free.
+	private static final class PredicateChunks implements Runnable {
+		private final DefaultEvaluator[] _evaluators;
+		private final Collection _exprs;
+		private final int _size;
+		private final AtomicInteger _next = new AtomicInteger();
+		private final CountDownLatch _done;
+		private final ResultSequence[] _results;
+		private final Throwable[] _errors;
+		private volatile boolean _failed;
+
+		PredicateChunks(DefaultEvaluator[] evaluators, Collection exprs, int size) {
+			_evaluators = evaluators;
+			_exprs = exprs;
+			_size = size;
+			_done = new CountDownLatch(evaluators.length);
+			_results = new ResultSequence[evaluators.length];
+			_errors = new Throwable[evaluators.length];
+		}
+
+		public void run() {
+			int count = _evaluators.length;
+			for (int c = _next.getAndIncrement(); c < count; c = _next.getAndIncrement()) {
+				try {
+					// chunks are taken in order, so an error in an earlier
+					// one is what serial evaluation would have raised
+					if (!_failed)
+						_results[c] = test(_evaluators[c], (int) ((long) _size * c / count) + 1, (int) ((long) _size * (c + 1) / count));
+				} catch (Throwable t) {
+					_errors[c] = t;
+					_failed = true;
+				} finally {
+					_done.countDown();
+				}
+			}
+		}
+
+		private ResultSequence test(DefaultEvaluator evaluator, int from, int to) {
+			ResultBuffer rs = new ResultBuffer();
+			Focus focus = evaluator.focus();
+			for (int p = from; p <= to; p++) {
+				focus.set_position(p);
+				if (evaluator.predicate_truth(evaluator.do_expr(_exprs.iterator())))
+					rs.add(focus.context_item());
+			}
+			return rs.getSequence();
+		}
+
+		void await() throws InterruptedException {
+			_done.await();
+		}
+
+		ResultSequence result() {
+			ResultBuffer rs = new ResultBuffer();
+			for (int c = 0; c < _results.length; c++) {
+				Throwable t = _errors[c];
+				if (t instanceof Error)
+					throw (Error) t;
+				if (t != null)
+					throw (RuntimeException) t;
+				rs.concat(_results[c]);
+			}
+			return rs.getSequence();
+		}
+	}
+
 	/**
 	 * visit axis step.
 	 * 
@@ -2083,7 +2434,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 		// go through all predicates
 		for (Iterator i = e.iterator(); i.hasNext();) {
 			// empty results... get out of here ? XXX
-			if (rs.size() == 0)
+			if (rs.empty())
 				break;
 
 			set_focus(new Focus(rs));
@@ -2116,7 +2467,7 @@ public class DefaultEvaluator implements XPathVisitor, Evaluator {
 
 		// go through all predicates
 		for (Iterator i = e.iterator(); i.hasNext();) {
-			if (rs.size() == 0)
+			if (rs.empty())
 				break;
 
 			set_focus(new Focus(rs));
@@ -1,5 +1,7 @@
 package org.eclipse.wst.xml.xpath2.processor;
 
+import java.util.Collections;
+
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.api.StaticContext;
 import org.eclipse.wst.xml.xpath2.api.XPath2Engine;
@@ -18,10 +20,13 @@ public class Engine implements XPath2Engine {
 		xPath.setStaticContext(context);
 		StaticNameResolver name_check = new StaticNameResolver(context);
 		name_check.check(xPath);
+		new StaticOptimizer(context).optimize(xPath);
 		
-		xPath.setAxes(name_check.getAxes());
-		xPath.setFreeVariables(name_check.getFreeVariables());
-		xPath.setResolvedFunctions(name_check.getResolvedFunctions());
+		// all names, functions and constructor types are bound by now, so
+		// the expression is never modified again and can be shared
+		xPath.setAxes(Collections.unmodifiableSet(name_check.getAxes()));
+		xPath.setFreeVariables(Collections.unmodifiableSet(name_check.getFreeVariables()));
+		xPath.setResolvedFunctions(Collections.unmodifiableSet(name_check.getResolvedFunctions()));
 		xPath.setRootUsed(name_check.isRootUsed());
 		
 		return xPath;
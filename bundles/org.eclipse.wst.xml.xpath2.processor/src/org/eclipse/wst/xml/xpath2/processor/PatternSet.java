@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.Match;
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.api.XPath2Pattern;
+import org.eclipse.wst.xml.xpath2.api.XPath2PatternSet;
+import org.eclipse.wst.xml.xpath2.processor.ast.XPath;
+import org.eclipse.wst.xml.xpath2.processor.internal.PatternPath;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.BinExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PipeExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnionExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.w3c.dom.Node;
+
+/**
+ * A set of patterns, as used by template rules, matched against nodes all
+ * at once.
+ *
+ * Each alternative of a pattern is indexed by its last step (the kind and
+ * name of the nodes it selects), then by the step before, which must match
+ * the parent, and so on, in a tree shared by all patterns of a mode: a/b,
+ * c/b and b share the node for b. Matching walks up from the node through
+ * this tree, so its cost depends on the depth of the patterns rather than
+ * their number. Only alternatives which the index can't decide alone, such
+ * as ones with predicates, are checked further.
+ *
+ * A pattern matches a node if some context selects the node through it. Of
+ * the matching patterns, the best is the one with the highest priority, and
+ * of those the one compiled last.
+ *
+ * Patterns may be matched from several threads at once, also while patterns
+ * are added or removed.
+ *
+ * @since 2.1
+ */
+public class PatternSet implements XPath2PatternSet {
+
+	// the index of each mode, by mode name (null for the default mode)
+	private final HashMap<String, Trie> _modes = new HashMap<String, Trie>();
+	private int _sequence;
+
+	/**
+	 * Parses a pattern and adds it to the set.
+	 *
+	 * @param context
+	 *            Static context to parse the pattern in.
+	 * @param pattern
+	 *            A pattern: paths of child and attribute steps separated by
+	 *            |, such as "section/title | @id".
+	 * @param mode
+	 *            The mode, or null for the default mode.
+	 * @param priority
+	 *            The priority.
+	 * @param userData
+	 *            Data returned by the pattern's getUserData().
+	 * @throws StaticError
+	 *             If the pattern can't be parsed or isn't a union of paths.
+	 * @return The compiled pattern.
+	 */
+	public XPath2Pattern compilePattern(StaticContext context, String pattern, String mode, int priority, Object userData) {
+		XPath xpath = (XPath) new Engine().parseExpression(pattern, context);
+		if (xpath.exprs().size() != 1)
+			throw invalid(pattern);
+
+		ArrayList<PatternPath> paths = new ArrayList<PatternPath>();
+		add_paths((XPathNode) xpath.exprs().iterator().next(), context, pattern, paths);
+
+		synchronized (this) {
+			CompiledPattern p = new CompiledPattern(pattern, mode, priority, _sequence++, userData, paths.toArray(new PatternPath[paths.size()]));
+			Trie trie = _modes.get(mode);
+			if (trie == null) {
+				trie = new Trie();
+				_modes.put(mode, trie);
+			}
+			for (int i = 0; i < p._paths.length; i++)
+				trie.add(new Entry(p, p._paths[i]));
+			return p;
+		}
+	}
+
+	private static void add_paths(XPathNode expr, StaticContext context, String pattern, ArrayList<PatternPath> paths) {
+		if (expr instanceof UnionExpr || expr instanceof PipeExpr) {
+			add_paths(((BinExpr) expr).left(), context, pattern, paths);
+			add_paths(((BinExpr) expr).right(), context, pattern, paths);
+		} else if (expr instanceof XPathExpr) {
+			paths.add(new PatternPath((XPathExpr) expr, context));
+		} else {
+			throw invalid(pattern);
+		}
+	}
+
+	private static StaticError invalid(String pattern) {
+		return new StaticError("XTSE0340", "Not a valid pattern: " + pattern);
+	}
+
+	/**
+	 * Removes a pattern from the set.
+	 *
+	 * @param pattern
+	 *            A pattern compiled by this set.
+	 */
+	public synchronized void removePattern(XPath2Pattern pattern) {
+		CompiledPattern p = (CompiledPattern) pattern;
+		Trie trie = _modes.get(p._mode);
+		if (trie != null)
+			trie.remove(p);
+	}
+
+	/**
+	 * Removes all patterns.
+	 */
+	public synchronized void clear() {
+		_modes.clear();
+	}
+
+	/**
+	 * Finds the patterns of the default mode which match a node.
+	 *
+	 * @param dc
+	 *            Dynamic context, used for patterns with predicates.
+	 * @param context
+	 *            The node.
+	 * @return The matching patterns.
+	 */
+	public Match match(DynamicContext dc, Node context) {
+		return match(dc, context, null);
+	}
+
+	/**
+	 * Finds the patterns of a mode which match a node.
+	 *
+	 * @param dc
+	 *            Dynamic context, used for patterns with predicates.
+	 * @param context
+	 *            The node.
+	 * @param mode
+	 *            The mode, or null for the default mode.
+	 * @return The matching patterns.
+	 */
+	public Match match(DynamicContext dc, Node context, String mode) {
+		ArrayList<Entry> candidates = new ArrayList<Entry>();
+		synchronized (this) {
+			Trie trie = _modes.get(mode);
+			if (trie != null)
+				trie.collect(context, candidates);
+		}
+		if (candidates.size() > 1)
+			Collections.sort(candidates, BEST_FIRST);
+		return new PatternMatch(dc, context, candidates);
+	}
+
+	private static final Comparator<Entry> BEST_FIRST = new Comparator<Entry>() {
+		public int compare(Entry a, Entry b) {
+			CompiledPattern p = a._pattern;
+			CompiledPattern q = b._pattern;
+			if (p._priority != q._priority)
+				return p._priority > q._priority ? -1 : 1;
+			return q._sequence - p._sequence;
+		}
+	};
+
+	/**
+	 * A pattern compiled by a pattern set.
+	 */
+	private static final class CompiledPattern implements XPath2Pattern {
+		final String _text;
+		final String _mode;
+		final int _priority;
+		final int _sequence;
+		final Object _user_data;
+		final PatternPath[] _paths;
+
+		CompiledPattern(String text, String mode, int priority, int sequence, Object userData, PatternPath[] paths) {
+			_text = text;
+			_mode = mode;
+			_priority = priority;
+			_sequence = sequence;
+			_user_data = userData;
+			_paths = paths;
+		}
+
+		public Object getUserData() {
+			return _user_data;
+		}
+
+		public boolean matches(DynamicContext dc, Node context) {
+			for (int i = 0; i < _paths.length; i++) {
+				if (_paths[i].matches(dc, context))
+					return true;
+			}
+			return false;
+		}
+
+		public String toString() {
+			return _text;
+		}
+	}
+
+	/**
+	 * One alternative of a pattern, as kept in the index.
+	 */
+	private static final class Entry {
+		final CompiledPattern _pattern;
+		final PatternPath _path;
+		final boolean _decided; // no need to check the path once found
+
+		Entry(CompiledPattern pattern, PatternPath path) {
+			_pattern = pattern;
+			_path = path;
+			_decided = path.decided_by_index();
+		}
+
+		boolean matches(DynamicContext dc, Node node) {
+			return _decided || _path.matches(dc, node);
+		}
+	}
+
+	/**
+	 * A node of the index. The alternatives kept here are those whose
+	 * indexed steps are the edges leading here, the last step first.
+	 */
+	private static final class Trie {
+		HashMap<String, Trie> _elements;
+		HashMap<String, Trie> _attributes;
+		Trie _any_element;
+		Trie _any_attribute;
+		Trie _any_node;
+		Trie _text;
+		Trie _comment;
+		Trie _pi;
+		Trie _document;
+
+		ArrayList<Entry> _entries;
+		// alternatives which can't be indexed; only used at the top
+		ArrayList<Entry> _unindexed;
+
+		void add(Entry entry) {
+			PatternPath path = entry._path;
+			if (path.is_root()) {
+				child(PatternPath.DOCUMENT, null).entries().add(entry);
+				return;
+			}
+
+			int indexed = path.indexed_steps();
+			if (indexed == 0) {
+				if (_unindexed == null)
+					_unindexed = new ArrayList<Entry>();
+				_unindexed.add(entry);
+				return;
+			}
+
+			Trie trie = this;
+			int last = path.length() - 1;
+			for (int i = last; i > last - indexed; i--)
+				trie = trie.child(path.edge(i), path.name(i));
+			if (indexed == path.length() && path.absolute())
+				trie = trie.child(PatternPath.DOCUMENT, null);
+			trie.entries().add(entry);
+		}
+
+		private ArrayList<Entry> entries() {
+			if (_entries == null)
+				_entries = new ArrayList<Entry>(2);
+			return _entries;
+		}
+
+		private Trie child(int edge, String name) {
+			switch (edge) {
+			case PatternPath.ELEMENT:
+				if (_elements == null)
+					_elements = new HashMap<String, Trie>();
+				return child(_elements, name);
+			case PatternPath.ATTRIBUTE:
+				if (_attributes == null)
+					_attributes = new HashMap<String, Trie>();
+				return child(_attributes, name);
+			case PatternPath.ANY_ELEMENT:
+				return _any_element != null ? _any_element : (_any_element = new Trie());
+			case PatternPath.ANY_ATTRIBUTE:
+				return _any_attribute != null ? _any_attribute : (_any_attribute = new Trie());
+			case PatternPath.ANY_NODE:
+				return _any_node != null ? _any_node : (_any_node = new Trie());
+			case PatternPath.TEXT:
+				return _text != null ? _text : (_text = new Trie());
+			case PatternPath.COMMENT:
+				return _comment != null ? _comment : (_comment = new Trie());
+			case PatternPath.PI:
+				return _pi != null ? _pi : (_pi = new Trie());
+			default:
+				return _document != null ? _document : (_document = new Trie());
+			}
+		}
+
+		private static Trie child(HashMap<String, Trie> map, String name) {
+			Trie trie = map.get(name);
+			if (trie == null) {
+				trie = new Trie();
+				map.put(name, trie);
+			}
+			return trie;
+		}
+
+		void remove(CompiledPattern pattern) {
+			remove(_entries, pattern);
+			remove(_unindexed, pattern);
+			remove(_elements, pattern);
+			remove(_attributes, pattern);
+			Trie[] children = { _any_element, _any_attribute, _any_node, _text, _comment, _pi, _document };
+			for (int i = 0; i < children.length; i++) {
+				if (children[i] != null)
+					children[i].remove(pattern);
+			}
+		}
+
+		private static void remove(ArrayList<Entry> entries, CompiledPattern pattern) {
+			if (entries == null)
+				return;
+			for (Iterator<Entry> i = entries.iterator(); i.hasNext();) {
+				if (i.next()._pattern == pattern)
+					i.remove();
+			}
+		}
+
+		private static void remove(HashMap<String, Trie> map, CompiledPattern pattern) {
+			if (map == null)
+				return;
+			for (Iterator<Trie> i = map.values().iterator(); i.hasNext();)
+				i.next().remove(pattern);
+		}
+
+		// adds the alternatives whose indexed steps match the node
+		void collect(Node node, ArrayList<Entry> out) {
+			if (_unindexed != null)
+				out.addAll(_unindexed);
+			walk(node, out);
+		}
+
+		private void walk(Node node, ArrayList<Entry> out) {
+			Node parent = PatternPath.parent(node);
+			switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				if (_elements != null)
+					visit(_elements.get(PatternPath.key(node)), parent, out);
+				visit(_any_element, parent, out);
+				visit(_any_node, parent, out);
+				break;
+			case Node.ATTRIBUTE_NODE:
+				if (_attributes != null)
+					visit(_attributes.get(PatternPath.key(node)), parent, out);
+				visit(_any_attribute, parent, out);
+				break;
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+				visit(_text, parent, out);
+				visit(_any_node, parent, out);
+				break;
+			case Node.COMMENT_NODE:
+				visit(_comment, parent, out);
+				visit(_any_node, parent, out);
+				break;
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				visit(_pi, parent, out);
+				visit(_any_node, parent, out);
+				break;
+			case Node.DOCUMENT_NODE:
+				if (_document != null && _document._entries != null)
+					out.addAll(_document._entries);
+				break;
+			}
+		}
+
+		// every indexed step selects children or attributes, so a node
+		// without a parent matches none of them
+		private static void visit(Trie trie, Node parent, ArrayList<Entry> out) {
+			if (trie == null || parent == null)
+				return;
+			if (trie._entries != null)
+				out.addAll(trie._entries);
+			trie.walk(parent, out);
+		}
+	}
+
+	/**
+	 * The patterns matching a node. The best match is found by checking the
+	 * candidates in order of preference; all of them are only checked if
+	 * the count is asked for.
+	 */
+	private static final class PatternMatch implements Match {
+		private final DynamicContext _dc;
+		private final Node _node;
+		private final ArrayList<Entry> _candidates;
+		private XPath2Pattern _best;
+		private int _count = -1;
+
+		PatternMatch(DynamicContext dc, Node node, ArrayList<Entry> candidates) {
+			_dc = dc;
+			_node = node;
+			_candidates = candidates;
+			for (int i = 0; i < candidates.size(); i++) {
+				Entry entry = candidates.get(i);
+				if (entry.matches(dc, node)) {
+					_best = entry._pattern;
+					break;
+				}
+			}
+		}
+
+		public int getMatchingCount() {
+			if (_count < 0) {
+				HashSet<CompiledPattern> matching = new HashSet<CompiledPattern>();
+				for (int i = 0; i < _candidates.size(); i++) {
+					Entry entry = _candidates.get(i);
+					if (!matching.contains(entry._pattern) && entry.matches(_dc, _node))
+						matching.add(entry._pattern);
+				}
+				_count = matching.size();
+			}
+			return _count;
+		}
+
+		public XPath2Pattern getBestMatch() {
+			return _best;
+		}
+	}
+}
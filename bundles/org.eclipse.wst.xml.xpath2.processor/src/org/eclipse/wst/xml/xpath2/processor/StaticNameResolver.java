@@ -15,9 +15,11 @@
 
 package org.eclipse.wst.xml.xpath2.processor;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import javax.xml.XMLConstants;
@@ -90,6 +92,8 @@ import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarRef;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
 import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathVisitor;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.AbstractRegExFunction;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.ConstructorFL;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.SimpleAtomicItemTypeImpl;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeDefinition;
@@ -138,10 +142,13 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 			this.name = name;
 			this.typeDef = typeDef;
 			this.nextScope = nextScope;
+			this.slot = nextScope == null ? 0 : nextScope.slot + 1;
 		}
 		final public QName name;
 		final public org.eclipse.wst.xml.xpath2.api.typesystem.ItemType typeDef;
 		final public VariableScope nextScope; 
+		// position in the evaluator's frame of bound variables
+		final public int slot;
 	}	
 	
 	/**
@@ -177,13 +184,17 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 		return _sc.getInScopeVariables().getVariableType(name.asQName());
 	}
 
-	private boolean isVariableCaptured(QName name) {
+	private VariableScope getCapturingScope(QName name) {
 		VariableScope scope = _innerScope;
 		while (scope != null) {
-			if (name.equals(scope.name)) return true;
+			if (name.equals(scope.name)) return scope;
 			scope = scope.nextScope;
 		}
-		return false;
+		return null;
+	}
+
+	private boolean isVariableCaptured(QName name) {
+		return getCapturingScope(name) != null;
 	}
 
 	private boolean isVariableInScope(QName name) {
@@ -594,6 +605,18 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 	 */
 	public Object visit(CastableExpr cexp) {
 		printBinExpr("CASTABLE", cexp);
+
+		SingleType st = (SingleType) cexp.right();
+		QName type = st.type();
+
+		// an unknown type simply isn't castable, so don't report it here
+		javax.xml.namespace.QName qName = type.asQName();
+		Function f = _sc.resolveFunction(qName, 1);
+		if (f != null) {
+			cexp.set_function(f);
+			_resolvedFunctions.add(qName);
+		}
+
 		return null;
 	}
 
@@ -755,7 +778,14 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 			reportError(new StaticNameError(StaticNameError.NAME_NOT_FOUND));
 
 		// The variable is good. If it was not captured, it must be referring to an external var
-		if (! isVariableCaptured(var)) _freeVariables.add(var.asQName());
+		VariableScope scope = getCapturingScope(var);
+		if (scope != null) {
+			e.set_slot(scope.slot);
+		} else {
+			javax.xml.namespace.QName external = var.asQName();
+			_freeVariables.add(external);
+			e.set_external(external);
+		}
 		
 		return null;
 	}
@@ -847,11 +877,37 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 					+ name.string() + " arity: " + e.arity()));
 		e.set_function(f);
 		_resolvedFunctions.add(qName);
+
+		if (f instanceof AbstractRegExFunction)
+			precompile((AbstractRegExFunction) f, e);
 		
 		visitExprs(e.iterator());
 		return null;
 	}
 
+	// compile regular expressions given as literals now, and keep them with
+	// the call, rather than on every call
+	private void precompile(AbstractRegExFunction f, FunctionCall e) {
+		List<String> literals = new ArrayList<String>(e.arity());
+		for (Iterator i = e.iterator(); i.hasNext();) {
+			literals.add(string_literal((Expr) i.next()));
+		}
+		if (literals.size() >= 2)
+			e.set_pattern(f.precompile(literals));
+	}
+
+	private static String string_literal(Expr e) {
+		if (!(e instanceof XPathExpr))
+			return null;
+		XPathExpr xpe = (XPathExpr) e;
+		if (xpe.next() != null || xpe.slashes() != 0 || !(xpe.expr() instanceof FilterExpr))
+			return null;
+		FilterExpr fex = (FilterExpr) xpe.expr();
+		if (fex.predicate_count() != 0 || !(fex.primary() instanceof StringLiteral))
+			return null;
+		return ((StringLiteral) fex.primary()).string();
+	}
+
 	/**
 	 * Validate a single type.
 	 * 
@@ -905,6 +961,10 @@ public class StaticNameResolver implements XPathVisitor, StaticChecker {
 					reportError(new StaticTypeNameError("Type not defined: "
 							+ e.qname().string()));
 			}
+
+			Object fl = _sc.getFunctionLibraries().get(type.namespace());
+			if (fl instanceof ConstructorFL)
+				e.set_atomic_type(((ConstructorFL) fl).atomic_type(type));
 			break;
 
 		case ItemType.KINDTEST:
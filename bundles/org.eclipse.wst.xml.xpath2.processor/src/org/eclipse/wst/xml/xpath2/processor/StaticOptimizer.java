@@ -0,0 +1,1050 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+
+import org.eclipse.wst.xml.xpath2.api.Function;
+import org.eclipse.wst.xml.xpath2.api.Item;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.processor.ast.XPath;
+import org.eclipse.wst.xml.xpath2.processor.function.FnFunctionLibrary;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AddExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AndExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AnyKindTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AttributeTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AxisStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.BinExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CastExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CastableExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CmpExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CntxItemExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CommentTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.DecimalLiteral;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.DivExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.DocumentTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.DoubleLiteral;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ElementTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ExceptExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.Expr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FilterExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ForExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ForwardStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FunctionCall;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IDivExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IfExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.InstOfExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IntegerLiteral;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IntersectExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ItemType;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.Literal;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.MinusExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ModExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.MulExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NameTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.OrExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PITest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ParExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PipeExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PlusExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PrimaryExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.QuantifiedExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.RangeExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ReverseStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SchemaAttrTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SchemaElemTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SequenceType;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SingleType;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.StepExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.StringLiteral;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SubExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.TextTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.TreatAsExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnionExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarExprPair;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarRef;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathVisitor;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.Constructor;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnAbs;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnCeiling;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnCodepointsToString;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnConcat;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnCount;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnEmpty;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnEncodeForURI;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnEscapeHTMLUri;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnExists;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnFalse;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnFloor;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnIriToURI;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnLast;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnLowerCase;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnMatches;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnNormalizeSpace;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnNormalizeUnicode;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnNot;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnNumber;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnPosition;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnReplace;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnRound;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnRoundHalfToEven;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnString;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnStringJoin;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnStringLength;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnSubstring;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnTranslate;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnTrue;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnUpperCase;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDecimal;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDouble;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSInteger;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSString;
+import org.eclipse.wst.xml.xpath2.processor.util.DynamicContextBuilder;
+
+/**
+ * Simplifies an expression once its names have been resolved, so that work
+ * which doesn't depend on the dynamic context is done once, rather than on
+ * every evaluation.
+ *
+ * Operators and side effect free functions whose operands are all constants
+ * are evaluated, and replaced by their value if it can be written as a literal
+ * (a number, a string, a boolean or the empty sequence). Conditionals with a
+ * constant condition are replaced by the branch taken, and redundant boolean
+ * logic is removed. If folding raises an error the expression is left as it
+ * is, so the error is still reported at run time, and only if the expression
+ * is actually evaluated.
+ *
+ * Paths of the form E//x are turned into E/descendant::x where that means the
+ * same thing, so they become a single walk of the tree. Steps which produce
+ * their nodes in document order anyway are marked, so they aren't sorted.
+ *
+ * Each visit returns the node which replaces the one visited, which is the
+ * node itself when nothing could be simplified.
+ */
+class StaticOptimizer implements XPathVisitor {
+
+	// functions whose result depends on nothing but their arguments; string
+	// comparisons are missing on purpose, as they use the default collation
+	// of the dynamic context
+	private static final Set<Class<?>> PURE = new HashSet<Class<?>>(Arrays.asList(new Class<?>[] {
+			FnAbs.class, FnBoolean.class, FnCeiling.class, FnCodepointsToString.class,
+			FnConcat.class, FnCount.class, FnEmpty.class, FnEncodeForURI.class,
+			FnEscapeHTMLUri.class, FnExists.class, FnFloor.class, FnIriToURI.class,
+			FnLowerCase.class, FnMatches.class, FnNormalizeSpace.class,
+			FnNormalizeUnicode.class, FnNot.class, FnNumber.class, FnReplace.class,
+			FnRound.class, FnRoundHalfToEven.class, FnString.class, FnStringJoin.class,
+			FnStringLength.class, FnSubstring.class, FnTranslate.class, FnUpperCase.class,
+			Constructor.class }));
+
+	// functions which always return a single xs:boolean
+	private static final Set<Class<?>> BOOLEAN = new HashSet<Class<?>>(Arrays.asList(new Class<?>[] {
+			FnBoolean.class, FnEmpty.class, FnExists.class, FnFalse.class,
+			FnNot.class, FnTrue.class }));
+
+	// what is known about a sequence of nodes
+	private static final int ORDERED = 1; // in document order, no duplicates
+	private static final int FLAT = 2; // no node is an ancestor of another
+
+	private final StaticContext _sc;
+	private DefaultEvaluator _evaluator;
+
+	// calls of fn:position and fn:last seen so far
+	private int _focus_calls = 0;
+
+	/**
+	 * @param sc
+	 *            The static context the expression was resolved against.
+	 */
+	StaticOptimizer(StaticContext sc) {
+		_sc = sc;
+	}
+
+	/**
+	 * Simplifies an expression in place.
+	 *
+	 * @param xp
+	 *            The expression, with all its names resolved.
+	 */
+	public void optimize(XPath xp) {
+		xp.accept(this);
+	}
+
+	private Expr optimize(Expr e) {
+		return (Expr) e.accept(this);
+	}
+
+	private void optimize_all(Collection exprs) {
+		if (!(exprs instanceof List)) {
+			for (Iterator i = exprs.iterator(); i.hasNext();)
+				optimize((Expr) i.next());
+			return;
+		}
+		for (ListIterator i = ((List) exprs).listIterator(); i.hasNext();)
+			i.set(optimize((Expr) i.next()));
+	}
+
+	private void optimize_operands(BinExpr ex) {
+		ex.set_left(optimize((Expr) ex.left()));
+		ex.set_right(optimize((Expr) ex.right()));
+	}
+
+	// the primary expression of a path which is nothing else, e.g. a literal
+	private static PrimaryExpr lone_primary(XPathNode n) {
+		if (!(n instanceof XPathExpr))
+			return null;
+		XPathExpr xpe = (XPathExpr) n;
+		if (xpe.next() != null || xpe.slashes() != 0 || !(xpe.expr() instanceof FilterExpr))
+			return null;
+		FilterExpr fex = (FilterExpr) xpe.expr();
+		if (fex.predicate_count() != 0)
+			return null;
+		return fex.primary();
+	}
+
+	private static boolean is_call(XPathNode n, Class<?> type) {
+		return n instanceof FunctionCall && type.isInstance(((FunctionCall) n).function());
+	}
+
+	private static Expr first_arg(FunctionCall fc) {
+		return (Expr) fc.iterator().next();
+	}
+
+	private static boolean is_constant(XPathNode n) {
+		PrimaryExpr p = lone_primary(n);
+		if (p instanceof ParExpr)
+			return ((ParExpr) p).exprs().isEmpty();
+		return p instanceof Literal || is_call(p, FnTrue.class) || is_call(p, FnFalse.class);
+	}
+
+	private static boolean is_boolean(XPathNode n) {
+		if (n instanceof AndExpr || n instanceof OrExpr || n instanceof QuantifiedExpr
+				|| n instanceof InstOfExpr || n instanceof CastableExpr)
+			return true;
+		// value and node comparisons may be empty
+		if (n instanceof CmpExpr)
+			return ((CmpExpr) n).type() <= CmpExpr.GREATEREQUAL;
+		PrimaryExpr p = lone_primary(n);
+		return p instanceof FunctionCall && BOOLEAN.contains(((FunctionCall) p).function().getClass());
+	}
+
+	// true if the value of e is never a number, so as a predicate it is
+	// never compared with the context position
+	private static boolean never_numeric(Expr e) {
+		if (is_boolean(e))
+			return true;
+		if (!(e instanceof XPathExpr))
+			return false;
+		for (XPathExpr xp = (XPathExpr) e; xp != null; xp = xp.next()) {
+			if (xp.expr() != null && !(xp.expr() instanceof AxisStep))
+				return false;
+		}
+		return true;
+	}
+
+	// E//child::x is E/descendant::x, as long as the predicates of the step
+	// don't look at positions, which are relative to the children of each node
+	private static void descendant_step(XPathExpr xp) {
+		if (!(xp.expr() instanceof AxisStep))
+			return;
+		AxisStep as = (AxisStep) xp.expr();
+		if (!(as.step() instanceof ForwardStep))
+			return;
+		ForwardStep fs = (ForwardStep) as.step();
+		if (!"child".equals(fs.iterator().name()))
+			return;
+		for (Iterator i = as.iterator(); i.hasNext();) {
+			Collection exprs = (Collection) i.next();
+			if (exprs.size() != 1 || !never_numeric((Expr) exprs.iterator().next()))
+				return;
+		}
+		fs.set_axis(ForwardStep.DESCENDANT);
+		xp.set_slashes(1);
+	}
+
+	private static String forward_axis(StepExpr se) {
+		if (!(se instanceof AxisStep) || !(((AxisStep) se).step() instanceof ForwardStep))
+			return null;
+		return ((ForwardStep) ((AxisStep) se).step()).iterator().name();
+	}
+
+	// what is known about the results of a step if the results for each of
+	// the context nodes are simply put one after the other
+	private static int concatenated(String axis, int context) {
+		if (axis == null || (context & ORDERED) == 0)
+			return 0;
+		if (axis.equals("self"))
+			return context;
+		if (axis.equals("attribute"))
+			return ORDERED | FLAT;
+
+		// the subtrees of nested context nodes overlap
+		if ((context & FLAT) == 0)
+			return 0;
+		if (axis.equals("child"))
+			return ORDERED | FLAT;
+		if (axis.equals("descendant") || axis.equals("descendant-or-self"))
+			return ORDERED;
+		return 0;
+	}
+
+	// what is known about the results of a step once they have been sorted
+	private static int sorted(String axis, int context) {
+		if ("attribute".equals(axis))
+			return ORDERED | FLAT;
+		if (("self".equals(axis) || "child".equals(axis)) && (context & FLAT) != 0)
+			return ORDERED | FLAT;
+		return ORDERED;
+	}
+
+	// Marks the steps of a path whose results come out in document order
+	// anyway, so the evaluator needn't sort them. The first step of a
+	// relative path runs for a single context item, and the steps after a
+	// slash run for the (sorted) results of the step before.
+	private static void mark_ordered(XPathExpr e) {
+		XPathExpr xp = e;
+		int context = ORDERED | FLAT; // the root, or the context item
+		if (xp.slashes() == 0) {
+			context = concatenated(forward_axis(xp.expr()), context);
+			xp = xp.next();
+		}
+
+		for (; xp != null; xp = xp.next()) {
+			if (xp.expr() == null)
+				continue;
+			// // is a descendant-or-self::node() step of its own
+			if (xp.slashes() == 2)
+				context = concatenated("descendant-or-self", context);
+
+			String axis = forward_axis(xp.expr());
+			int result = concatenated(axis, context);
+			xp.set_ordered(result != 0);
+			context = result != 0 ? result : sorted(axis, context);
+		}
+	}
+
+	private static Expr path(PrimaryExpr p) {
+		return new XPathExpr(0, new FilterExpr(p, new ArrayList()));
+	}
+
+	private static PrimaryExpr primary(Expr e) {
+		PrimaryExpr p = lone_primary(e);
+		if (p != null)
+			return p;
+		Collection exprs = new ArrayList(1);
+		exprs.add(e);
+		return new ParExpr(exprs);
+	}
+
+	// a call of a function in the fn namespace, or null if the static
+	// context doesn't know it
+	private FunctionCall call(String name, Collection args) {
+		Function f = _sc.resolveFunction(new javax.xml.namespace.QName(FnFunctionLibrary.XPATH_FUNCTIONS_NS, name), args.size());
+		if (f == null)
+			return null;
+		FunctionCall fc = new FunctionCall(new QName("fn", name, FnFunctionLibrary.XPATH_FUNCTIONS_NS), args);
+		fc.set_function(f);
+		return fc;
+	}
+
+	private Expr constant(boolean value, Expr otherwise) {
+		FunctionCall fc = call(value ? "true" : "false", new ArrayList());
+		return fc != null ? path(fc) : otherwise;
+	}
+
+	// an expression for the effective boolean value of e
+	private Expr boolean_of(Expr e, Expr otherwise) {
+		if (is_boolean(e))
+			return e;
+		Collection args = new ArrayList(1);
+		args.add(e);
+		FunctionCall fc = call("boolean", args);
+		return fc != null ? path(fc) : otherwise;
+	}
+
+	// drops a call of fn:boolean where only the effective boolean value of
+	// the argument is used anyway
+	private static Expr ebv_operand(Expr e) {
+		PrimaryExpr p = lone_primary(e);
+		if (is_call(p, FnBoolean.class))
+			return first_arg((FunctionCall) p);
+		return e;
+	}
+
+	private DefaultEvaluator evaluator() {
+		if (_evaluator == null)
+			_evaluator = new DefaultEvaluator(_sc, new DynamicContextBuilder(_sc), new Object[0]);
+		return _evaluator;
+	}
+
+	private ResultSequence evaluate(XPathNode n) {
+		try {
+			return evaluator().evaluate2(n);
+		} catch (XPathException ex) {
+			return null;
+		}
+	}
+
+	// the effective boolean value of a constant, or null if it isn't one
+	private Boolean constant_ebv(Expr e) {
+		if (!is_constant(e))
+			return null;
+		ResultSequence rs = evaluate(e);
+		if (rs == null)
+			return null;
+		try {
+			return Boolean.valueOf(FnBoolean.fn_boolean(rs).value());
+		} catch (XPathException ex) {
+			return null;
+		}
+	}
+
+	// evaluates an expression without a focus, returning its value as a
+	// primary expression, or null if the value has no literal form
+	private PrimaryExpr fold(XPathNode n) {
+		ResultSequence rs = evaluate(n);
+		if (rs == null)
+			return null;
+		if (rs.empty())
+			return new ParExpr(new ArrayList());
+		if (rs.size() != 1)
+			return null;
+
+		Item item = rs.item(0);
+		Class<?> type = item.getClass();
+		if (type == XSInteger.class)
+			return new IntegerLiteral(((XSInteger) item).int_value());
+		if (type == XSDecimal.class)
+			return new DecimalLiteral(((XSDecimal) item).getValue());
+		if (type == XSDouble.class)
+			return new DoubleLiteral(((XSDouble) item).double_value());
+		if (type == XSString.class)
+			return new StringLiteral(((XSString) item).value());
+		if (type == XSBoolean.class)
+			return call(((XSBoolean) item).value() ? "true" : "false", new ArrayList());
+		return null;
+	}
+
+	private Expr folded(Expr e) {
+		PrimaryExpr p = fold(e);
+		return p != null ? path(p) : e;
+	}
+
+	private Expr fold_arithmetic(BinExpr ex) {
+		optimize_operands(ex);
+		if (is_constant(ex.left()) && is_constant(ex.right()))
+			return folded(ex);
+		return ex;
+	}
+
+	private Expr fold_unary(UnExpr e) {
+		e.set_arg(optimize(e.arg()));
+		if (is_constant(e.arg()))
+			return folded(e);
+		return e;
+	}
+
+	// the operand of instance of, treat as, castable and cast
+	private Expr fold_typed(BinExpr ex) {
+		ex.set_left(optimize((Expr) ex.left()));
+		if (is_constant(ex.left()))
+			return folded(ex);
+		return ex;
+	}
+
+	private Expr fold_logic(BinExpr ex, boolean and) {
+		Expr left = ebv_operand(optimize((Expr) ex.left()));
+		Expr right = ebv_operand(optimize((Expr) ex.right()));
+		ex.set_left(left);
+		ex.set_right(right);
+
+		Boolean l = constant_ebv(left);
+		Boolean r = constant_ebv(right);
+
+		// false and E is false, and true or E is true, even if E raises an
+		// error, since the operands may be evaluated in any order
+		if (l != null && l.booleanValue() != and || r != null && r.booleanValue() != and)
+			return constant(!and, ex);
+		if (l != null && r != null)
+			return constant(and, ex);
+
+		// true and E, or false or E, is just E
+		if (l != null)
+			return boolean_of(right, ex);
+		if (r != null)
+			return boolean_of(left, ex);
+		return ex;
+	}
+
+	private void optimize_predicates(Iterator predicates) {
+		while (predicates.hasNext())
+			optimize_all((Collection) predicates.next());
+	}
+
+	/**
+	 * @param xp
+	 *            is the xpath expression.
+	 * @return xp.
+	 */
+	public Object visit(XPath xp) {
+		optimize_all(xp.exprs());
+		return xp;
+	}
+
+	/**
+	 * @param fex
+	 *            is the For expression.
+	 * @return fex.
+	 */
+	public Object visit(ForExpr fex) {
+		for (Iterator i = fex.iterator(); i.hasNext();) {
+			VarExprPair pair = (VarExprPair) i.next();
+			pair.set_expr(optimize(pair.expr()));
+		}
+		fex.set_expr(optimize(fex.expr()));
+		return fex;
+	}
+
+	/**
+	 * @param qex
+	 *            is the Quantified expression.
+	 * @return qex.
+	 */
+	public Object visit(QuantifiedExpr qex) {
+		for (Iterator i = qex.iterator(); i.hasNext();) {
+			VarExprPair pair = (VarExprPair) i.next();
+			pair.set_expr(optimize(pair.expr()));
+		}
+		qex.set_expr(ebv_operand(optimize(qex.expr())));
+		return qex;
+	}
+
+	/**
+	 * @param ifex
+	 *            is the 'if' expression.
+	 * @return the branch taken if the condition is constant, ifex otherwise.
+	 */
+	public Object visit(IfExpr ifex) {
+		Collection conds = ifex.exprs();
+		optimize_all(conds);
+		ifex.set_then_clause(optimize(ifex.then_clause()));
+		ifex.set_else_clause(optimize(ifex.else_clause()));
+
+		if (conds.size() != 1 || !(conds instanceof List))
+			return ifex;
+
+		Expr cond = ebv_operand((Expr) ((List) conds).get(0));
+		((List) conds).set(0, cond);
+
+		Boolean value = constant_ebv(cond);
+		if (value == null)
+			return ifex;
+		return value.booleanValue() ? ifex.then_clause() : ifex.else_clause();
+	}
+
+	/**
+	 * @param orex
+	 *            is the 'or' expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(OrExpr orex) {
+		return fold_logic(orex, false);
+	}
+
+	/**
+	 * @param andex
+	 *            is the 'and' expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(AndExpr andex) {
+		return fold_logic(andex, true);
+	}
+
+	/**
+	 * @param cmpex
+	 *            is the compare expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(CmpExpr cmpex) {
+		optimize_operands(cmpex);
+		if (!is_constant(cmpex.left()) || !is_constant(cmpex.right()))
+			return cmpex;
+
+		// strings compare according to the default collation, which isn't
+		// known until run time
+		if (lone_primary(cmpex.left()) instanceof StringLiteral
+				|| lone_primary(cmpex.right()) instanceof StringLiteral)
+			return cmpex;
+		return folded(cmpex);
+	}
+
+	/**
+	 * @param rex
+	 *            is the range expression.
+	 * @return rex, since a range is never a single value worth folding.
+	 */
+	public Object visit(RangeExpr rex) {
+		optimize_operands(rex);
+		return rex;
+	}
+
+	/**
+	 * @param addex
+	 *            is the add expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(AddExpr addex) {
+		return fold_arithmetic(addex);
+	}
+
+	/**
+	 * @param subex
+	 *            is the sub expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(SubExpr subex) {
+		return fold_arithmetic(subex);
+	}
+
+	/**
+	 * @param mulex
+	 *            is the multiply expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(MulExpr mulex) {
+		return fold_arithmetic(mulex);
+	}
+
+	/**
+	 * @param mulex
+	 *            is the division expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(DivExpr mulex) {
+		return fold_arithmetic(mulex);
+	}
+
+	/**
+	 * @param mulex
+	 *            is the integer division expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(IDivExpr mulex) {
+		return fold_arithmetic(mulex);
+	}
+
+	/**
+	 * @param mulex
+	 *            is the mod expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(ModExpr mulex) {
+		return fold_arithmetic(mulex);
+	}
+
+	/**
+	 * @param unex
+	 *            is the union expression.
+	 * @return unex.
+	 */
+	public Object visit(UnionExpr unex) {
+		optimize_operands(unex);
+		return unex;
+	}
+
+	/**
+	 * @param pipex
+	 *            is the pipe expression.
+	 * @return pipex.
+	 */
+	public Object visit(PipeExpr pipex) {
+		optimize_operands(pipex);
+		return pipex;
+	}
+
+	/**
+	 * @param iexpr
+	 *            is the intersect expression.
+	 * @return iexpr.
+	 */
+	public Object visit(IntersectExpr iexpr) {
+		optimize_operands(iexpr);
+		return iexpr;
+	}
+
+	/**
+	 * @param eexpr
+	 *            is the except expression.
+	 * @return eexpr.
+	 */
+	public Object visit(ExceptExpr eexpr) {
+		optimize_operands(eexpr);
+		return eexpr;
+	}
+
+	/**
+	 * @param ioexp
+	 *            is the instance of expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(InstOfExpr ioexp) {
+		return fold_typed(ioexp);
+	}
+
+	/**
+	 * @param taexp
+	 *            is the treat as expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(TreatAsExpr taexp) {
+		return fold_typed(taexp);
+	}
+
+	/**
+	 * @param cexp
+	 *            is the castable expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(CastableExpr cexp) {
+		return fold_typed(cexp);
+	}
+
+	/**
+	 * @param cexp
+	 *            is the cast expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(CastExpr cexp) {
+		return fold_typed(cexp);
+	}
+
+	/**
+	 * @param e
+	 *            is the minus expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(MinusExpr e) {
+		return fold_unary(e);
+	}
+
+	/**
+	 * @param e
+	 *            is the plus expression.
+	 * @return the simplified expression.
+	 */
+	public Object visit(PlusExpr e) {
+		return fold_unary(e);
+	}
+
+	/**
+	 * @param e
+	 *            is the xpath expression.
+	 * @return E if the path is nothing but (E), e otherwise.
+	 */
+	public Object visit(XPathExpr e) {
+		for (XPathExpr xp = e; xp != null; xp = xp.next()) {
+			StepExpr se = xp.expr();
+			if (se == null)
+				continue;
+
+			int focus_calls = _focus_calls;
+			xp.set_expr((StepExpr) se.accept(this));
+			if (xp.slashes() == 2 && _focus_calls == focus_calls)
+				descendant_step(xp);
+		}
+		mark_ordered(e);
+
+		PrimaryExpr p = lone_primary(e);
+		if (p instanceof ParExpr && ((ParExpr) p).exprs().size() == 1)
+			return ((ParExpr) p).exprs().iterator().next();
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the forward step.
+	 * @return e.
+	 */
+	public Object visit(ForwardStep e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the reverse step.
+	 * @return e.
+	 */
+	public Object visit(ReverseStep e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the name test.
+	 * @return e.
+	 */
+	public Object visit(NameTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the variable reference.
+	 * @return e.
+	 */
+	public Object visit(VarRef e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the string literal.
+	 * @return e.
+	 */
+	public Object visit(StringLiteral e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the integer literal.
+	 * @return e.
+	 */
+	public Object visit(IntegerLiteral e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the double literal.
+	 * @return e.
+	 */
+	public Object visit(DoubleLiteral e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the decimal literal.
+	 * @return e.
+	 */
+	public Object visit(DecimalLiteral e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the par expression.
+	 * @return e.
+	 */
+	public Object visit(ParExpr e) {
+		optimize_all(e.exprs());
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the Context Item Expression.
+	 * @return e.
+	 */
+	public Object visit(CntxItemExpr e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the function call.
+	 * @return the primary expression replacing the call.
+	 */
+	public Object visit(FunctionCall e) {
+		optimize_all(e.args());
+		Function f = e.function();
+		if (f instanceof FnPosition || f instanceof FnLast)
+			_focus_calls++;
+
+		if ((f instanceof FnNot || f instanceof FnBoolean) && e.args() instanceof List) {
+			List args = (List) e.args();
+			Expr arg = ebv_operand((Expr) args.get(0));
+			args.set(0, arg);
+
+			// boolean(E) is E when E is a boolean already
+			if (f instanceof FnBoolean && is_boolean(arg))
+				return primary(arg);
+
+			// not(not(E)) is boolean(E)
+			PrimaryExpr p = lone_primary(arg);
+			if (f instanceof FnNot && is_call(p, FnNot.class)) {
+				Expr b = boolean_of(first_arg((FunctionCall) p), null);
+				if (b != null)
+					return primary(b);
+			}
+		}
+
+		if (e.arity() == 0 || !(PURE.contains(f.getClass()) || f instanceof Constructor))
+			return e;
+		for (Iterator i = e.iterator(); i.hasNext();) {
+			if (!is_constant((Expr) i.next()))
+				return e;
+		}
+		PrimaryExpr p = fold(e);
+		return p != null ? p : e;
+	}
+
+	/**
+	 * @param e
+	 *            is the single type.
+	 * @return e.
+	 */
+	public Object visit(SingleType e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the sequence type.
+	 * @return e.
+	 */
+	public Object visit(SequenceType e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the item type.
+	 * @return e.
+	 */
+	public Object visit(ItemType e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the any kind test.
+	 * @return e.
+	 */
+	public Object visit(AnyKindTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the document test.
+	 * @return e.
+	 */
+	public Object visit(DocumentTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the text test.
+	 * @return e.
+	 */
+	public Object visit(TextTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the comment test.
+	 * @return e.
+	 */
+	public Object visit(CommentTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the processing instruction test.
+	 * @return e.
+	 */
+	public Object visit(PITest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the attribute test.
+	 * @return e.
+	 */
+	public Object visit(AttributeTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the schema attribute test.
+	 * @return e.
+	 */
+	public Object visit(SchemaAttrTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the element test.
+	 * @return e.
+	 */
+	public Object visit(ElementTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the schema element test.
+	 * @return e.
+	 */
+	public Object visit(SchemaElemTest e) {
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the axis step.
+	 * @return e.
+	 */
+	public Object visit(AxisStep e) {
+		optimize_predicates(e.iterator());
+		return e;
+	}
+
+	/**
+	 * @param e
+	 *            is the filter expression.
+	 * @return e.
+	 */
+	public Object visit(FilterExpr e) {
+		e.set_primary((PrimaryExpr) e.primary().accept(this));
+		optimize_predicates(e.iterator());
+
+		// (P)[...] is P[...] for a primary expression P
+		PrimaryExpr p = e.primary();
+		if (p instanceof ParExpr && ((ParExpr) p).exprs().size() == 1) {
+			PrimaryExpr inner = lone_primary((Expr) ((ParExpr) p).exprs().iterator().next());
+			if (inner != null)
+				e.set_primary(inner);
+		}
+		return e;
+	}
+}
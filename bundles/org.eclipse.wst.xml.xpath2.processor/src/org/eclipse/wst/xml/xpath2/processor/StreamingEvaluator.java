@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.Item;
+import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
+import org.eclipse.wst.xml.xpath2.processor.ast.XPath;
+import org.eclipse.wst.xml.xpath2.processor.function.FnFunctionLibrary;
+import org.eclipse.wst.xml.xpath2.processor.internal.StreamingMatcher;
+import org.eclipse.wst.xml.xpath2.processor.internal.StreamingPath;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FilterExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FunctionCall;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDouble;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSInteger;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Evaluates an expression while a document is parsed, without loading the
+ * document first, so documents much larger than memory can be queried.
+ *
+ * Only simple expressions can be streamed: an absolute path such as
+ * /feed/entry[@lang='en']/title, optionally given to fn:count, fn:sum,
+ * fn:exists or fn:empty. The path may use the child, descendant,
+ * descendant-or-self, self and attribute axes, and its last step may select
+ * elements, attributes or text. Predicates of the other steps may only test
+ * attributes of the node, and numeric predicates such as [1] are only
+ * allowed on child steps. Whether an expression qualifies is decided when
+ * it is compiled.
+ *
+ * Selected elements are copied, with their content, into small read-only
+ * trees of their own, which don't include their ancestors. Only these
+ * copies and the chain of open elements are held in memory; for the
+ * aggregate functions, elements are only copied when their content is
+ * needed.
+ *
+ * An evaluator may be used by several threads at once.
+ *
+ * @since 2.1
+ */
+public class StreamingEvaluator {
+
+	private static final int SELECT = 0;
+	private static final int COUNT = 1;
+	private static final int SUM = 2;
+	private static final int EXISTS = 3;
+	private static final int EMPTY = 4;
+
+	private static final String[] FUNCTIONS = { null, "count", "sum", "exists", "empty" };
+
+	private static final Comparator<Object[]> DOCUMENT_ORDER = new Comparator<Object[]>() {
+		public int compare(Object[] a, Object[] b) {
+			return ((Long) a[0]).compareTo((Long) b[0]);
+		}
+	};
+
+	/**
+	 * Receives the nodes selected by the path as the document is parsed.
+	 */
+	public interface MatchHandler {
+		/**
+		 * @param node
+		 *            A selected node, copied out of the document. Elements
+		 *            are handed over when they end, so one comes after the
+		 *            elements it contains.
+		 * @return Whether to go on; false stops the parsing.
+		 */
+		boolean match(Node node);
+	}
+
+	private final StaticContext _sc;
+	private final StreamingPath _path;
+	private final int _function;
+
+	/**
+	 * Compiles an expression for streaming.
+	 *
+	 * @param context
+	 *            Static context to parse the expression in.
+	 * @param expression
+	 *            The expression.
+	 * @throws StaticError
+	 *             If the expression can't be parsed, or can't be streamed
+	 *             (with the error code XTSE3430).
+	 */
+	public StreamingEvaluator(StaticContext context, String expression) {
+		XPath xpath = (XPath) new Engine().parseExpression(expression, context);
+		for (Iterator i = xpath.getAxes().iterator(); i.hasNext();) {
+			String axis = (String) i.next();
+			if (!(axis.equals("child") || axis.equals("descendant") || axis.equals("descendant-or-self") || axis.equals("self") || axis.equals("attribute")))
+				throw StreamingPath.not_streamable("the " + axis + " axis can't be streamed");
+		}
+		if (xpath.exprs().size() != 1)
+			throw StreamingPath.not_streamable("only a single path can be streamed");
+
+		XPathNode e = (XPathNode) xpath.exprs().iterator().next();
+		int function = SELECT;
+		FunctionCall call = function_call(e);
+		if (call != null) {
+			QName name = call.name();
+			if (call.arity() == 1 && FnFunctionLibrary.XPATH_FUNCTIONS_NS.equals(name.namespace())) {
+				for (int i = 1; i < FUNCTIONS.length; i++) {
+					if (FUNCTIONS[i].equals(name.local()))
+						function = i;
+				}
+			}
+			if (function == SELECT)
+				throw StreamingPath.not_streamable("only count, sum, exists and empty can be applied to the path");
+			e = (XPathNode) call.args().iterator().next();
+		}
+		if (!(e instanceof XPathExpr))
+			throw StreamingPath.not_streamable("only absolute paths can be streamed");
+
+		_sc = context;
+		_path = new StreamingPath((XPathExpr) e, context);
+		_function = function;
+	}
+
+	private static FunctionCall function_call(XPathNode e) {
+		if (e instanceof FunctionCall)
+			return (FunctionCall) e;
+		if (!(e instanceof XPathExpr))
+			return null;
+		XPathExpr xpe = (XPathExpr) e;
+		if (xpe.next() != null || xpe.slashes() != 0 || !(xpe.expr() instanceof FilterExpr))
+			return null;
+		FilterExpr fex = (FilterExpr) xpe.expr();
+		if (fex.predicate_count() != 0 || !(fex.primary() instanceof FunctionCall))
+			return null;
+		return (FunctionCall) fex.primary();
+	}
+
+	/**
+	 * Decides whether an expression can be streamed.
+	 *
+	 * @param context
+	 *            Static context to parse the expression in.
+	 * @param expression
+	 *            The expression.
+	 * @return Whether the expression parses and can be streamed.
+	 */
+	public static boolean isStreamable(StaticContext context, String expression) {
+		try {
+			new StreamingEvaluator(context, expression);
+			return true;
+		} catch (StaticError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Evaluates the expression over a document.
+	 *
+	 * @param dc
+	 *            Dynamic context for the predicates.
+	 * @param in
+	 *            The document.
+	 * @throws DOMLoaderException
+	 *             If the document can't be read or parsed.
+	 * @return For a path, the nodes selected in document order; otherwise
+	 *         the value of the function.
+	 */
+	public ResultSequence evaluate(DynamicContext dc, InputStream in) throws DOMLoaderException {
+		return evaluate(dc, new InputSource(in), null);
+	}
+
+	/**
+	 * Evaluates the expression over a document, handing over the selected
+	 * nodes as they are found.
+	 *
+	 * @param dc
+	 *            Dynamic context for the predicates.
+	 * @param source
+	 *            The document.
+	 * @param handler
+	 *            Receives the nodes selected by the path, or null to have
+	 *            them returned.
+	 * @throws DOMLoaderException
+	 *             If the document can't be read or parsed.
+	 * @return The value of the function applied to the path, if any, over
+	 *         the nodes seen by the handler; an empty sequence for a path
+	 *         with a handler, the nodes it selects without one.
+	 */
+	public ResultSequence evaluate(DynamicContext dc, InputSource source, MatchHandler handler) throws DOMLoaderException {
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+		factory.setNamespaceAware(true);
+		try {
+			return evaluate(dc, factory.newSAXParser().getXMLReader(), source, handler);
+		} catch (SAXException e) {
+			throw new DOMLoaderException("SAX exception: " + e.getMessage());
+		} catch (ParserConfigurationException e) {
+			throw new DOMLoaderException("Parser configuration exception: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Evaluates the expression over a document read by a given reader, so
+	 * that it can be configured or be the end of a chain of filters.
+	 *
+	 * @param dc
+	 *            Dynamic context for the predicates.
+	 * @param reader
+	 *            A namespace aware reader. Its content handler and lexical
+	 *            handler are replaced.
+	 * @param source
+	 *            The document.
+	 * @param handler
+	 *            Receives the nodes selected by the path, or null to have
+	 *            them returned.
+	 * @throws DOMLoaderException
+	 *             If the document can't be read or parsed.
+	 * @return As for evaluate(DynamicContext, InputSource, MatchHandler).
+	 */
+	public ResultSequence evaluate(DynamicContext dc, XMLReader reader, InputSource source, MatchHandler handler) throws DOMLoaderException {
+		Collector collector = new Collector(handler);
+		boolean nodes = handler != null || _function == SELECT || _function == SUM;
+		StreamingMatcher matcher = new StreamingMatcher(_path, dc, collector, nodes);
+		try {
+			matcher.parse(reader, source);
+		} catch (SAXException e) {
+			throw new DOMLoaderException("SAX exception: " + e.getMessage());
+		} catch (IOException e) {
+			throw new DOMLoaderException("IO exception: " + e.getMessage());
+		}
+		return collector.result(_sc.getTypeModel());
+	}
+
+	private final class Collector implements StreamingMatcher.Listener {
+
+		private final MatchHandler _handler;
+		private final ArrayList<Object[]> _nodes = new ArrayList<Object[]>();
+		private long _count;
+		private double _sum;
+
+		Collector(MatchHandler handler) {
+			_handler = handler;
+		}
+
+		public boolean match(Node node, long key) {
+			_count++;
+			if (_function == SUM) {
+				String value = ((TinyNode) node).string_value().trim();
+				XSDouble d = XSDouble.parse_double(value);
+				if (d == null)
+					throw DynamicError.cant_cast("xs:double(\"" + value + "\")");
+				_sum += d.double_value();
+			}
+			if (_handler != null && !_handler.match(node))
+				return false;
+			if (_handler == null && _function == SELECT)
+				_nodes.add(new Object[] { new Long(key), node });
+			// one node decides these
+			return _function != EXISTS && _function != EMPTY;
+		}
+
+		ResultSequence result(TypeModel tm) {
+			switch (_function) {
+			case COUNT:
+				return ResultBuffer.wrap(new XSInteger(_count));
+			case SUM:
+				// the sum of no items is the integer 0
+				return ResultBuffer.wrap(_count == 0 ? (Item) new XSInteger(0) : new XSDouble(_sum));
+			case EXISTS:
+				return XSBoolean.valueOf(_count > 0);
+			case EMPTY:
+				return XSBoolean.valueOf(_count == 0);
+			}
+			Collections.sort(_nodes, DOCUMENT_ORDER);
+			ResultBuffer rb = new ResultBuffer();
+			for (int i = 0; i < _nodes.size(); i++)
+				rb.add(NodeType.dom_to_xpath((Node) _nodes.get(i)[1], tm));
+			return rb.getSequence();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyTreeHandler;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Loads a document into a compact, read-only tree rather than a full DOM. The
+ * tree keeps its nodes in a few parallel arrays and its text in one shared
+ * buffer, and only creates node objects as the query reaches them, so it
+ * takes several times less memory than a DOM and is quicker to walk.
+ *
+ * The tree is seen through the usual DOM interfaces, but can't be modified.
+ * It holds no schema type information, and adjacent text and CDATA sections
+ * are merged into single text nodes. The loading is always namespace aware.
+ *
+ * @since 2.1
+ */
+public class TinyTreeBuilder implements DOMLoader {
+
+	private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+	boolean _validating;
+
+	/**
+	 * Constructor for the tiny tree builder.
+	 */
+	public TinyTreeBuilder() {
+		_validating = false;
+	}
+
+	/**
+	 * Loads the XML document.
+	 * 
+	 * @param in
+	 *            is the input stream.
+	 * @throws DOMLoaderException
+	 *             DOM loader exception.
+	 * @return The loaded document.
+	 */
+	public Document load(InputStream in) throws DOMLoaderException {
+		return load(new InputSource(in));
+	}
+
+	/**
+	 * Loads the XML document. The system id of the source, if any, becomes
+	 * the document URI.
+	 * 
+	 * @param source
+	 *            is the input source.
+	 * @throws DOMLoaderException
+	 *             DOM loader exception.
+	 * @return The loaded document.
+	 */
+	public Document load(InputSource source) throws DOMLoaderException {
+		SAXParserFactory factory = SAXParserFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+		factory.setValidating(_validating);
+
+		try {
+			SAXParser parser = factory.newSAXParser();
+			XMLReader reader = parser.getXMLReader();
+			TinyTreeHandler handler = new TinyTreeHandler();
+
+			reader.setContentHandler(handler);
+			reader.setDTDHandler(handler);
+			reader.setEntityResolver(handler);
+			reader.setProperty(LEXICAL_HANDLER_PROPERTY, handler);
+			reader.setErrorHandler(new ErrorHandler() {
+				public void fatalError(SAXParseException e) throws SAXException {
+					throw e;
+				}
+
+				public void error(SAXParseException e) throws SAXParseException {
+					throw e;
+				}
+
+				public void warning(SAXParseException e)
+						throws SAXParseException {
+					throw e; // XXX
+				}
+			});
+			reader.parse(source);
+			return handler.document();
+		} catch (SAXException e) {
+			throw new DOMLoaderException("SAX exception: " + e.getMessage());
+		} catch (ParserConfigurationException e) {
+			throw new DOMLoaderException("Parser configuration exception: "
+					+ e.getMessage());
+		} catch (IOException e) {
+			throw new DOMLoaderException("IO exception: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Set validating boolean.
+	 * 
+	 * @param x
+	 *            is the value to set the validating boolean to.
+	 */
+	public void set_validating(boolean x) {
+		_validating = x;
+	}
+}
@@ -19,6 +19,7 @@ package org.eclipse.wst.xml.xpath2.processor;
 
 import java.io.*;
 
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.DocumentBuilderPool;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
 import javax.xml.validation.Schema;
@@ -27,6 +28,11 @@ import org.xml.sax.*;
 
 /**
  * Xerces loader class. The loading is always namespace aware.
+ * 
+ * The configured parser factory and its document builders are shared by
+ * all loaders with the same settings, so loading many small documents
+ * doesn't pay for parser creation each time. Loaders may be used from
+ * several threads.
  */
 public class XercesLoader implements DOMLoader {
 
@@ -50,10 +56,33 @@ public class XercesLoader implements DOMLoader {
 	public static final String DOCUMENT_IMPLEMENTATION_PROPERTY = "http://apache.org/xml/properties/dom/document-class-name";
 	public static final String DOCUMENT_PSVI_IMPLEMENTATION = "org.apache.xerces.dom.PSVIDocumentImpl";
 
+	private static final ErrorHandler STRICT_HANDLER = new ErrorHandler() {
+		public void fatalError(SAXParseException e)
+				throws SAXException {
+			throw e;
+		}
+
+		public void error(SAXParseException e)
+				throws SAXParseException {
+			throw e;
+		}
+
+		public void warning(SAXParseException e)
+				throws SAXParseException {
+			throw e; // XXX
+		}
+	};
+
+	// pools for loaders without a schema, non-validating and validating
+	private static final DocumentBuilderPool[] _shared_pools = new DocumentBuilderPool[2];
+
 	boolean _validating;
 	
 	Schema _schema = null;;
 
+	// pool for this loader's schema, made on first use
+	private DocumentBuilderPool _schema_pool;
+
 	/**
 	 * Constructor for Xerces loader.
 	 */
@@ -80,43 +109,13 @@ public class XercesLoader implements DOMLoader {
 	 */
 	public Document load(InputStream in) throws DOMLoaderException {
 
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-
-		factory.setNamespaceAware(true);
-		factory.setAttribute(SCHEMA_VALIDATION_FEATURE,
-				Boolean.valueOf(_validating));
-		factory.setAttribute(LOAD_EXTERNAL_DTD_FEATURE, Boolean.TRUE);
-		factory.setAttribute(NONVALIDATING_LOAD_DTD_GRAMMAR, Boolean.TRUE);
-		factory.setAttribute(DOCUMENT_IMPLEMENTATION_PROPERTY,
-				DOCUMENT_PSVI_IMPLEMENTATION);
-		
-		if (_schema != null) {
-		  factory.setSchema(_schema);
-		}
-		else {
-		  factory.setValidating(_validating);	
-		}
-
+		DocumentBuilderPool pool = pool();
+		DocumentBuilder builder = null;
 		try {
-			DocumentBuilder builder = factory.newDocumentBuilder();
+			builder = pool.acquire();
 
 			if (_validating) {
-				builder.setErrorHandler(new ErrorHandler() {
-					public void fatalError(SAXParseException e)
-							throws SAXException {
-						throw e;
-					}
-
-					public void error(SAXParseException e)
-							throws SAXParseException {
-						throw e;
-					}
-
-					public void warning(SAXParseException e)
-							throws SAXParseException {
-						throw e; // XXX
-					}
-				});
+				builder.setErrorHandler(STRICT_HANDLER);
 			}
 			return builder.parse(in);
 		} catch (SAXException e) {
@@ -127,19 +126,61 @@ public class XercesLoader implements DOMLoader {
 					+ e.getMessage());
 		} catch (IOException e) {
 			throw new DOMLoaderException("IO exception: " + e.getMessage());
+		} finally {
+			if (builder != null)
+				pool.release(builder);
 		}
 		
 		return null;
 
 	}
 
+	private DocumentBuilderPool pool() {
+		if (_schema != null) {
+			synchronized (this) {
+				if (_schema_pool == null)
+					_schema_pool = new DocumentBuilderPool(factory(_schema, _validating));
+				return _schema_pool;
+			}
+		}
+
+		int i = _validating ? 1 : 0;
+		synchronized (_shared_pools) {
+			if (_shared_pools[i] == null)
+				_shared_pools[i] = new DocumentBuilderPool(factory(null, _validating));
+			return _shared_pools[i];
+		}
+	}
+
+	private static DocumentBuilderFactory factory(Schema schema, boolean validating) {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+
+		factory.setNamespaceAware(true);
+		factory.setAttribute(SCHEMA_VALIDATION_FEATURE,
+				Boolean.valueOf(validating));
+		factory.setAttribute(LOAD_EXTERNAL_DTD_FEATURE, Boolean.TRUE);
+		factory.setAttribute(NONVALIDATING_LOAD_DTD_GRAMMAR, Boolean.TRUE);
+		factory.setAttribute(DOCUMENT_IMPLEMENTATION_PROPERTY,
+				DOCUMENT_PSVI_IMPLEMENTATION);
+		
+		if (schema != null) {
+		  factory.setSchema(schema);
+		}
+		else {
+		  factory.setValidating(validating);	
+		}
+		return factory;
+	}
+
 	/**
 	 * Set validating boolean.
 	 * 
 	 * @param x
 	 *            is the value to set the validating boolean to.
 	 */
-	public void set_validating(boolean x) {
+	public synchronized void set_validating(boolean x) {
+		if (x != _validating)
+			_schema_pool = null;
 		_validating = x;
 	}
 }
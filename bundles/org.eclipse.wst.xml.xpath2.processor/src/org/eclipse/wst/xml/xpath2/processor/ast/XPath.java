@@ -67,6 +67,15 @@ public class XPath extends XPathNode implements XPath2Expression {
 		return _exprs.iterator();
 	}
 
+	/**
+	 * Support for Collection interface.
+	 * 
+	 * @return The expressions, which may be replaced in place.
+	 */
+	public Collection exprs() {
+		return _exprs;
+	}
+
 	/**
 	 * @since 2.0
 	 */
@@ -13,6 +13,9 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AttrType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.ElementType;
@@ -50,6 +53,27 @@ public class AttributeAxis extends ForwardAxis {
 		}
 	}
 
+	/**
+	 * Retrieves the context node's attributes which pass the filter.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode, AxisFilter filter) {
+		// only elements have attributes
+		if (!(node instanceof ElementType))
+			return ResultBuffer.EMPTY.iterator();
+
+		ResultBuffer rb = new ResultBuffer();
+		NamedNodeMap attrs = ((ElementType) node).value().getAttributes();
+		for (int i = 0; i < attrs.getLength(); i++) {
+			Node attr = attrs.item(i);
+			if (filter.accept(attr))
+				rb.add(NodeType.dom_to_xpath(attr, node.getTypeModel()));
+		}
+		return rb.getCollection().iterator();
+	}
+
 	/**
 	 * Retrieves the node's principle node kind.
 	 * 
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import org.w3c.dom.Node;
+
+/**
+ * A node test which is applied to the DOM nodes on an axis before they are
+ * wrapped, so nodes which fail it never become NodeType items at all.
+ */
+public interface AxisFilter {
+
+	/**
+	 * @param node
+	 *            A node on the axis.
+	 * @return true if the node passes the test.
+	 */
+	public boolean accept(Node node);
+}
@@ -14,12 +14,15 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
+import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.DocType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.ElementType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * The child axis contains the children of the context node.
@@ -37,19 +40,10 @@ public class ChildAxis extends ForwardAxis {
 	}
 
 	protected void addChildren(NodeType node, ResultBuffer copyInto, boolean recurse) {
-		NodeList nl = null;
-		
 		// only document and element nodes have children
-		if (node instanceof DocType) {
-			nl = ((DocType) node).value().getChildNodes();
-		}
-		if (node instanceof ElementType)
-			nl = ((ElementType) node).value().getChildNodes();
-
-		// add the children to the result
-		if (nl != null) {
-			for (int i = 0; i < nl.getLength(); i++) {
-				Node dnode = nl.item(i);
+		if (node instanceof DocType || node instanceof ElementType) {
+			// sibling links, as NodeList.item() may have to walk the list
+			for (Node dnode = node.node_value().getFirstChild(); dnode != null; dnode = dnode.getNextSibling()) {
 				NodeType n = NodeType.dom_to_xpath(dnode, node.getTypeModel());
 				
 				if(n != null) {
@@ -61,7 +55,98 @@ public class ChildAxis extends ForwardAxis {
 		}
 	}
 	
+	/**
+	 * Returns the context node's children one at a time.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode) {
+		return new ChildIterator(node, false, null);
+	}
+
+	/**
+	 * Returns the context node's children which pass the filter.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode, AxisFilter filter) {
+		return new ChildIterator(node, false, filter);
+	}
+
 	public String name() {
 		return "child";
 	}
+
+	/**
+	 * Walks the children, or all the descendants, of a node in document order,
+	 * wrapping each DOM node only when it is reached, and only if it passes
+	 * the filter.
+	 */
+	protected static class ChildIterator implements Iterator<Item> {
+		private final TypeModel _typeModel;
+		private final boolean _recurse;
+		private final AxisFilter _filter;
+		private Node _next; // next DOM node to look at
+		private int _depth; // of _next, below the context node
+		private NodeType _item;
+
+		public ChildIterator(NodeType node, boolean recurse) {
+			this(node, recurse, null);
+		}
+
+		public ChildIterator(NodeType node, boolean recurse, AxisFilter filter) {
+			_typeModel = node.getTypeModel();
+			_recurse = recurse;
+			_filter = filter;
+
+			// only document and element nodes have children
+			if (node instanceof DocType || node instanceof ElementType) {
+				_next = node.node_value().getFirstChild();
+				_depth = 1;
+			}
+		}
+
+		public boolean hasNext() {
+			while (_item == null && _next != null) {
+				Node dnode = _next;
+				if (_filter == null || _filter.accept(dnode))
+					_item = NodeType.dom_to_xpath(dnode, _typeModel);
+
+				// unsupported nodes are skipped along with their children
+				_next = following(dnode, _recurse && dnode.getNodeType() == Node.ELEMENT_NODE);
+			}
+			return _item != null;
+		}
+
+		public Item next() {
+			if (!hasNext()) throw new IllegalStateException("This iterator is at its end");
+			Item item = _item;
+			_item = null;
+			return item;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Axes are read-only");
+		}
+
+		private Node following(Node dnode, boolean descend) {
+			if (descend) {
+				Node child = dnode.getFirstChild();
+				if (child != null) {
+					_depth++;
+					return child;
+				}
+			}
+			while (true) {
+				Node sibling = dnode.getNextSibling();
+				if (sibling != null)
+					return sibling;
+				if (--_depth == 0)
+					return null;
+				dnode = dnode.getParentNode();
+			}
+		}
+	}
 }
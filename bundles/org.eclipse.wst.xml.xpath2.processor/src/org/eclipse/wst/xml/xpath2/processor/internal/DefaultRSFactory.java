@@ -18,46 +18,66 @@ import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
 /**
  * Factory implementation which creates sequences of type DefaultResultSequence.
  * 
+ * Released sequences are kept for reuse in a small pool per thread, so
+ * evaluations running on different threads never share a sequence and
+ * need no locking.
  */
 public class DefaultRSFactory extends ResultSequenceFactory {
 	private static final ResultSequence _rs_creator = new DefaultResultSequence();
 
 	public static final int POOL_SIZE = 50;
 
-	private ResultSequence[] _rs_pool = new ResultSequence[POOL_SIZE];
-	private int _head_pos;
+	/**
+	 * Released sequences of one thread, with its usage counts.
+	 */
+	private static final class Pool {
+		final ResultSequence[] _rs = new ResultSequence[POOL_SIZE];
+		int _size;
+
+		long _reused;
+		long _created;
+		long _discarded;
+	}
+
+	private final ThreadLocal<Pool> _pools = new ThreadLocal<Pool>() {
+		protected Pool initialValue() {
+			return new Pool();
+		}
+	};
 
 	/**
 	 * Constructor of factory.
 	 * 
 	 */
 	public DefaultRSFactory() {
-		for (int i = 0; i < POOL_SIZE; i++)
-			_rs_pool[i] = _rs_creator.create_new();
-
-		_head_pos = POOL_SIZE - 1;
 	}
 
 	protected ResultSequence fact_create_new() {
-		if (_head_pos > 0) {
-			return _rs_pool[_head_pos--];
+		Pool pool = _pools.get();
+		if (pool._size > 0) {
+			pool._reused++;
+			ResultSequence rs = pool._rs[--pool._size];
+			pool._rs[pool._size] = null;
+			return rs;
 		}
 
+		pool._created++;
 		return _rs_creator.create_new();
 	}
 
 	protected void fact_release(ResultSequence rs) {
-		int new_pos = _head_pos + 1;
-
-		if (new_pos < POOL_SIZE) {
+		Pool pool = _pools.get();
+		if (pool._size < POOL_SIZE) {
 			rs.clear();
-
-			_head_pos = new_pos;
-			_rs_pool[new_pos] = rs;
+			pool._rs[pool._size++] = rs;
+		} else {
+			pool._discarded++;
 		}
 	}
 
 	protected void fact_print_debug() {
-		System.out.println("Head pos: " + _head_pos);
+		Pool pool = _pools.get();
+		System.out.println("Pooled: " + pool._size + " reused: " + pool._reused
+				+ " created: " + pool._created + " discarded: " + pool._discarded);
 	}
 }
@@ -12,6 +12,9 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
 import org.w3c.dom.Node;
@@ -31,6 +34,26 @@ public class DescendantAxis extends ChildAxis {
 		addChildren(node, copyInto, true);
 	}
 
+	/**
+	 * Returns the descendants of the context node one at a time.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode) {
+		return new ChildIterator(node, true, null);
+	}
+
+	/**
+	 * Returns the descendants of the context node which pass the filter.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode, AxisFilter filter) {
+		return new ChildIterator(node, true, filter);
+	}
+
 	public String name() {
 		return "descendant";
 	}
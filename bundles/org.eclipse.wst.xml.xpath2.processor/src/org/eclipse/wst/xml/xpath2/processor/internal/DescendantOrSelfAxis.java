@@ -11,6 +11,9 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
 import org.w3c.dom.Node;
@@ -38,6 +41,46 @@ public class DescendantOrSelfAxis extends ForwardAxis {
 		new DescendantAxis().iterate(node, rs, null);
 	}
 
+	/**
+	 * Returns the context node followed by its descendants, one at a time.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode) {
+		return iterator(node, limitNode, null);
+	}
+
+	/**
+	 * Returns the context node followed by its descendants, leaving out the
+	 * nodes which fail the filter.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(final NodeType node, Node limitNode, final AxisFilter filter) {
+		final Iterator<Item> descendants = new DescendantAxis().iterator(node, null, filter);
+
+		return new Iterator<Item>() {
+			boolean seenSelf = filter != null && !filter.accept(node.node_value());
+
+			public boolean hasNext() {
+				return !seenSelf || descendants.hasNext();
+			}
+
+			public Item next() {
+				if (seenSelf)
+					return descendants.next();
+				seenSelf = true;
+				return node;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException("Axes are read-only");
+			}
+		};
+	}
+
 	public String name() {
 		return "descendant-or-self";
 	}
@@ -40,7 +40,7 @@ public class Focus {
 	 */
 	public AnyType context_item() {
 		// idexes start at 0
-		if (_cp > _rs.size()) return null;
+		if (!LazyResultSequence.hasItem(_rs, _cp - 1)) return null;
 		return (AnyType)_rs.item(_cp - 1);
 	}
 
@@ -50,11 +50,9 @@ public class Focus {
 	 * @return the boolean.
 	 */
 	public boolean advance_cp() {
-		int size;
-
-		// check if we can advance
-		size = _rs.size();
-		if (_cp == size)
+		// check if we can advance, without pulling more of a lazy
+		// sequence than needed
+		if (!LazyResultSequence.hasItem(_rs, _cp))
 			return false;
 
 		_cp++;
@@ -88,4 +86,13 @@ public class Focus {
 	public void set_position(int p) {
 		_cp = p; // XXX no checks
 	}
+
+	/**
+	 * returns the items in context.
+	 * 
+	 * @return rs.
+	 */
+	public ResultSequence sequence() {
+		return _rs;
+	}
 }
@@ -12,6 +12,9 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
 import org.w3c.dom.Node;
@@ -47,6 +50,49 @@ public class FollowingSiblingAxis extends ForwardAxis {
 		} while (iterNode != null);
 	}
 	
+	/**
+	 * Returns the following siblings one at a time.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode) {
+		return iterator(node, limitNode, null);
+	}
+
+	/**
+	 * Returns the following siblings which pass the filter, one at a time.
+	 * 
+	 * @param node
+	 *            is the type of node.
+	 */
+	public Iterator<Item> iterator(final NodeType node, Node limitNode, final AxisFilter filter) {
+		return new Iterator<Item>() {
+			Node iterNode = node.node_value();
+			NodeType item = null;
+
+			public boolean hasNext() {
+				while (item == null && iterNode != null) {
+					iterNode = iterNode.getNextSibling();
+					if (iterNode != null && (filter == null || filter.accept(iterNode)))
+						item = NodeType.dom_to_xpath(iterNode, node.getTypeModel());
+				}
+				return item != null;
+			}
+
+			public Item next() {
+				if (!hasNext()) throw new IllegalStateException("This iterator is at its end");
+				Item result = item;
+				item = null;
+				return result;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException("Axes are read-only");
+			}
+		};
+	}
+
 	public String name() {
 		return "following-sibling";
 	}
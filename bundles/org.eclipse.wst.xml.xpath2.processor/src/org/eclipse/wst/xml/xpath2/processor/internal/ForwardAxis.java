@@ -11,8 +11,13 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
+import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.ElementType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
+import org.w3c.dom.Node;
 
 /**
  * An axis that only ever contains the context node or nodes that are after the
@@ -30,4 +35,43 @@ public abstract class ForwardAxis implements Axis {
 	public NodeType principal_node_kind() {
 		return new ElementType();
 	}
+
+	/**
+	 * Returns the nodes on the axis one at a time, in document order. By
+	 * default the whole axis is collected up front; axes which can walk the
+	 * tree incrementally override this.
+	 * 
+	 * @param node
+	 *            is the context node.
+	 * @param limitNode
+	 *            is the node beyond which the axis must not go, or null.
+	 * @return Iterator of NodeType items.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode) {
+		ResultBuffer rb = new ResultBuffer();
+		iterate(node, rb, limitNode);
+		return rb.getCollection().iterator();
+	}
+
+	/**
+	 * Returns the nodes on the axis which pass a test, one at a time, in
+	 * document order. By default the nodes are tested after they have been
+	 * wrapped; axes which walk the DOM themselves override this to test the
+	 * DOM nodes first.
+	 * 
+	 * @param node
+	 *            is the context node.
+	 * @param limitNode
+	 *            is the node beyond which the axis must not go, or null.
+	 * @param filter
+	 *            is the test the nodes must pass.
+	 * @return Iterator of NodeType items.
+	 */
+	public Iterator<Item> iterator(NodeType node, Node limitNode, final AxisFilter filter) {
+		return new LazyResultSequence.Filter(iterator(node, limitNode)) {
+			protected boolean accept(Item item) {
+				return filter.accept(((NodeType) item).node_value());
+			}
+		};
+	}
 }
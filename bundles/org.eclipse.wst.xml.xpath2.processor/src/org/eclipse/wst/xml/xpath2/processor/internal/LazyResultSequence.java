@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.Item;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.typesystem.ItemType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.SimpleAtomicItemTypeImpl;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLibrary;
+
+/**
+ * A result sequence which pulls its items from an iterator only when they are
+ * asked for. Items already pulled are remembered, so the sequence can be
+ * iterated any number of times like the other (immutable) result sequences.
+ *
+ * Asking for the size drains the source, whereas empty(), first() and item(n)
+ * only pull as far as they need to.
+ */
+public class LazyResultSequence implements ResultSequence {
+
+	private Iterator<? extends Item> _source;
+	private final ArrayList<Item> _pulled = new ArrayList<Item>();
+
+	/**
+	 * @param source
+	 *            Items of the sequence, in order.
+	 */
+	public LazyResultSequence(Iterator<? extends Item> source) {
+		_source = source;
+	}
+
+	/**
+	 * Tests whether a sequence has an item at the given index, without
+	 * materializing more of a lazy sequence than necessary.
+	 *
+	 * @param rs
+	 *            The sequence.
+	 * @param index
+	 *            Zero-based index.
+	 * @return true if the sequence has more than index items.
+	 */
+	public static boolean hasItem(ResultSequence rs, int index) {
+		if (rs instanceof LazyResultSequence)
+			return ((LazyResultSequence) rs).fill(index);
+		return index < rs.size();
+	}
+
+	// pulls items until index is available, or the source runs dry
+	private boolean fill(int index) {
+		while (_pulled.size() <= index) {
+			if (_source == null) return false;
+			if (!_source.hasNext()) {
+				_source = null;
+				return false;
+			}
+			_pulled.add(_source.next());
+		}
+		return true;
+	}
+
+	public int size() {
+		fill(Integer.MAX_VALUE);
+		return _pulled.size();
+	}
+
+	public Item item(int index) {
+		if (index < 0 || !fill(index)) throw new IndexOutOfBoundsException("Index " + index + " is out of bounds");
+		return _pulled.get(index);
+	}
+
+	public Object value(int index) {
+		return item(index).getNativeValue();
+	}
+
+	public ItemType itemType(int index) {
+		return item(index).getItemType();
+	}
+
+	public boolean empty() {
+		return !fill(0);
+	}
+
+	public Item first() {
+		return item(0);
+	}
+
+	public Object firstValue() {
+		return item(0).getNativeValue();
+	}
+
+	public Iterator<Item> iterator() {
+		return new Iterator<Item>() {
+			int nextIndex = 0;
+
+			public boolean hasNext() {
+				return fill(nextIndex);
+			}
+
+			public Item next() {
+				if (!fill(nextIndex)) throw new IllegalStateException("This iterator is at its end");
+				return _pulled.get(nextIndex++);
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException("ResultSequences are immutable");
+			}
+		};
+	}
+
+	public ItemType sequenceType() {
+		return new SimpleAtomicItemTypeImpl(BuiltinTypeLibrary.XS_ANYTYPE, ItemType.OCCURRENCE_ONE_OR_MANY);
+	}
+
+	/**
+	 * An iterator which passes on the items of another iterator which are
+	 * accepted by the filter, pulling from the source one item ahead.
+	 */
+	public abstract static class Filter implements Iterator<Item> {
+		private final Iterator<? extends Item> _in;
+		private Item _next;
+
+		public Filter(Iterator<? extends Item> in) {
+			_in = in;
+		}
+
+		/**
+		 * @param item
+		 *            An item from the source.
+		 * @return true if the item should be passed on.
+		 */
+		protected abstract boolean accept(Item item);
+
+		public boolean hasNext() {
+			while (_next == null && _in.hasNext()) {
+				Item item = _in.next();
+				if (accept(item))
+					_next = item;
+			}
+			return _next != null;
+		}
+
+		public Item next() {
+			if (!hasNext()) throw new IllegalStateException("This iterator is at its end");
+			Item item = _next;
+			_next = null;
+			return item;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("ResultSequences are immutable");
+		}
+	}
+}
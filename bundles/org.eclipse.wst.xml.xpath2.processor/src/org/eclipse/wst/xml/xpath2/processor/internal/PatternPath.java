@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.processor.DefaultEvaluator;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AnyKindTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AttributeTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AxisStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CommentTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.DocumentTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ElementTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ForwardStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NameTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NodeTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.PITest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SchemaAttrTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SchemaElemTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.StepExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.TextTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Node;
+
+/**
+ * One alternative of a pattern, such as a/b[1] in "a/b[1] | @c", compiled
+ * for matching nodes from the bottom up.
+ *
+ * A node matches a path if some node is a context under which evaluating
+ * the path selects it. For paths made of child, attribute and descendant
+ * steps this is decided by checking the last step against the node, then
+ * the step before against its parent (or any ancestor, after //), and so
+ * on, so no step is evaluated from more than one context. Steps without
+ * predicates are checked by their node test alone. Other paths, such as
+ * id('x')/a, are evaluated under each ancestor of the node.
+ *
+ * Each step also has an edge: the kind and, where the step fixes it, the
+ * name of the nodes it can select, which is what pattern sets index on.
+ */
+public final class PatternPath {
+
+	/** Edge of a step which can select any node except attributes. */
+	public static final int ANY_NODE = 0;
+	/** Edge of a step which selects elements of one name. */
+	public static final int ELEMENT = 1;
+	public static final int ANY_ELEMENT = 2;
+	/** Edge of a step which selects attributes of one name. */
+	public static final int ATTRIBUTE = 3;
+	public static final int ANY_ATTRIBUTE = 4;
+	public static final int TEXT = 5;
+	public static final int COMMENT = 6;
+	public static final int PI = 7;
+	public static final int DOCUMENT = 8;
+	/** Edge of a step which can't be indexed. */
+	public static final int NONE = -1;
+
+	// step axes
+	private static final int CHILD = 0;
+	private static final int ATTR = 1;
+	private static final int DESCENDANT = 2;
+
+	private final XPathExpr _expr;
+	private final StaticContext _sc;
+
+	// the steps, or null if the path is evaluated as a whole
+	private final AxisStep[] _steps;
+	private final int[] _slashes; // before each step; [0] is 1 for /a, 2 for //a
+	private final int[] _axes;
+	private final int[] _edges;
+	private final String[] _names;
+	private final boolean[] _exact; // whether the edge is all the step checks
+
+	/**
+	 * @param expr
+	 *            The path, parsed and statically checked.
+	 * @param sc
+	 *            The static context it was checked against.
+	 */
+	public PatternPath(XPathExpr expr, StaticContext sc) {
+		_expr = expr;
+		_sc = sc;
+
+		ArrayList<XPathExpr> parts = new ArrayList<XPathExpr>();
+		for (XPathExpr xp = expr; xp != null; xp = xp.next()) {
+			if (xp.expr() != null)
+				parts.add(xp);
+		}
+
+		int n = parts.size();
+		AxisStep[] steps = new AxisStep[n];
+		_slashes = new int[n];
+		_axes = new int[n];
+		_edges = new int[n];
+		_names = new String[n];
+		_exact = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			XPathExpr part = (XPathExpr) parts.get(i);
+			StepExpr se = part.expr();
+			_slashes[i] = part.slashes();
+			if (!(se instanceof AxisStep) || !(((AxisStep) se).step() instanceof ForwardStep)) {
+				steps = null;
+				break;
+			}
+			steps[i] = (AxisStep) se;
+			String axis = ((ForwardStep) steps[i].step()).iterator().name();
+			if (axis.equals("child"))
+				_axes[i] = CHILD;
+			else if (axis.equals("attribute"))
+				_axes[i] = ATTR;
+			else if (axis.equals("descendant") && part.slashes() < 2)
+				_axes[i] = DESCENDANT;
+			else {
+				steps = null;
+				break;
+			}
+			edge(i, steps[i]);
+		}
+		_steps = steps;
+	}
+
+	/**
+	 * @return Whether the path is exactly "/", which matches document nodes.
+	 */
+	public boolean is_root() {
+		return _expr.expr() == null && _expr.next() == null && _expr.slashes() == 1;
+	}
+
+	/**
+	 * @return The number of steps which can be indexed, counted from the
+	 *         last: these are joined by single slashes, and each but the
+	 *         first of them selects children or attributes of the node
+	 *         matched by the one before.
+	 */
+	public int indexed_steps() {
+		if (_steps == null)
+			return 0;
+		int count = 0;
+		for (int i = _steps.length - 1; i >= 0; i--) {
+			if (_edges[i] == NONE)
+				break;
+			count++;
+			if (i == 0 || _slashes[i] != 1 || _axes[i] == DESCENDANT)
+				break;
+		}
+		return count;
+	}
+
+	/**
+	 * @return Whether the path starts with a single slash, so the node
+	 *         matched by its first step must be a child of a document.
+	 */
+	public boolean absolute() {
+		return _steps != null && _steps.length > 0 && _slashes[0] == 1 && _axes[0] != DESCENDANT;
+	}
+
+	/**
+	 * @return Whether a node has matched the path once the indexed steps
+	 *         (and for an absolute path, the document above them) have.
+	 */
+	public boolean decided_by_index() {
+		if (is_root())
+			return true;
+		if (_steps == null || indexed_steps() != _steps.length)
+			return false;
+		if (_slashes[0] == 2)
+			return false;
+		for (int i = 0; i < _steps.length; i++) {
+			if (!_exact[i] || _axes[i] == DESCENDANT)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param i
+	 *            A step, counted from the first.
+	 * @return Its edge, such as ELEMENT.
+	 */
+	public int edge(int i) {
+		return _edges[i];
+	}
+
+	/**
+	 * @param i
+	 *            A step, counted from the first.
+	 * @return For ELEMENT and ATTRIBUTE edges, the name key of the step.
+	 */
+	public String name(int i) {
+		return _names[i];
+	}
+
+	/**
+	 * @return The number of steps, or 0 if the path is evaluated as a whole.
+	 */
+	public int length() {
+		return _steps == null ? 0 : _steps.length;
+	}
+
+	private void edge(int i, AxisStep step) {
+		_edges[i] = NONE;
+		_exact[i] = step.predicate_count() == 0;
+
+		boolean attr = _axes[i] == ATTR;
+		NodeTest test = step.step().node_test();
+		if (test instanceof NameTest) {
+			QName name = ((NameTest) test).name();
+			String ns;
+			if (name.prefix() != null)
+				ns = name.namespace();
+			else
+				ns = attr ? null : _sc.getDefaultNamespace();
+
+			if ("*".equals(name.local()) || "*".equals(ns)) {
+				_edges[i] = attr ? ANY_ATTRIBUTE : ANY_ELEMENT;
+				if (!("*".equals(name.local()) && "*".equals(ns)))
+					_exact[i] = false;
+			} else {
+				_edges[i] = attr ? ATTRIBUTE : ELEMENT;
+				_names[i] = key(ns, name.local());
+			}
+		} else if (test instanceof ElementTest || test instanceof SchemaElemTest) {
+			_edges[i] = attr ? NONE : ANY_ELEMENT;
+			if (!(test instanceof ElementTest) || ((ElementTest) test).name() != null || ((ElementTest) test).type() != null)
+				_exact[i] = false;
+		} else if (test instanceof AttributeTest || test instanceof SchemaAttrTest) {
+			_edges[i] = attr ? ANY_ATTRIBUTE : NONE;
+			if (!(test instanceof AttributeTest) || ((AttributeTest) test).name() != null || ((AttributeTest) test).type() != null)
+				_exact[i] = false;
+		} else if (test instanceof AnyKindTest) {
+			_edges[i] = attr ? ANY_ATTRIBUTE : ANY_NODE;
+		} else if (test instanceof TextTest) {
+			_edges[i] = attr ? NONE : TEXT;
+		} else if (test instanceof CommentTest) {
+			_edges[i] = attr ? NONE : COMMENT;
+		} else if (test instanceof PITest) {
+			_edges[i] = attr ? NONE : PI;
+			if (((PITest) test).arg() != null)
+				_exact[i] = false;
+		} else if (test instanceof DocumentTest) {
+			// documents are never children
+			_edges[i] = NONE;
+		}
+		if (_edges[i] == NONE)
+			_exact[i] = false;
+	}
+
+	/**
+	 * @param ns
+	 *            Namespace URI, or null.
+	 * @param local
+	 *            Local name.
+	 * @return The key under which names are indexed.
+	 */
+	public static String key(String ns, String local) {
+		if (ns == null || ns.length() == 0)
+			return local;
+		return "{" + ns + "}" + local;
+	}
+
+	/**
+	 * @param node
+	 *            An element or attribute.
+	 * @return The key of its name.
+	 */
+	public static String key(Node node) {
+		String local = node.getLocalName();
+		return key(node.getNamespaceURI(), local != null ? local : node.getNodeName());
+	}
+
+	/**
+	 * @param node
+	 *            A node.
+	 * @return Its parent, or the owner element of an attribute.
+	 */
+	public static Node parent(Node node) {
+		if (node.getNodeType() == Node.ATTRIBUTE_NODE)
+			return ((Attr) node).getOwnerElement();
+		return node.getParentNode();
+	}
+
+	/**
+	 * Tests whether a node matches the path.
+	 *
+	 * @param dc
+	 *            Dynamic context, for evaluating predicates.
+	 * @param node
+	 *            The node.
+	 * @return Whether some context selects the node through the path.
+	 */
+	public boolean matches(DynamicContext dc, Node node) {
+		switch (node.getNodeType()) {
+		case Node.DOCUMENT_TYPE_NODE:
+		case Node.ENTITY_NODE:
+		case Node.ENTITY_REFERENCE_NODE:
+		case Node.NOTATION_NODE:
+		case Node.DOCUMENT_FRAGMENT_NODE:
+			// not part of the data model
+			return false;
+		}
+		if (is_root())
+			return node.getNodeType() == Node.DOCUMENT_NODE;
+		if (_steps == null || _steps.length == 0)
+			return evaluate_under_ancestors(dc, node);
+		return matches(dc, _steps.length - 1, node);
+	}
+
+	private boolean matches(DynamicContext dc, int i, Node node) {
+		Node parent = parent(node);
+		if (parent == null)
+			return false;
+
+		if (_axes[i] == DESCENDANT) {
+			for (Node a = parent; a != null; a = a.getParentNode()) {
+				if (accepts(dc, i, node, a) && above(dc, i, a))
+					return true;
+			}
+			return false;
+		}
+
+		if (!accepts(dc, i, node, parent))
+			return false;
+		if (_slashes[i] != 2 || i == 0)
+			return above(dc, i, parent);
+
+		for (Node a = parent; a != null; a = a.getParentNode()) {
+			if (matches(dc, i - 1, a))
+				return true;
+		}
+		return false;
+	}
+
+	// whether the step before i matches the context node of step i
+	private boolean above(DynamicContext dc, int i, Node context) {
+		if (i > 0)
+			return matches(dc, i - 1, context);
+
+		switch (_slashes[0]) {
+		case 1:
+			return context.getNodeType() == Node.DOCUMENT_NODE;
+		case 2:
+			Node root = context;
+			while (root.getParentNode() != null)
+				root = root.getParentNode();
+			return root.getNodeType() == Node.DOCUMENT_NODE;
+		default:
+			return true;
+		}
+	}
+
+	// whether evaluating step i under the context selects the node
+	private boolean accepts(DynamicContext dc, int i, Node node, Node context) {
+		if ((_axes[i] == ATTR) != (node.getNodeType() == Node.ATTRIBUTE_NODE))
+			return false;
+		if (!test_edge(i, node))
+			return false;
+		return _exact[i] || selects(evaluate(dc, _steps[i], context), node);
+	}
+
+	private boolean test_edge(int i, Node node) {
+		short type = node.getNodeType();
+		switch (_edges[i]) {
+		case ANY_NODE:
+			return type != Node.ATTRIBUTE_NODE && type != Node.DOCUMENT_NODE;
+		case ELEMENT:
+			return type == Node.ELEMENT_NODE && _names[i].equals(key(node));
+		case ANY_ELEMENT:
+			return type == Node.ELEMENT_NODE;
+		case ATTRIBUTE:
+			return type == Node.ATTRIBUTE_NODE && _names[i].equals(key(node));
+		case ANY_ATTRIBUTE:
+			return type == Node.ATTRIBUTE_NODE;
+		case TEXT:
+			return type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+		case COMMENT:
+			return type == Node.COMMENT_NODE;
+		case PI:
+			return type == Node.PROCESSING_INSTRUCTION_NODE;
+		default:
+			return true;
+		}
+	}
+
+	private boolean evaluate_under_ancestors(DynamicContext dc, Node node) {
+		for (Node context = node; context != null; context = parent(context)) {
+			if (selects(evaluate(dc, _expr, context), node))
+				return true;
+		}
+		return false;
+	}
+
+	private ResultSequence evaluate(DynamicContext dc, XPathNode expr, Node context) {
+		return new DefaultEvaluator(_sc, dc, new Object[] { context }).evaluate2(expr);
+	}
+
+	private static boolean selects(ResultSequence rs, Node node) {
+		for (Iterator i = rs.iterator(); i.hasNext();) {
+			Object item = i.next();
+			if (item instanceof NodeType && ((NodeType) item).node_value().isSameNode(node))
+				return true;
+		}
+		return false;
+	}
+}
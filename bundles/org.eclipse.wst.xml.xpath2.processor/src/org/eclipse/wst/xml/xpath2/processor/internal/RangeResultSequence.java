@@ -14,7 +14,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal;
 
-import java.math.BigInteger;
 import java.util.*;
 
 import org.eclipse.wst.xml.xpath2.api.typesystem.ItemType;
@@ -84,7 +83,7 @@ public class RangeResultSequence extends ResultSequence {
 			ResultSequence newtail = ResultSequenceFactory.create_new();
 
 			for (; _start <= _end; _start++)
-				newtail.add(new XSInteger(BigInteger.valueOf(_start)));
+				newtail.add(new XSInteger(_start));
 
 			newtail.concat(_tail);
 			_tail.release();
@@ -104,7 +103,7 @@ public class RangeResultSequence extends ResultSequence {
 	 */
 	public AnyType get(int i) {
 		if (i < _size)
-			return new XSInteger(BigInteger.valueOf(_start + i));
+			return new XSInteger(_start + i);
 		else
 			return _tail.get(i - _size);
 	}
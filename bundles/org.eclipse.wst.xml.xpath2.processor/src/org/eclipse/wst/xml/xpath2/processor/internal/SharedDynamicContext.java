@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import java.net.URI;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.Duration;
+import javax.xml.namespace.QName;
+
+import org.eclipse.wst.xml.xpath2.api.CollationProvider;
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.processor.DOMLoaderException;
+import org.eclipse.wst.xml.xpath2.processor.TinyTreeBuilder;
+import org.eclipse.wst.xml.xpath2.processor.util.DynamicContextBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+
+/**
+ * A dynamic context made safe to share between threads evaluating parts of
+ * the same work: the current date and time is read once up front, and
+ * documents are looked up one at a time, so each is loaded once.
+ *
+ * Where a DynamicContextBuilder would load a document with XercesLoader,
+ * it is loaded with TinyTreeBuilder instead, as the threads read it at
+ * once. Documents the builder holds already, and those supplied by other
+ * contexts, are passed on as they are.
+ */
+public final class SharedDynamicContext implements DynamicContext {
+
+	private final DynamicContext _dc;
+	private final GregorianCalendar _current_date_time;
+	private final Map<URI, Document> _documents = new HashMap<URI, Document>();
+
+	/**
+	 * @param dc
+	 *            The context to share. Its variables and collections must
+	 *            not change while it is shared.
+	 */
+	public SharedDynamicContext(DynamicContext dc) {
+		_dc = dc;
+		_current_date_time = dc.getCurrentDateTime();
+	}
+
+	public Node getLimitNode() {
+		return _dc.getLimitNode();
+	}
+
+	public ResultSequence getVariable(QName name) {
+		return _dc.getVariable(name);
+	}
+
+	public URI resolveUri(String uri) {
+		return _dc.resolveUri(uri);
+	}
+
+	public GregorianCalendar getCurrentDateTime() {
+		return _current_date_time;
+	}
+
+	public Duration getTimezoneOffset() {
+		return _dc.getTimezoneOffset();
+	}
+
+	public synchronized Document getDocument(URI uri) {
+		if (!(_dc instanceof DynamicContextBuilder)
+				|| ((DynamicContextBuilder) _dc).isDocumentLoaded(uri))
+			return _dc.getDocument(uri);
+
+		// tried before, maybe without success
+		if (_documents.containsKey(uri))
+			return _documents.get(uri);
+		Document doc;
+		try {
+			doc = new TinyTreeBuilder().load(new InputSource(uri.toString()));
+		} catch (DOMLoaderException e) {
+			doc = null;
+		}
+		_documents.put(uri, doc);
+		return doc;
+	}
+
+	public Map<String, List<Document>> getCollections() {
+		return _dc.getCollections();
+	}
+
+	public List<Document> getDefaultCollection() {
+		return _dc.getDefaultCollection();
+	}
+
+	public CollationProvider getCollationProvider() {
+		return _dc.getCollationProvider();
+	}
+}
@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.DynamicContext;
+import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.processor.DefaultEvaluator;
+import org.eclipse.wst.xml.xpath2.processor.DynamicError;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FnBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.function.FsEq;
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyTreeHandler;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.NumericType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSInteger;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Matches a StreamingPath against the SAX events of one document.
+ *
+ * Each open element keeps two sets of step numbers: the steps it has
+ * matched, and the steps matched by an ancestor after which a descendant
+ * axis or // follows, so the element's descendants may match the next step.
+ * A child is checked against the step after each number in its parent's
+ * sets, so the cost per element depends on the path, not on how many
+ * elements matched before.
+ *
+ * A selected node is handed to the listener once it is complete: attributes
+ * as their element starts, text when it ends and elements when they end,
+ * so an element comes after the elements it contains. The nodes are copies
+ * in small trees of their own, holding an element's content but none of its
+ * ancestors or siblings.
+ */
+public final class StreamingMatcher extends DefaultHandler implements LexicalHandler {
+
+	private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+	// bits of the document order key below a node's start number
+	private static final int ORDER_SHIFT = 20;
+
+	/** Receives the selected nodes. */
+	public interface Listener {
+		/**
+		 * @param node
+		 *            The node, or null if nodes weren't asked for.
+		 * @param key
+		 *            Orders the nodes in document order.
+		 * @return Whether to go on parsing.
+		 */
+		boolean match(Node node, long key);
+	}
+
+	// an open element
+	private static final class Frame {
+		long _active; // bit i + 1 for each step i it matched, bit 0 for the document
+		long _inherited; // bits of ancestors' steps which the next step may extend below it
+		int[] _counters; // positions of children, by predicate
+		boolean _counted;
+		TinyTreeHandler _buffer; // the copy of an element which the last step selects
+		boolean _deferred; // whether the copy still has predicates to pass
+		long _order;
+	}
+
+	private static final class Stop extends SAXException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	private final StreamingPath _path;
+	private final DynamicContext _dc;
+	private final Listener _listener;
+	private final boolean _nodes;
+	private final int _last;
+	private final long _descending; // states after which the next step looks below the node
+
+	private Frame[] _frames = new Frame[16];
+	private int _depth = -1;
+	private final ArrayList<String> _declarations = new ArrayList<String>(); // of the next element
+	private final ArrayList<TinyTreeHandler> _buffers = new ArrayList<TinyTreeHandler>();
+	private long _order;
+	private boolean _in_dtd;
+	private boolean _stopped;
+
+	// the element being started
+	private String _uri;
+	private String _local;
+	private String _qname;
+	private Attributes _atts;
+	private Element _shallow;
+
+	// text since the last node
+	private boolean _in_text;
+	private boolean _text_selected;
+	private final StringBuilder _text = new StringBuilder();
+	private long _text_order;
+
+	/**
+	 * @param path
+	 *            The path.
+	 * @param dc
+	 *            Dynamic context for the predicates.
+	 * @param listener
+	 *            Receives the selected nodes.
+	 * @param nodes
+	 *            Whether the listener needs the nodes, rather than just to
+	 *            know that they were selected.
+	 */
+	public StreamingMatcher(StreamingPath path, DynamicContext dc, Listener listener, boolean nodes) {
+		_path = path;
+		_dc = dc;
+		_listener = listener;
+		_nodes = nodes;
+		_last = path._length - 1;
+		long descending = 0;
+		for (int i = 0; i < path._length; i++) {
+			int axis = path._axes[i];
+			if (path._deep_join[i] || axis == StreamingPath.DESCENDANT || axis == StreamingPath.DESCENDANT_OR_SELF)
+				descending |= bit(i - 1);
+		}
+		_descending = descending;
+	}
+
+	/**
+	 * Parses a document, matching the path against it.
+	 *
+	 * @param reader
+	 *            A namespace aware reader. Its content and lexical handlers
+	 *            are replaced.
+	 * @param source
+	 *            The document.
+	 * @throws SAXException
+	 *             If the document can't be parsed.
+	 * @throws IOException
+	 *             If the document can't be read.
+	 */
+	public void parse(XMLReader reader, InputSource source) throws SAXException, IOException {
+		reader.setContentHandler(this);
+		try {
+			reader.setProperty(LEXICAL_HANDLER_PROPERTY, this);
+		} catch (SAXNotRecognizedException e) {
+			// comments won't split text nodes
+		} catch (SAXNotSupportedException e) {
+			// likewise
+		}
+		try {
+			reader.parse(source);
+		} catch (Stop e) {
+			// the listener had seen enough
+		}
+	}
+
+	/**
+	 * @return Whether the listener stopped the parsing.
+	 */
+	public boolean stopped() {
+		return _stopped;
+	}
+
+	// the bit of the state "step i matched"; the document is state -1
+	private static long bit(int i) {
+		return 1L << (i + 1);
+	}
+
+	private void emit(Node node, long key) throws SAXException {
+		if (!_listener.match(node, key)) {
+			_stopped = true;
+			throw new Stop();
+		}
+	}
+
+	private boolean name_test(int i, String uri, String local) {
+		String u = _path._uris[i];
+		String l = _path._locals[i];
+		return (l == null || l.equals(local)) && (u == null || u.equals(uri == null ? "" : uri));
+	}
+
+	private Frame push() {
+		if (++_depth == _frames.length) {
+			Frame[] frames = new Frame[_depth * 2];
+			System.arraycopy(_frames, 0, frames, 0, _depth);
+			_frames = frames;
+		}
+		Frame f = _frames[_depth];
+		if (f == null)
+			f = _frames[_depth] = new Frame();
+		f._active = 0;
+		f._inherited = 0;
+		f._counted = false;
+		f._buffer = null;
+		f._deferred = false;
+		return f;
+	}
+
+	private int next_position(Frame parent, int counter) {
+		if (!parent._counted) {
+			if (parent._counters == null)
+				parent._counters = new int[_path._counters];
+			else
+				Arrays.fill(parent._counters, 0);
+			parent._counted = true;
+		}
+		return ++parent._counters[counter];
+	}
+
+	/**
+	 * Checks the predicates of a step. The node is the element being
+	 * started if null.
+	 */
+	private boolean passes(int step, Frame parent, Node node) {
+		StreamingPath.Predicate[] predicates = _path._predicates[step];
+		for (int i = 0; i < predicates.length; i++) {
+			StreamingPath.Predicate p = predicates[i];
+			int position = p._counter < 0 ? -1 : next_position(parent, p._counter);
+			if (p._position != 0) {
+				if (p._position != position)
+					return false;
+			} else if (!truth(evaluate(p._exprs, node == null ? shallow() : node), position)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ResultSequence evaluate(Collection exprs, Node node) {
+		DefaultEvaluator evaluator = new DefaultEvaluator(_path._sc, _dc, new Object[] { node });
+		if (exprs.size() == 1)
+			return evaluator.evaluate2((XPathNode) exprs.iterator().next());
+		ResultBuffer rb = new ResultBuffer();
+		for (Iterator i = exprs.iterator(); i.hasNext();)
+			rb.concat(evaluator.evaluate2((XPathNode) i.next()));
+		return rb.getSequence();
+	}
+
+	private boolean truth(ResultSequence rs, int position) {
+		if (rs.size() == 1 && rs.item(0) instanceof NumericType) {
+			if (position < 0)
+				throw new DynamicError(StreamingPath.NOT_STREAMABLE, "Numeric predicates can only be streamed on child steps");
+			return FsEq.fs_eq_fast((AnyType) rs.item(0), new XSInteger(position), _dc);
+		}
+		return FnBoolean.fn_boolean(rs).value();
+	}
+
+	// starts a copy of the element being started; like the element, it only
+	// declares its own namespaces, so its attributes are the same
+	private TinyTreeHandler copy() {
+		TinyTreeHandler h = new TinyTreeHandler();
+		h.startDocument();
+		for (int i = 0; i < _declarations.size(); i += 2)
+			h.startPrefixMapping(_declarations.get(i), _declarations.get(i + 1));
+		h.startElement(_uri, _local, _qname, _atts);
+		return h;
+	}
+
+	// the element being started, without its content
+	private Element shallow() {
+		if (_shallow == null) {
+			TinyTreeHandler h = copy();
+			h.endElement(_uri, _local, _qname);
+			h.endDocument();
+			_shallow = h.document().getDocumentElement();
+		}
+		return _shallow;
+	}
+
+	public void startDocument() {
+		_depth = -1;
+		Frame f = push();
+		f._active = bit(-1);
+		f._order = _order = 0;
+	}
+
+	public void endDocument() throws SAXException {
+		flush_text();
+	}
+
+	public void startPrefixMapping(String prefix, String uri) {
+		_declarations.add(prefix);
+		_declarations.add(uri);
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).startPrefixMapping(prefix, uri);
+	}
+
+	public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+		flush_text();
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).startElement(uri, localName, qName, atts);
+
+		_uri = uri;
+		_local = localName;
+		_qname = qName;
+		_atts = atts;
+		_shallow = null;
+
+		Frame parent = _frames[_depth];
+		Frame f = push();
+		f._order = ++_order;
+		f._inherited = parent._inherited | (parent._active & _descending);
+		long reach = parent._active | parent._inherited;
+
+		boolean selected = false;
+		for (int i = 0; i <= _last; i++) {
+			int axis = _path._axes[i];
+			long from;
+			if (axis == StreamingPath.CHILD && !_path._deep_join[i])
+				from = parent._active;
+			else if (axis == StreamingPath.CHILD || axis == StreamingPath.DESCENDANT || axis == StreamingPath.DESCENDANT_OR_SELF)
+				from = reach;
+			else
+				continue;
+			if (_path._kinds[i] != StreamingPath.ELEMENT || (from & bit(i - 1)) == 0 || !name_test(i, uri, localName))
+				continue;
+			if (i == _last)
+				selected = true;
+			else if (passes(i, parent, null))
+				f._active |= bit(i);
+		}
+
+		// steps along the self axes are taken at the element itself; each
+		// builds on the ones before, so one pass in step order does
+		for (int i = 1; i <= _last; i++) {
+			int axis = _path._axes[i];
+			if (axis != StreamingPath.SELF && axis != StreamingPath.DESCENDANT_OR_SELF)
+				continue;
+			if ((f._active & bit(i - 1)) == 0 || !name_test(i, uri, localName))
+				continue;
+			if (i == _last)
+				selected = true;
+			else if (passes(i, parent, null))
+				f._active |= bit(i);
+		}
+
+		if (_path._kinds[_last] == StreamingPath.ATTR)
+			select_attributes(f);
+		else if (selected)
+			select_element(f, parent);
+		_declarations.clear();
+	}
+
+	private void select_element(Frame f, Frame parent) throws SAXException {
+		if (_path._shallow_last) {
+			if (!passes(_last, parent, null))
+				return;
+			if (!_nodes) {
+				emit(null, f._order << ORDER_SHIFT);
+				return;
+			}
+		} else {
+			f._deferred = true;
+		}
+		f._buffer = copy();
+		_buffers.add(f._buffer);
+	}
+
+	private void select_attributes(Frame f) throws SAXException {
+		long from = _path._deep_join[_last] ? f._active | f._inherited : f._active;
+		if ((from & bit(_last - 1)) == 0)
+			return;
+		// the attributes as a tree has them, which includes namespace
+		// declarations
+		NamedNodeMap attrs = shallow().getAttributes();
+		for (int i = 0; i < attrs.getLength(); i++) {
+			Node attr = attrs.item(i);
+			if (name_test(_last, attr.getNamespaceURI(), attr.getLocalName()) && passes(_last, f, attr))
+				emit(_nodes ? attr : null, (f._order << ORDER_SHIFT) + 1 + i);
+		}
+	}
+
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		flush_text();
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).endElement(uri, localName, qName);
+
+		Frame f = _frames[_depth];
+		if (f._buffer != null) {
+			_buffers.remove(_buffers.size() - 1);
+			f._buffer.endDocument();
+			Element e = f._buffer.document().getDocumentElement();
+			f._buffer = null;
+			if (!f._deferred || passes(_last, _frames[_depth - 1], e))
+				emit(_nodes ? e : null, f._order << ORDER_SHIFT);
+		}
+		_depth--;
+	}
+
+	public void characters(char[] ch, int start, int length) {
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).characters(ch, start, length);
+		if (_path._kinds[_last] != StreamingPath.TEXT)
+			return;
+
+		if (!_in_text) {
+			_in_text = true;
+			_text_order = ++_order;
+			Frame f = _frames[_depth];
+			long from = _path._axes[_last] == StreamingPath.CHILD && !_path._deep_join[_last] ? f._active : f._active | f._inherited;
+			_text_selected = (from & bit(_last - 1)) != 0;
+		}
+		if (_text_selected)
+			_text.append(ch, start, length);
+	}
+
+	private void flush_text() throws SAXException {
+		if (!_in_text)
+			return;
+		_in_text = false;
+		if (!_text_selected)
+			return;
+
+		Node text = null;
+		if (_nodes || _path._predicates[_last].length > 0) {
+			TinyTreeHandler h = new TinyTreeHandler();
+			h.startDocument();
+			char[] ch = new char[_text.length()];
+			_text.getChars(0, ch.length, ch, 0);
+			h.characters(ch, 0, ch.length);
+			h.endDocument();
+			text = h.document().getFirstChild();
+		}
+		_text.setLength(0);
+		if (passes(_last, _frames[_depth], text))
+			emit(text, _text_order << ORDER_SHIFT);
+	}
+
+	public void ignorableWhitespace(char[] ch, int start, int length) {
+		characters(ch, start, length);
+	}
+
+	public void processingInstruction(String target, String data) throws SAXException {
+		if (_in_dtd)
+			return;
+		flush_text();
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).processingInstruction(target, data);
+	}
+
+	public void comment(char[] ch, int start, int length) throws SAXException {
+		if (_in_dtd)
+			return;
+		flush_text();
+		for (int i = 0; i < _buffers.size(); i++)
+			_buffers.get(i).comment(ch, start, length);
+	}
+
+	public void startDTD(String name, String publicId, String systemId) {
+		_in_dtd = true;
+	}
+
+	public void endDTD() {
+		_in_dtd = false;
+	}
+
+	public void startEntity(String name) {
+	}
+
+	public void endEntity(String name) {
+	}
+
+	public void startCDATA() {
+	}
+
+	public void endCDATA() {
+	}
+}
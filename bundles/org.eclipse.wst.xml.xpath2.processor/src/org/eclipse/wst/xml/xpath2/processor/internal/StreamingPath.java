@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.eclipse.wst.xml.xpath2.api.StaticContext;
+import org.eclipse.wst.xml.xpath2.processor.StaticError;
+import org.eclipse.wst.xml.xpath2.processor.function.FnFunctionLibrary;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AnyKindTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AttributeTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.AxisStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.BinExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.CntxItemExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ElementTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FilterExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ForwardStep;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.FunctionCall;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IfExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.IntegerLiteral;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.Literal;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NameTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.NodeTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.ParExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SequenceType;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.SingleType;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.StepExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.TextTest;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.UnExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.VarRef;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathExpr;
+import org.eclipse.wst.xml.xpath2.processor.internal.ast.XPathNode;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+
+/**
+ * An absolute path compiled for matching against SAX events in one pass
+ * over a document.
+ *
+ * The path may only use the child, descendant, descendant-or-self, self and
+ * attribute axes, and only its last step may select attributes or text. So
+ * that nothing but the open elements has to be kept, the predicates of all
+ * other steps may only look at the attributes of the element they test.
+ * Predicates of the last step may also look at its content, which is
+ * buffered until the element ends. Numeric predicates are only allowed on
+ * child steps, whose positions are counted as siblings go by.
+ */
+public final class StreamingPath {
+
+	/** The error raised for expressions which can't be streamed. */
+	public static final String NOT_STREAMABLE = "XTSE3430";
+
+	// step axes
+	static final int CHILD = 0;
+	static final int DESCENDANT = 1;
+	static final int DESCENDANT_OR_SELF = 2;
+	static final int SELF = 3;
+	static final int ATTRIBUTE = 4;
+
+	// kinds of node selected by a step
+	static final int ELEMENT = 0;
+	static final int ATTR = 1;
+	static final int TEXT = 2;
+
+	// the paths longer than this would not fit the matcher's state sets
+	private static final int MAX_STEPS = 62;
+
+	// functions which read the context node's string value when given no
+	// arguments, so need the content of an element
+	private static final String[] CONTENT_FUNCTIONS = { "string", "data", "number", "normalize-space", "string-length" };
+	// functions which look outside the subtree of the context node
+	private static final String[] OUTSIDE_FUNCTIONS = { "position", "last", "root", "id", "idref", "lang", "base-uri" };
+
+	final StaticContext _sc;
+	final int _length;
+	final int[] _axes;
+	final boolean[] _deep_join; // whether // comes before the step
+	final int[] _kinds;
+	final String[] _uris; // null for any namespace, "" for none
+	final String[] _locals; // null for any name
+	final Predicate[][] _predicates;
+	final int _counters; // predicates which count positions
+	final boolean _shallow_last; // whether the last step's predicates can be checked at its start
+
+	/** A predicate of a step. */
+	static final class Predicate {
+		final Collection _exprs;
+		final int _position; // the position of a literal [n], or 0
+		final int _counter; // index of its position counter, or -1
+
+		Predicate(Collection exprs, int position, int counter) {
+			_exprs = exprs;
+			_position = position;
+			_counter = counter;
+		}
+	}
+
+	/**
+	 * @param expr
+	 *            The path, parsed and statically checked.
+	 * @param sc
+	 *            The static context it was checked against.
+	 * @throws StaticError
+	 *             If the path can't be streamed.
+	 */
+	public StreamingPath(XPathExpr expr, StaticContext sc) {
+		_sc = sc;
+
+		ArrayList<XPathExpr> parts = new ArrayList<XPathExpr>();
+		for (XPathExpr xp = expr; xp != null; xp = xp.next())
+			parts.add(xp);
+		int n = parts.size();
+		if (expr.slashes() == 0 || expr.expr() == null || n > MAX_STEPS)
+			throw not_streamable("only absolute paths to elements, attributes or text can be streamed");
+
+		_length = n;
+		_axes = new int[n];
+		_deep_join = new boolean[n];
+		_kinds = new int[n];
+		_uris = new String[n];
+		_locals = new String[n];
+		_predicates = new Predicate[n][];
+
+		int counters = 0;
+		boolean shallow_last = true;
+		for (int i = 0; i < n; i++) {
+			XPathExpr part = parts.get(i);
+			StepExpr se = part.expr();
+			if (!(se instanceof AxisStep) || !(((AxisStep) se).step() instanceof ForwardStep))
+				throw not_streamable("only forward axis steps can be streamed");
+			AxisStep step = (AxisStep) se;
+			boolean last = i == n - 1;
+			_deep_join[i] = part.slashes() == 2;
+
+			String axis = ((ForwardStep) step.step()).iterator().name();
+			if (axis.equals("child"))
+				_axes[i] = CHILD;
+			else if (axis.equals("descendant"))
+				_axes[i] = DESCENDANT;
+			else if (axis.equals("descendant-or-self"))
+				_axes[i] = DESCENDANT_OR_SELF;
+			else if (axis.equals("self"))
+				_axes[i] = SELF;
+			else if (axis.equals("attribute"))
+				_axes[i] = ATTRIBUTE;
+			else
+				throw not_streamable("the " + axis + " axis can't be streamed");
+
+			if (_axes[i] == DESCENDANT && _deep_join[i] || (_axes[i] == SELF || _axes[i] == DESCENDANT_OR_SELF) && (i == 0 || _deep_join[i]))
+				throw not_streamable("the " + axis + " axis can only be streamed after a single slash and a step");
+			if (_axes[i] == ATTRIBUTE && !last)
+				throw not_streamable("only the last step can select attributes");
+
+			node_test(i, step.step().node_test(), last);
+
+			Predicate[] predicates = new Predicate[step.predicate_count()];
+			int p = 0;
+			for (Iterator j = step.iterator(); j.hasNext(); p++) {
+				Collection exprs = (Collection) j.next();
+				int position = position(exprs);
+				int counter = -1;
+				if (position == 0 && !local(exprs, true)) {
+					if (!last)
+						throw not_streamable("predicates of a step other than the last may only use the attributes of the node it selects");
+					if (!local(exprs, false))
+						throw not_streamable("predicates of the last step may only use the node it selects and its content");
+					shallow_last = false;
+				}
+				if (_axes[i] == CHILD && _kinds[i] == ELEMENT)
+					counter = counters++;
+				else if (position != 0)
+					throw not_streamable("numeric predicates can only be streamed on child steps");
+				predicates[p] = new Predicate(exprs, position, counter);
+			}
+			_predicates[i] = predicates;
+		}
+		_counters = counters;
+		_shallow_last = shallow_last;
+	}
+
+	private void node_test(int i, NodeTest test, boolean last) {
+		boolean attr = _axes[i] == ATTRIBUTE;
+		_kinds[i] = attr ? ATTR : ELEMENT;
+		if (test instanceof NameTest) {
+			QName name = ((NameTest) test).name();
+			String ns;
+			if (name.prefix() != null)
+				ns = name.namespace();
+			else
+				ns = attr ? null : _sc.getDefaultNamespace();
+			_uris[i] = "*".equals(ns) ? null : (ns == null ? "" : ns);
+			_locals[i] = "*".equals(name.local()) ? null : name.local();
+		} else if (test instanceof ElementTest && !attr) {
+			if (((ElementTest) test).name() != null || ((ElementTest) test).type() != null)
+				throw not_streamable("only element() tests without a name or type can be streamed");
+		} else if (test instanceof AttributeTest && attr) {
+			if (((AttributeTest) test).name() != null || ((AttributeTest) test).type() != null)
+				throw not_streamable("only attribute() tests without a name or type can be streamed");
+		} else if (test instanceof TextTest && last && (_axes[i] == CHILD || _axes[i] == DESCENDANT)) {
+			_kinds[i] = TEXT;
+		} else if (!(test instanceof AnyKindTest) || last && !attr) {
+			// node() as the last step would also select comments and
+			// processing instructions, which aren't tracked
+			throw not_streamable("the node test of step " + (i + 1) + " can't be streamed");
+		}
+	}
+
+	/**
+	 * @return The position asked for by a predicate which is just an
+	 *         integer literal, -1 if it is one but not positive, else 0.
+	 */
+	private static int position(Collection exprs) {
+		if (exprs.size() != 1)
+			return 0;
+		Object e = exprs.iterator().next();
+		if (!(e instanceof XPathExpr))
+			return 0;
+		XPathExpr xpe = (XPathExpr) e;
+		if (xpe.next() != null || xpe.slashes() != 0 || !(xpe.expr() instanceof FilterExpr))
+			return 0;
+		FilterExpr fex = (FilterExpr) xpe.expr();
+		if (fex.predicate_count() != 0 || !(fex.primary() instanceof IntegerLiteral))
+			return 0;
+		int pos = ((IntegerLiteral) fex.primary()).value().int_value().intValue();
+		return pos > 0 ? pos : -1;
+	}
+
+	private static boolean local(Collection exprs, boolean shallow) {
+		for (Iterator i = exprs.iterator(); i.hasNext();) {
+			if (!local((XPathNode) i.next(), shallow))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Decides whether an expression, evaluated with a node as the context
+	 * item, only depends on the node's attributes (shallow) or on its
+	 * attributes and content, so that it gives the same result for a copy of
+	 * the node detached from the document.
+	 */
+	private static boolean local(XPathNode e, boolean shallow) {
+		if (e instanceof Literal || e instanceof VarRef || e instanceof SingleType || e instanceof SequenceType)
+			return true;
+		if (e instanceof CntxItemExpr)
+			return !shallow;
+		if (e instanceof BinExpr)
+			return local(((BinExpr) e).left(), shallow) && local(((BinExpr) e).right(), shallow);
+		if (e instanceof UnExpr)
+			return local(((UnExpr) e).arg(), shallow);
+		if (e instanceof ParExpr)
+			return local(((ParExpr) e).exprs(), shallow);
+		if (e instanceof IfExpr) {
+			IfExpr ie = (IfExpr) e;
+			return local(ie.exprs(), shallow) && local(ie.then_clause(), shallow) && local(ie.else_clause(), shallow);
+		}
+		if (e instanceof FunctionCall) {
+			FunctionCall fc = (FunctionCall) e;
+			QName name = fc.name();
+			if (FnFunctionLibrary.XPATH_FUNCTIONS_NS.equals(name.namespace())) {
+				if (contains(OUTSIDE_FUNCTIONS, name.local()))
+					return false;
+				if (shallow && fc.arity() == 0 && contains(CONTENT_FUNCTIONS, name.local()))
+					return false;
+			}
+			for (Iterator i = fc.iterator(); i.hasNext();) {
+				if (!local((XPathNode) i.next(), shallow))
+					return false;
+			}
+			return true;
+		}
+		if (e instanceof XPathExpr)
+			return local_path((XPathExpr) e, shallow);
+		return false;
+	}
+
+	private static boolean local_path(XPathExpr path, boolean shallow) {
+		if (path.slashes() != 0)
+			return false;
+		boolean attribute = false;
+		for (XPathExpr xp = path; xp != null; xp = xp.next()) {
+			StepExpr se = xp.expr();
+			attribute = false;
+			if (se instanceof FilterExpr) {
+				FilterExpr fe = (FilterExpr) se;
+				if (!local(fe.primary(), shallow))
+					return false;
+				// a shallow path must end with attributes, but may apply
+				// functions to them
+				attribute = shallow && (fe.primary() instanceof Literal || fe.primary() instanceof FunctionCall || fe.primary() instanceof ParExpr);
+				for (Iterator i = fe.iterator(); i.hasNext();) {
+					if (!local((Collection) i.next(), shallow))
+						return false;
+				}
+			} else if (se instanceof AxisStep && ((AxisStep) se).step() instanceof ForwardStep) {
+				String axis = ((ForwardStep) ((AxisStep) se).step()).iterator().name();
+				attribute = axis.equals("attribute");
+				if (!attribute && !axis.equals("self") && (shallow || !(axis.equals("child") || axis.equals("descendant") || axis.equals("descendant-or-self"))))
+					return false;
+				// the context of these is a node the step selects, which may
+				// be anywhere below the original one
+				if (shallow && ((AxisStep) se).predicate_count() != 0)
+					return false;
+				for (Iterator i = ((AxisStep) se).iterator(); i.hasNext();) {
+					if (!local((Collection) i.next(), false))
+						return false;
+				}
+			} else {
+				return false;
+			}
+		}
+		return !shallow || attribute;
+	}
+
+	private static boolean contains(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param message
+	 *            Why an expression can't be streamed.
+	 * @return The error to throw.
+	 */
+	public static StaticError not_streamable(String message) {
+		return new StaticError(NOT_STREAMABLE, "Expression can't be streamed: " + message);
+	}
+
+	/**
+	 * @return Whether the last step selects attributes.
+	 */
+	public boolean selects_attributes() {
+		return _kinds[_length - 1] == ATTR;
+	}
+}
@@ -12,11 +12,14 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.ast;
 
+import org.eclipse.wst.xml.xpath2.api.Function;
+
 /**
  * A class that tests whether a given value is castable into a given type. This
  * can be used to select an appropriate type for processing a given value.
  */
 public class CastableExpr extends BinExpr {
+	private Function _function;
 
 	/**
 	 * Constructor of CastableExpr
@@ -30,6 +33,14 @@ public class CastableExpr extends BinExpr {
 		super(l, r);
 	}
 
+	public Function function() {
+		return _function;
+	}
+	
+	public void set_function(Function _function) {
+		this._function = _function;
+	}
+
 	/**
 	 * Support for Visitor interface.
 	 * 
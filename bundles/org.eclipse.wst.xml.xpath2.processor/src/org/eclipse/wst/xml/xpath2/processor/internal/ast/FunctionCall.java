@@ -13,6 +13,7 @@
 package org.eclipse.wst.xml.xpath2.processor.internal.ast;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 import org.eclipse.wst.xml.xpath2.api.Function;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.*;
@@ -24,6 +25,7 @@ public class FunctionCall extends PrimaryExpr {
 	private QName _name;
 	private Collection _args;
 	private Function _function;
+	private Pattern _pattern;
 
 	/**
 	 * Constructor for FunctionCall.
@@ -46,6 +48,20 @@ public class FunctionCall extends PrimaryExpr {
 		this._function = _function;
 	}
 
+	/**
+	 * Support for compiled regular expression.
+	 * 
+	 * @return The regular expression argument, compiled when the call was
+	 *         resolved, or null if it isn't known in advance.
+	 */
+	public Pattern pattern() {
+		return _pattern;
+	}
+
+	public void set_pattern(Pattern pattern) {
+		_pattern = pattern;
+	}
+
 	/**
 	 * Support for Visitor interface.
 	 * 
@@ -81,4 +97,13 @@ public class FunctionCall extends PrimaryExpr {
 	public int arity() {
 		return _args.size();
 	}
+
+	/**
+	 * Support for Collection interface.
+	 * 
+	 * @return The arguments, which may be replaced in place.
+	 */
+	public Collection args() {
+		return _args;
+	}
 }
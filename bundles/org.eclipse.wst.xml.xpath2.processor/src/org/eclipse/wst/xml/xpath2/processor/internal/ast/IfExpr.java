@@ -73,4 +73,33 @@ public class IfExpr extends Expr {
 	public Expr else_clause() {
 		return _else;
 	}
+
+	/**
+	 * Support for Collection interface.
+	 * 
+	 * @return The conditions, which may be replaced in place.
+	 */
+	public Collection exprs() {
+		return _exprs;
+	}
+
+	/**
+	 * Set the then clause.
+	 * 
+	 * @param e
+	 *            Expression.
+	 */
+	public void set_then_clause(Expr e) {
+		_then = e;
+	}
+
+	/**
+	 * Set the else clause.
+	 * 
+	 * @param e
+	 *            Expression.
+	 */
+	public void set_else_clause(Expr e) {
+		_else = e;
+	}
 }
@@ -34,6 +34,7 @@ public class ItemType extends XPathNode {
 
 	private QName _qname;
 	private KindTest _ktest;
+	private AnyAtomicType _atomic_type;
 
 	// XXX: polymorphism
 	/**
@@ -95,4 +96,17 @@ public class ItemType extends XPathNode {
 	public KindTest kind_test() {
 		return _ktest;
 	}
+
+	/**
+	 * The atomic type matching the QName, as resolved by static analysis.
+	 * 
+	 * @return The atomic type, or null if unresolved or not atomic.
+	 */
+	public AnyAtomicType atomic_type() {
+		return _atomic_type;
+	}
+
+	public void set_atomic_type(AnyAtomicType atomic_type) {
+		_atomic_type = atomic_type;
+	}
 }
@@ -47,4 +47,13 @@ public class ParExpr extends PrimaryExpr {
 	public Iterator iterator() {
 		return _exprs.iterator();
 	}
+
+	/**
+	 * Support for Collection interface.
+	 * 
+	 * @return The expressions, which may be replaced in place.
+	 */
+	public Collection exprs() {
+		return _exprs;
+	}
 }
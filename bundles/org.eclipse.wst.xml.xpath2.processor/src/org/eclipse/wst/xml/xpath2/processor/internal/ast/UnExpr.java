@@ -35,4 +35,14 @@ public abstract class UnExpr extends Expr {
 	public Expr arg() {
 		return _arg;
 	}
+
+	/**
+	 * Set the argument.
+	 * 
+	 * @param e
+	 *            Expression.
+	 */
+	public void set_arg(Expr e) {
+		_arg = e;
+	}
 }
@@ -50,4 +50,14 @@ public class VarExprPair {
 	public Expr expr() {
 		return _expr;
 	}
+
+	/**
+	 * Set Expression.
+	 * 
+	 * @param e
+	 *            Expression.
+	 */
+	public void set_expr(Expr e) {
+		_expr = e;
+	}
 }
@@ -19,7 +19,19 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.*;
  * reference.
  */
 public class VarRef extends PrimaryExpr {
+	/**
+	 * Slot of a reference which hasn't been through the static name resolver.
+	 */
+	public static final int UNRESOLVED = -2;
+
+	/**
+	 * Slot of a reference to a variable of the dynamic context.
+	 */
+	public static final int EXTERNAL = -1;
+
 	private QName _varname;
+	private int _slot = UNRESOLVED;
+	private javax.xml.namespace.QName _external;
 
 	/**
 	 * Constructor for VarRef.
@@ -48,4 +60,46 @@ public class VarRef extends PrimaryExpr {
 	public QName name() {
 		return _varname;
 	}
+
+	/**
+	 * Retrieves where the variable lives, as found by the static name
+	 * resolver. A variable bound by an enclosing for, some or every
+	 * expression is found at this index of the evaluator's variable frame,
+	 * counting the bindings from the outermost one.
+	 * 
+	 * @return The frame slot, EXTERNAL or UNRESOLVED.
+	 */
+	public int slot() {
+		return _slot;
+	}
+
+	/**
+	 * Resolves the reference to a variable bound by an enclosing expression.
+	 * 
+	 * @param slot
+	 *            The frame slot of the variable.
+	 */
+	public void set_slot(int slot) {
+		_slot = slot;
+		_external = null;
+	}
+
+	/**
+	 * Resolves the reference to a variable of the dynamic context.
+	 * 
+	 * @param name
+	 *            The expanded name of the variable.
+	 */
+	public void set_external(javax.xml.namespace.QName name) {
+		_slot = EXTERNAL;
+		_external = name;
+	}
+
+	/**
+	 * @return The name to look up in the dynamic context, for an EXTERNAL
+	 *         reference.
+	 */
+	public javax.xml.namespace.QName external_name() {
+		return _external;
+	}
 }
@@ -21,6 +21,7 @@ public class XPathExpr extends Expr {
 
 	// single linked list
 	private XPathExpr _next;
+	private boolean _ordered = false;
 
 	/**
 	 * @param slashes
@@ -90,6 +91,31 @@ public class XPathExpr extends Expr {
 		return _expr;
 	}
 
+	/**
+	 * @param e
+	 *            Step expression, copied to _expr
+	 */
+	public void set_expr(StepExpr e) {
+		_expr = e;
+	}
+
+	/**
+	 * @param ordered
+	 *            true if the results of the step for each context node, put
+	 *            one after the other, are known to be in document order and
+	 *            free of duplicates, so they needn't be sorted.
+	 */
+	public void set_ordered(boolean ordered) {
+		_ordered = ordered;
+	}
+
+	/**
+	 * @return true if the results of the step needn't be sorted.
+	 */
+	public boolean ordered() {
+		return _ordered;
+	}
+
 	/**
 	 * @return int _slashes
 	 */
@@ -11,14 +11,49 @@
  *******************************************************************************/
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
+import org.eclipse.wst.xml.xpath2.api.ResultSequence;
+import org.eclipse.wst.xml.xpath2.processor.DynamicError;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.BoundedCache;
 
 public abstract class AbstractRegExFunction extends Function {
 	protected static final String validflags = "smix";
 
+	/**
+	 * Number of compiled regular expressions shared by all regex functions.
+	 */
+	public static final int PATTERN_CACHE_SIZE = 500;
+
+	private static final BoundedCache<PatternKey, Pattern> _patterns = new BoundedCache<PatternKey, Pattern>(PATTERN_CACHE_SIZE);
+
+	static final class PatternKey {
+		private final String pattern;
+		private final int flags;
+
+		PatternKey(String pattern, int flags) {
+			this.pattern = pattern;
+			this.flags = flags;
+		}
+
+		public int hashCode() {
+			return pattern.hashCode() * 31 + flags;
+		}
+
+		public boolean equals(Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof PatternKey)) return false;
+			PatternKey other = (PatternKey) obj;
+			return flags == other.flags && pattern.equals(other.pattern);
+		}
+	}
+
 	public AbstractRegExFunction(QName name, int arity) {
 		super(name, arity);
 	}
@@ -26,17 +61,97 @@ public abstract class AbstractRegExFunction extends Function {
 	public AbstractRegExFunction(QName name, int min_arity, int max_arity) {
 		super(name, min_arity, max_arity);
 	}
-	
-	protected static boolean matches(String pattern, String flags, String src) {
-		boolean fnd = false;
-		if (pattern.indexOf("-[") != -1) {
-			pattern = pattern.replaceAll("\\-\\[", "&&[^");
+
+	/**
+	 * The cache of compiled regular expressions, e.g. for its statistics.
+	 * 
+	 * @return The cache.
+	 */
+	public static BoundedCache<?, Pattern> getPatternCache() {
+		return _patterns;
+	}
+
+	/**
+	 * Compiles the regular expression of a call if its pattern and flags are
+	 * known in advance, to be kept with the call. Errors are left for the
+	 * evaluation to report.
+	 * 
+	 * @param args
+	 *            The value of each argument which is a string literal, null
+	 *            for the others.
+	 * @return The compiled expression, or null.
+	 */
+	public Pattern precompile(List<String> args) {
+		String pattern = args.get(1);
+		String flags = args.size() > 2 ? args.get(2) : null;
+		if (pattern == null || (args.size() > 2 && flags == null))
+			return null;
+		try {
+			return compile(translate(pattern), toFlags(flags));
+		} catch (PatternSyntaxException err) {
+			// reported when the call is evaluated
+			return null;
 		}
-		Matcher m = compileAndExecute(pattern, flags, src);
-		while (m.find()) {
-			fnd = true;
+	}
+
+	/**
+	 * Evaluates a call whose regular expression was compiled in advance.
+	 * 
+	 * @param args
+	 *            argument expressions.
+	 * @param ec
+	 *            evaluation context.
+	 * @param pattern
+	 *            The expression returned by precompile for the call.
+	 * @throws DynamicError
+	 *             Dynamic error.
+	 * @return Result of evaluation.
+	 */
+	public abstract ResultSequence evaluate(Collection args, EvaluationContext ec, Pattern pattern) throws DynamicError;
+
+	/**
+	 * Translates an XML Schema regular expression to a Java one, as far as
+	 * that's needed.
+	 * 
+	 * @param pattern
+	 *            The XML Schema regular expression.
+	 * @return The Java regular expression.
+	 */
+	protected String translate(String pattern) {
+		return pattern;
+	}
+	
+	protected static boolean matches(String pattern, String flags, CharSequence src) {
+		Matcher m = compileAndExecute(subtraction(pattern), flags, src);
+		return m.find();
+	}
+
+	protected static boolean matches(Pattern pattern, CharSequence src) {
+		return pattern.matcher(src).find();
+	}
+
+	/**
+	 * Rewrites character class subtraction, as in [a-z-[aeiou]], to the Java
+	 * notation [a-z&&[^aeiou]].
+	 * 
+	 * @param pattern
+	 *            The XML Schema regular expression.
+	 * @return The Java regular expression.
+	 */
+	protected static String subtraction(String pattern) {
+		int i = pattern.indexOf("-[");
+		if (i == -1)
+			return pattern;
+
+		StringBuffer sb = new StringBuffer(pattern.length() + 8);
+		int start = 0;
+		while (i != -1) {
+			sb.append(pattern, start, i).append("&&[^");
+			start = i + 2;
+			i = pattern.indexOf("-[", start);
 		}
-		return fnd;
+		sb.append(pattern.substring(start));
+		return sb.toString();
 	}
 	
 	protected static Matcher regex(String pattern, String flags, String src) {
@@ -44,7 +159,11 @@ public abstract class AbstractRegExFunction extends Function {
 		return matcher;
 	}
 	
-	private static Matcher compileAndExecute(String pattern, String flags, String src) {
+	private static Matcher compileAndExecute(String pattern, String flags, CharSequence src) {
+		return compile(pattern, toFlags(flags)).matcher(src);
+	}
+
+	protected static int toFlags(String flags) {
 		int flag = Pattern.UNIX_LINES;
 		if (flags != null) {
 			if (flags.indexOf("m") >= 0) {
@@ -61,9 +180,24 @@ public abstract class AbstractRegExFunction extends Function {
 				flag = flag | Pattern.COMMENTS;
 			}
 		}
-		
-		Pattern p = Pattern.compile(pattern, flag);
-		return p.matcher(src);
+		return flag;
+	}
+
+	/**
+	 * Compiles a regular expression, or finds it in the cache.
+	 * 
+	 * @param pattern
+	 *            The Java regular expression.
+	 * @param flags
+	 *            Flags for Pattern.compile.
+	 * @return The compiled expression.
+	 */
+	protected static Pattern compile(String pattern, int flags) {
+		PatternKey key = new PatternKey(pattern, flags);
+		Pattern p = _patterns.get(key);
+		if (p == null)
+			p = _patterns.put(key, Pattern.compile(pattern, flags));
+		return p;
 	}
 
 }
@@ -19,7 +19,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -103,7 +102,7 @@ public class FnAvg extends Function {
 		if (!(total instanceof MathDiv))
 			DynamicError.throw_type_error();
 
-		return ((MathDiv)total).div(ResultSequenceFactory.create_new(new XSInteger(BigInteger.valueOf(elems))));
+		return ((MathDiv)total).div(ResultSequenceFactory.create_new(new XSInteger(elems)));
 	}
 	
 	@Override
@@ -22,6 +22,7 @@ import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
 import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
+import org.eclipse.wst.xml.xpath2.processor.internal.LazyResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyAtomicType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.CalendarType;
@@ -88,7 +89,7 @@ public class FnBoolean extends Function {
 		if (at instanceof NodeType)
 			return XSBoolean.TRUE;
 		
-		if (arg.size() > 1)
+		if (LazyResultSequence.hasItem(arg, 1))
 			throw DynamicError.throw_type_error();
 
 		// XXX ??
@@ -23,6 +23,7 @@ import org.eclipse.wst.xml.xpath2.processor.internal.SeqType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSString;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.TextValue;
 
 /**
  * Returns an xs:boolean indicating whether or not the value of $arg1 contains
@@ -63,19 +64,11 @@ public class FnContains extends Function {
 	 * @return Result of fn:contains operation.
 	 */
 	public static ResultSequence contains(Collection args) throws DynamicError {
-		Collection cargs = Function.convert_arguments(args, expected_args());
-
 		// get args
-		Iterator argiter = cargs.iterator();
-		ResultSequence arg1 = (ResultSequence) argiter.next();
-		String str1 = "";
-		String str2 = "";
-		if (!arg1.empty())
-			str1 = ((XSString) arg1.first()).value();
-
-		ResultSequence arg2 = (ResultSequence) argiter.next();
-		if (!arg2.empty())
-			str2 = ((XSString) arg2.first()).value();
+		Iterator argiter = args.iterator();
+		Iterator expiter = expected_args().iterator();
+		CharSequence str1 = string_argument((ResultSequence) argiter.next(), (SeqType) expiter.next());
+		String str2 = string_argument((ResultSequence) argiter.next(), (SeqType) expiter.next()).toString();
 
 		int str1len = str1.length();
 		int str2len = str2.length();
@@ -88,7 +81,7 @@ public class FnContains extends Function {
 			return XSBoolean.FALSE;
 		}
 
-		return XSBoolean.valueOf(str1.indexOf(str2) != -1);
+		return XSBoolean.valueOf(TextValue.index_of(str1, str2) != -1);
 	}
 
 	/**
@@ -12,7 +12,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -64,6 +63,6 @@ public class FnCount extends Function {
 		Iterator citer = args.iterator();
 		ResultSequence arg = (ResultSequence) citer.next();
 
-		return ResultSequenceFactory.create_new(new XSInteger(BigInteger.valueOf(arg.size())));
+		return ResultSequenceFactory.create_new(new XSInteger(arg.size()));
 	}
 }
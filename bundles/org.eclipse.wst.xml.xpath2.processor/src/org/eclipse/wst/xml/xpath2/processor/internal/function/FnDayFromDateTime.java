@@ -12,7 +12,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -75,7 +74,7 @@ public class FnDayFromDateTime extends Function {
 
 		int res = dt.day();
 
-		return new XSInteger(BigInteger.valueOf(res));
+		return new XSInteger(res);
 	}
 
 	/**
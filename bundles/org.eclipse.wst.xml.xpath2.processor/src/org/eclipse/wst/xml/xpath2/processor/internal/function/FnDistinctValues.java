@@ -20,9 +20,16 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
+import java.text.Collator;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 
+import org.eclipse.wst.xml.xpath2.api.CollationProvider;
 import org.eclipse.wst.xml.xpath2.api.DynamicContext;
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
 import org.eclipse.wst.xml.xpath2.api.Item;
@@ -30,8 +37,15 @@ import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyAtomicType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.NumericType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDecimal;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDouble;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDuration;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSFloat;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSString;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSUntypedAtomic;
 
 /**
  * Returns the sequence that results from removing from $arg all but one of a
@@ -89,14 +103,156 @@ public class FnDistinctValues extends AbstractCollationEqualFunction {
 			collationURI = collation.getStringValue();
 		}
 
+		DistinctSet seen = new DistinctSet(context, collationURI);
 		for (Iterator iter = arg1.iterator(); iter.hasNext();) {
 			AnyAtomicType atomizedItem = (AnyAtomicType) FnData.atomize((Item) iter.next());
-			if (!contains(rs, atomizedItem, context, collationURI))
+			if (seen.add(atomizedItem))
 				rs.add(atomizedItem);
 		}
 
 		return rs.getSequence();
 	}
+
+	/**
+	 * The values accepted so far, hashed by type family so checking a new
+	 * value doesn't take a scan over all of them. A value is a duplicate under
+	 * the same rules as hasValue() applies:
+	 * <ul>
+	 * <li>booleans, numerics and durations equal to an earlier value of the
+	 * same family,</li>
+	 * <li>any value whose string value equals (by the collation) that of an
+	 * earlier string or untypedAtomic,</li>
+	 * <li>NaN after an earlier NaN.</li>
+	 * </ul>
+	 */
+	private static final class DistinctSet {
+		private final DynamicContext _context;
+		private final String _collationURI;
+
+		private final HashSet<Boolean> _booleans = new HashSet<Boolean>();
+		// numerics by double value; candidates are confirmed with eq
+		private final HashMap<Double, ArrayList<NumericType>> _numerics = new HashMap<Double, ArrayList<NumericType>>();
+		private final ArrayList<NumericType> _numeric_list = new ArrayList<NumericType>();
+		private boolean _floats;
+		private boolean _nan;
+		private final ArrayList<XSDuration> _durations = new ArrayList<XSDuration>();
+		// strings by collation key, or in a list if the collation has none
+		private final HashSet<Object> _string_keys = new HashSet<Object>();
+		private final ArrayList<String> _string_list = new ArrayList<String>();
+		private Comparator _collator;
+
+		DistinctSet(DynamicContext context, String collationURI) {
+			_context = context;
+			_collationURI = collationURI;
+		}
+
+		/**
+		 * @return true if the value wasn't seen before, and has been added.
+		 */
+		boolean add(AnyAtomicType item) throws DynamicError {
+			// untypedAtomic isn't CmpEq, but is compared as a string
+			if (!(item instanceof CmpEq || item instanceof XSUntypedAtomic))
+				return true;
+
+			if (contains(item))
+				return false;
+
+			if (item instanceof XSBoolean) {
+				_booleans.add(Boolean.valueOf(((XSBoolean) item).value()));
+			} else if (item instanceof NumericType) {
+				NumericType number = (NumericType) item;
+				if (is_nan(number)) {
+					_nan = true;
+				}
+				if (number instanceof XSFloat)
+					_floats = true;
+				Double key = numeric_key(number);
+				ArrayList<NumericType> bucket = _numerics.get(key);
+				if (bucket == null) {
+					bucket = new ArrayList<NumericType>(1);
+					_numerics.put(key, bucket);
+				}
+				bucket.add(number);
+				_numeric_list.add(number);
+			} else if (item instanceof XSDuration) {
+				_durations.add((XSDuration) item);
+			} else if (item instanceof XSString || item instanceof XSUntypedAtomic) {
+				String value = item.getStringValue();
+				Object key = string_key(value);
+				if (key != null)
+					_string_keys.add(key);
+				else
+					_string_list.add(value);
+			}
+			return true;
+		}
+
+		private boolean contains(AnyAtomicType item) throws DynamicError {
+			if (item instanceof XSBoolean) {
+				if (_booleans.contains(Boolean.valueOf(((XSBoolean) item).value())))
+					return true;
+			} else if (item instanceof NumericType) {
+				NumericType number = (NumericType) item;
+				if (_nan && is_nan(number))
+					return true;
+				// float equality rounds the other value to a float, which the
+				// double keys don't account for
+				List<NumericType> candidates = _floats || number instanceof XSFloat ? _numeric_list : _numerics.get(numeric_key(number));
+				if (candidates != null) {
+					for (int i = 0; i < candidates.size(); i++) {
+						if (candidates.get(i).eq(item, _context))
+							return true;
+					}
+				}
+			} else if (item instanceof XSDuration) {
+				for (int i = 0; i < _durations.size(); i++) {
+					if (_durations.get(i).eq(item, _context))
+						return true;
+				}
+			}
+
+			if (_string_keys.isEmpty() && _string_list.isEmpty())
+				return false;
+			String value = item.getStringValue();
+			Object key = string_key(value);
+			if (key != null && _string_keys.contains(key))
+				return true;
+			for (int i = 0; i < _string_list.size(); i++) {
+				if (_collator.compare(_string_list.get(i), value) == 0)
+					return true;
+			}
+			return false;
+		}
+
+		private Object string_key(String value) throws DynamicError {
+			if (_collator == null) {
+				_collator = _context.getCollationProvider().getCollation(_collationURI);
+				if (_collator == null)
+					throw DynamicError.unsupported_collation(_collationURI);
+			}
+			if (CollationProvider.CODEPOINT_COLLATION.equals(_collationURI))
+				return value;
+			if (_collator instanceof Collator)
+				return ((Collator) _collator).getCollationKey(value);
+			return null;
+		}
+
+		private static boolean is_nan(NumericType number) {
+			return (number instanceof XSDouble && ((XSDouble) number).nan())
+					|| (number instanceof XSFloat && ((XSFloat) number).nan());
+		}
+
+		private static Double numeric_key(NumericType number) {
+			double d;
+			if (number instanceof XSDecimal)
+				d = ((XSDecimal) number).getValue().doubleValue();
+			else if (number instanceof XSFloat)
+				d = ((XSFloat) number).float_value();
+			else
+				d = ((XSDouble) number).double_value();
+			return new Double(d == 0 ? 0.0 : d);
+		}
+	}
 	
 	/**
 	 * Support for Contains interface.
@@ -15,7 +15,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -81,7 +80,7 @@ public class FnHoursFromDuration extends Function {
 		if (dtd.negative())
 			res *= -1;
 
-		return new XSInteger(BigInteger.valueOf(res));
+		return new XSInteger(res);
 	}
 
 	/**
@@ -139,28 +139,28 @@ public class FnIndexOf extends AbstractCollationEqualFunction {
 			if (isBoolean(cmptype, at)) {
 				XSBoolean boolat = (XSBoolean) cmptype;
 				if (boolat.eq(at, dc)) {
- 				   rb.add(new XSInteger(BigInteger.valueOf(index)));
+ 				   rb.add(new XSInteger(index));
 				}
 			} else 
 			
 			if (isNumeric(cmptype, at)) {
 				NumericType numericat = (NumericType) at;
 				if (numericat.eq(cmptype, dc)) {
-					rb.add(new XSInteger(BigInteger.valueOf(index)));
+					rb.add(new XSInteger(index));
 				}
 			} else
 			
 			if (isDuration(cmptype, at)) {
 				XSDuration durat = (XSDuration) at;
 				if (durat.eq(cmptype, dc)) {
-					rb.add(new XSInteger(BigInteger.valueOf(index)));
+					rb.add(new XSInteger(index));
 				}
 			} else
 				
 			if (at instanceof QName && cmptype instanceof QName ) {
 				QName qname = (QName)at;
 				if (qname.eq(cmptype, dc)) {
-					rb.add(new XSInteger(BigInteger.valueOf(index)));
+					rb.add(new XSInteger(index));
 				}
 			} else 
 			
@@ -168,7 +168,7 @@ public class FnIndexOf extends AbstractCollationEqualFunction {
 				XSString xstr1 = new XSString(cmptype.getStringValue());
 				XSString itemStr = new XSString(at.getStringValue());
 				if (FnCompare.compare_string(collationUri, xstr1, itemStr, dc).equals(BigInteger.ZERO)) {
-					rb.add(new XSInteger(BigInteger.valueOf(index)));
+					rb.add(new XSInteger(index));
 				}
 			} 
 			
@@ -12,7 +12,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.Collection;
 
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
@@ -71,6 +70,6 @@ public class FnLast extends Function {
 
 		assert last != 0;
 
-		return ResultSequenceFactory.create_new(new XSInteger(BigInteger.valueOf(last)));
+		return ResultSequenceFactory.create_new(new XSInteger(last));
 	}
 }
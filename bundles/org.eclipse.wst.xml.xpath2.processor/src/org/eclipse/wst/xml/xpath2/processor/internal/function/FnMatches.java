@@ -18,6 +18,7 @@ package org.eclipse.wst.xml.xpath2.processor.internal.function;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
@@ -55,6 +56,14 @@ public class FnMatches extends AbstractRegExFunction {
 		return matches(args);
 	}
 
+	public ResultSequence evaluate(Collection args, org.eclipse.wst.xml.xpath2.api.EvaluationContext ec, Pattern pattern) throws DynamicError {
+		return matches(args, pattern);
+	}
+
+	protected String translate(String pattern) {
+		return subtraction(pattern);
+	}
+
 	/**
 	 * Matches operation.
 	 * 
@@ -65,23 +74,22 @@ public class FnMatches extends AbstractRegExFunction {
 	 * @return Result of fn:matches operation.
 	 */
 	public static ResultSequence matches(Collection args) throws DynamicError {
-		Collection cargs = Function.convert_arguments(args, expected_args());
+		return matches(args, null);
+	}
 
+	private static ResultSequence matches(Collection args, Pattern compiled) throws DynamicError {
 		// get args
-		Iterator argiter = cargs.iterator();
-		ResultSequence arg1 = (ResultSequence) argiter.next();
-		String str1 = "";
-		if (!arg1.empty()) {
-			str1 = ((XSString) arg1.first()).value();
-		}
+		Iterator argiter = args.iterator();
+		Iterator expiter = expected_args().iterator();
+		CharSequence str1 = string_argument((ResultSequence) argiter.next(), (SeqType) expiter.next());
 
-		ResultSequence arg2 = (ResultSequence) argiter.next();
+		ResultSequence arg2 = convert_argument((ResultSequence) argiter.next(), (SeqType) expiter.next());
 		String pattern = ((XSString) arg2.first()).value();
 		String flags = null;
 
 		if (argiter.hasNext()) {
 			ResultSequence flagRS = null;
-			flagRS = (ResultSequence) argiter.next();
+			flagRS = convert_argument((ResultSequence) argiter.next(), (SeqType) expiter.next());
 			flags = flagRS.first().getStringValue();
 			if (validflags.indexOf(flags) == -1 && flags.length() > 0 ) {
 				throw DynamicError.regex_flags_error(null);
@@ -90,7 +98,7 @@ public class FnMatches extends AbstractRegExFunction {
 
 		try {
 			boolean result = false;
-			result = matches(pattern, flags, str1);
+			result = compiled != null ? matches(compiled, str1) : matches(pattern, flags, str1);
 			return XSBoolean.valueOf(result);
 		} catch (PatternSyntaxException pex) {
 			throw DynamicError.regex_error(pex.getMessage());
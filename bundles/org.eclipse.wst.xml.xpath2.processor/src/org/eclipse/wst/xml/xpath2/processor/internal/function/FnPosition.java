@@ -13,7 +13,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.Collection;
 
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
@@ -68,7 +67,7 @@ public class FnPosition extends Function {
 			throw DynamicError.contextUndefined();
 		}
 		
-		return ResultSequenceFactory.create_new(new XSInteger(BigInteger.valueOf(ec
-				.getContextPosition())));
+		return ResultSequenceFactory.create_new(new XSInteger(ec
+				.getContextPosition()));
 	}
 }
@@ -17,6 +17,8 @@ package org.eclipse.wst.xml.xpath2.processor.internal.function;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
@@ -30,7 +32,7 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.XSString;
  * non-overlapping substring of $input that matches the given $pattern with an
  * occurrence of the $replacement string.
  */
-public class FnReplace extends Function {
+public class FnReplace extends AbstractRegExFunction {
 	private static Collection _expected_args = null;
 
 	/**
@@ -53,6 +55,23 @@ public class FnReplace extends Function {
 		return replace(args);
 	}
 
+	public ResultSequence evaluate(Collection args, org.eclipse.wst.xml.xpath2.api.EvaluationContext ec, Pattern pattern) throws DynamicError {
+		return replace(args, pattern);
+	}
+
+	public Pattern precompile(List<String> args) {
+		// the flags aren't applied (yet), see replace()
+		String pattern = args.get(1);
+		if (pattern == null)
+			return null;
+		try {
+			return compile(pattern, 0);
+		} catch (PatternSyntaxException err) {
+			// reported when the call is evaluated
+			return null;
+		}
+	}
+
 	/**
 	 * Replace operation.
 	 * 
@@ -63,6 +82,10 @@ public class FnReplace extends Function {
 	 * @return Result of fn:replace operation.
 	 */
 	public static ResultSequence replace(Collection args) throws DynamicError {
+		return replace(args, null);
+	}
+
+	private static ResultSequence replace(Collection args, Pattern compiled) throws DynamicError {
 		Collection cargs = Function.convert_arguments(args, expected_args());
 
 		// get args
@@ -89,7 +112,8 @@ public class FnReplace extends Function {
 		String replacement = ((XSString) arg3.first()).value();
 		
 		try {
-			return new XSString(str1.replaceAll(pattern, replacement));
+			Pattern p = compiled != null ? compiled : compile(pattern, 0);
+			return new XSString(p.matcher(str1).replaceAll(replacement));
 		} catch (PatternSyntaxException err) {
 			throw DynamicError.regex_error(null);
 		} catch (IllegalArgumentException ex) {
@@ -18,7 +18,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -84,23 +83,16 @@ public class FnStringLength extends Function {
 	 */
 	public static ResultSequence string_length(Collection args, EvaluationContext ec)
 			throws DynamicError {
-		Collection cargs = Function.convert_arguments(args, expected_args());
-
-		ResultSequence arg1 = null;
-
-		if (cargs.isEmpty()) {
+		if (args.isEmpty()) {
 		  // support for arity = 0
 		  return getResultSetForArityZero(ec);
 		}
-		else {
-		  arg1 = (ResultSequence) cargs.iterator().next();
-		}
 
-		String str = "";
-		if (! arg1.empty()) {
-			str = ((XSString) arg1.first()).value();
-		}
-		return new XSInteger(BigInteger.valueOf(UTF16.countCodePoint(str)));
+		CharSequence str = string_argument((ResultSequence) args.iterator().next(),
+				(SeqType) expected_args().iterator().next());
+		if (str instanceof String)
+			return new XSInteger(UTF16.countCodePoint((String) str));
+		return new XSInteger(Character.codePointCount(str, 0, str.length()));
 	}
 
 	/**
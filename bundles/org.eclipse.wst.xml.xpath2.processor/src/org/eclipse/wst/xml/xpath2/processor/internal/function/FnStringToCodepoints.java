@@ -15,7 +15,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -80,7 +79,7 @@ public class FnStringToCodepoints extends Function {
 		
 		ResultBuffer rs = new ResultBuffer();
 		for (int codePoint = cpi.current(); codePoint != CodePointIterator.DONE; codePoint = cpi.next()) {
-           	rs.add(new XSInteger(BigInteger.valueOf(codePoint)));
+           	rs.add(new XSInteger(codePoint));
 		}
 		return rs.getSequence();
 	}
@@ -114,20 +114,18 @@ public class FnSubsequence extends Function {
 			}
 		}
 	    else {
-	    	// 3rd argument is absent
+	    	// 3rd argument is absent, take everything from start on
 	    	if (start <= 0) {
 	    		start = 1;
-	    		effectiveNoItems = seq.size(); 
-	    	}
-	    	else {
-	    		effectiveNoItems = seq.size() - start + 1; 
 	    	}
+	    	effectiveNoItems = Integer.MAX_VALUE;
 	    }
 		
 		int pos = 1; // index running parallel to the iterator
 		int addedItems = 0;
 		if (effectiveNoItems > 0) {
-			for (Iterator seqIter = seq.iterator(); seqIter.hasNext();) {
+			// stop as soon as we have enough, the rest may never be computed
+			for (Iterator seqIter = seq.iterator(); seqIter.hasNext() && addedItems < effectiveNoItems;) {
 				at = (AnyType) seqIter.next();
 				if (start <= pos && addedItems < effectiveNoItems) {				
 					rs.add(at);
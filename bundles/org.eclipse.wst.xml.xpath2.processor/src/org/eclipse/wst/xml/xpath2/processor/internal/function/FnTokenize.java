@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
@@ -55,6 +56,10 @@ public class FnTokenize extends AbstractRegExFunction {
 		return tokenize(args);
 	}
 
+	public ResultSequence evaluate(Collection args, org.eclipse.wst.xml.xpath2.api.EvaluationContext ec, Pattern pattern) throws DynamicError {
+		return tokenize(args, pattern);
+	}
+
 	/**
 	 * Tokenize operation.
 	 * 
@@ -65,6 +70,10 @@ public class FnTokenize extends AbstractRegExFunction {
 	 * @return Result of fn:tokenize operation.
 	 */
 	public static ResultSequence tokenize(Collection args) throws DynamicError {
+		return tokenize(args, null);
+	}
+
+	private static ResultSequence tokenize(Collection args, Pattern compiled) throws DynamicError {
 		Collection cargs = Function.convert_arguments(args, expected_args());
 
 		ResultBuffer rs = new ResultBuffer();
@@ -91,7 +100,7 @@ public class FnTokenize extends AbstractRegExFunction {
 		}
 
 		try {
-			ArrayList ret = tokenize(pattern, flags, str1);
+			ArrayList ret = tokenize(compiled != null ? compiled.matcher(str1) : regex(pattern, flags, str1), str1);
 
 			for (Iterator retIter = ret.iterator(); retIter.hasNext();) {
 			   rs.add(new XSString((String)retIter.next()));	
@@ -104,8 +113,7 @@ public class FnTokenize extends AbstractRegExFunction {
 		return rs.getSequence();
 	}
 	
-	private static ArrayList tokenize(String pattern, String flags, String src) throws DynamicError {
-		Matcher matcher = regex(pattern, flags, src);
+	private static ArrayList tokenize(Matcher matcher, String src) throws DynamicError {
 		ArrayList tokens = new ArrayList();
 		int startpos = 0;
 		int endpos = src.length();
@@ -16,7 +16,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -81,7 +80,7 @@ public class FnYearsFromDuration extends Function {
 		if (ymd.negative())
 			res *= -1;
 
-		return new XSInteger(BigInteger.valueOf(res));
+		return new XSInteger(res);
 	}
 
 	/**
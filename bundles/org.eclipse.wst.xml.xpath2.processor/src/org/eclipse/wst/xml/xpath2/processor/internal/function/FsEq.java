@@ -18,24 +18,25 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 
+import org.eclipse.wst.xml.xpath2.api.CollationProvider;
 import org.eclipse.wst.xml.xpath2.api.DynamicContext;
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
 import org.eclipse.wst.xml.xpath2.api.Item;
 import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
-import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
+import org.eclipse.wst.xml.xpath2.processor.internal.LazyResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.internal.TypeError;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NumericType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDecimal;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSDouble;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSString;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSUntypedAtomic;
@@ -44,6 +45,28 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.XSUntypedAtomic;
  * Class for the Equality function.
  */
 public class FsEq extends Function {
+	/**
+	 * Operators for do_cmp_value_op and do_cmp_general_op.
+	 */
+	public static final int EQ = 0;
+	public static final int NE = 1;
+	public static final int LT = 2;
+	public static final int GT = 3;
+	public static final int LE = 4;
+	public static final int GE = 5;
+
+	/**
+	 * Both operands of a general equality comparison need at least this many
+	 * values before it is evaluated as a hash join.
+	 */
+	private static final int HASH_JOIN_THRESHOLD = 16;
+
+	private static final int JOIN_NONE = 0;
+	private static final int JOIN_STRING = 1;
+	private static final int JOIN_UNTYPED = 2;
+	private static final int JOIN_DECIMAL = 3;
+	private static final int JOIN_DOUBLE = 4;
+
 	/**
 	 * Constructor for FsEq.
 	 */
@@ -67,40 +90,31 @@ public class FsEq extends Function {
 	}
 
 	/**
-	 * Converts arguments to values.
+	 * Converts an argument of a value comparison to a value.
 	 * 
-	 * @param args
-	 *            Result from expressions evaluation.
+	 * @param rs
+	 *            Result from expression evaluation.
 	 * @throws DynamicError
 	 *             Dynamic error.
-	 * @return Result of conversion.
+	 * @return Result of conversion, or null if the argument is empty.
 	 */
-	private static Collection value_convert_args(Collection args)
+	private static AnyType value_convert_arg(ResultSequence rs)
 			throws DynamicError {
-		Collection result = new ArrayList(args.size());
-
-		// atomize arguments
-		for (Iterator i = args.iterator(); i.hasNext();) {
-			ResultSequence rs = (ResultSequence) i.next();
-
-			//FnData.fast_atomize(rs);
-			rs = FnData.atomize(rs);
-
-			if (rs.empty())
-				return new ArrayList();
+		//FnData.fast_atomize(rs);
+		rs = FnData.atomize(rs);
 
-			if (rs.size() > 1)
-				throw new DynamicError(TypeError.invalid_type(null));
+		if (rs.empty())
+			return null;
 
-			Item arg = rs.first();
+		if (LazyResultSequence.hasItem(rs, 1))
+			throw new DynamicError(TypeError.invalid_type(null));
 
-			if (arg instanceof XSUntypedAtomic)
-				arg = new XSString(arg.getStringValue());
+		AnyType arg = (AnyType) rs.first();
 
-			result.add(arg);
-		}
+		if (arg instanceof XSUntypedAtomic)
+			arg = new XSString(arg.getStringValue());
 
-		return result;
+		return arg;
 	}
 
 	/**
@@ -114,7 +128,7 @@ public class FsEq extends Function {
 	 */
 	public static ResultSequence fs_eq_value(Collection args, DynamicContext context)
 			throws DynamicError {
-		return do_cmp_value_op(args, CmpEq.class, "eq", context);
+		return do_cmp_value_op(args, EQ, context);
 	}
 
 	/**
@@ -149,92 +163,102 @@ public class FsEq extends Function {
 	}
 
 	/**
-	 * Making sure that the types are the same before comparing the inputs.
+	 * Applies a value comparison operator to two atomic values, dispatching on
+	 * the comparison interface the first value implements.
 	 * 
+	 * @param op
+	 *            One of EQ, NE, LT, GT, LE or GE.
 	 * @param a
 	 *            input1 of any type.
 	 * @param b
 	 *            input2 of any type.
 	 * @param dc
-	 *              Dynamic Context
+	 *            Dynamic context
 	 * @throws DynamicError
 	 *             Dynamic error.
-	 * @return Result of Equality operation.
+	 * @return Result of the comparison.
 	 */
-	private static boolean do_general_pair(AnyType a, AnyType b,
-			Method comparator, DynamicContext ec) throws DynamicError {
-
-		// section 3.5.2
-
-		// rule a
-		// if one is untyped and other is numeric, cast untyped to
-		// double
-		if ((a instanceof XSUntypedAtomic && b instanceof NumericType)
-				|| (b instanceof XSUntypedAtomic && a instanceof NumericType)) {
-			if (a instanceof XSUntypedAtomic)
-				a = new XSDouble(a.getStringValue());
-			else
-				b = new XSDouble(b.getStringValue());
-
-		}
-
-		// rule b
-		// if one is untyped and other is string or untyped, then cast
-		// untyped to string
-		else if ((a instanceof XSUntypedAtomic
-				&& (b instanceof XSString || b instanceof XSUntypedAtomic) || (b instanceof XSUntypedAtomic && (a instanceof XSString || a instanceof XSUntypedAtomic)))) {
-
-			if (a instanceof XSUntypedAtomic)
-				a = new XSString(a.getStringValue());
-			if (b instanceof XSUntypedAtomic)
-				b = new XSString(b.getStringValue());
-		}
-
-		// rule c
-		// if one is untyped and other is not string,untyped,numeric
-		// cast untyped to dynamic type of other
-
-		// XXX?
-		// TODO: This makes no sense as implemented before
-		else if (a instanceof XSUntypedAtomic) {
-//			ResultSequence converted = ResultSequenceFactory.create_new(a);
-//			assert converted.size() == 1;
-//			a = converted.first();
-		} else if (b instanceof XSUntypedAtomic) {
-//			ResultSequence converted = ResultSequenceFactory.create_new(b);
-//			assert converted.size() == 1;
-//			b = converted.first();
+	public static boolean compare(int op, AnyType a, AnyType b,
+			DynamicContext dc) throws DynamicError {
+		switch (op) {
+		case EQ:
+			return eq(a, b, dc);
+		case NE:
+			return !eq(a, b, dc);
+		case LT:
+			return lt(a, b, dc);
+		case GT:
+			return gt(a, b, dc);
+		case LE:
+			return lt(a, b, dc) || eq(a, b, dc);
+		case GE:
+			return gt(a, b, dc) || eq(a, b, dc);
+		default:
+			throw new IllegalArgumentException("Unknown comparison operator: " + op);
 		}
+	}
 
-		// rule d
-		// if value comparison is true, return true.
+	private static boolean eq(AnyType a, AnyType b, DynamicContext dc)
+			throws DynamicError {
+		if (!(a instanceof CmpEq))
+			DynamicError.throw_type_error();
+		return ((CmpEq) a).eq(b, dc);
+	}
 
-		ResultSequence one = ResultSequenceFactory.create_new(a);
-		ResultSequence two = ResultSequenceFactory.create_new(b);
+	private static boolean lt(AnyType a, AnyType b, DynamicContext dc)
+			throws DynamicError {
+		if (!(a instanceof CmpLt))
+			DynamicError.throw_type_error();
+		return ((CmpLt) a).lt(b, dc);
+	}
 
-		Collection args = new ArrayList();
-		args.add(one);
-		args.add(two);
+	private static boolean gt(AnyType a, AnyType b, DynamicContext dc)
+			throws DynamicError {
+		if (!(a instanceof CmpGt))
+			DynamicError.throw_type_error();
+		return ((CmpGt) a).gt(b, dc);
+	}
 
-		Object margs[] = { args, ec };
+	/**
+	 * An operand of a general comparison. Untyped values are converted
+	 * according to the type of the value they are compared with (section
+	 * 3.5.2), and each conversion is done at most once however many values
+	 * the operand is compared with.
+	 */
+	private static final class GeneralOperand {
+		private final AnyType _value;
+		private AnyType _as_string;
+		private AnyType _as_double;
 
-		ResultSequence result = null;
-		try {
-			result = (ResultSequence) comparator.invoke(null, margs);
-		} catch (IllegalAccessException err) {
-			assert false;
-		} catch (InvocationTargetException err) {
-			Throwable ex = err.getTargetException();
-
-			if (ex instanceof RuntimeException)
-				throw (RuntimeException) ex;
-			throw new RuntimeException(ex);
+		GeneralOperand(AnyType value) {
+			_value = value;
 		}
 
-		if (((XSBoolean) result.first()).value())
-			return true;
+		AnyType value_for(AnyType other) throws DynamicError {
+			if (!(_value instanceof XSUntypedAtomic))
+				return _value;
+
+			// rule a
+			// if one is untyped and other is numeric, cast untyped to
+			// double
+			if (other instanceof NumericType) {
+				if (_as_double == null)
+					_as_double = new XSDouble(_value.getStringValue());
+				return _as_double;
+			}
 
-		return false;
+			// rule b
+			// if one is untyped and other is string or untyped, then cast
+			// untyped to string
+
+			// rule c
+			// if one is untyped and other is not string,untyped,numeric
+			// cast untyped to dynamic type of other
+			// XXX? the value comparison has always compared these as strings
+			if (_as_string == null)
+				_as_string = new XSString(_value.getStringValue());
+			return _as_string;
+		}
 	}
 
 	/**
@@ -248,37 +272,25 @@ public class FsEq extends Function {
 	 */
 	public static ResultSequence fs_eq_general(Collection args, DynamicContext dc)
 			{
-		return do_cmp_general_op(args, FsEq.class, "fs_eq_value", dc);
+		return do_cmp_general_op(args, EQ, dc);
 	}
 
-	// voodoo 3
 	/**
-	 * Actual equality operation for fs_eq_general.
+	 * Actual operation for the general comparisons: true if any pair of
+	 * atomized values satisfies the value comparison.
 	 * 
 	 * @param args
 	 *            input arguments.
-	 * @param type
-	 *            type of the arguments.
-	 * @param mname
-	 *            Method name for template simulation.
+	 * @param op
+	 *            One of EQ, NE, LT, GT, LE or GE.
+	 * @param dc
+	 *            Dynamic context
 	 * @throws DynamicError
 	 *             Dynamic error.
 	 * @return Result of the operation.
 	 */
-	public static ResultSequence do_cmp_general_op(Collection args, Class type,
-			String mname, DynamicContext dc) throws DynamicError {
-
-		// do the voodoo
-		Method comparator = null;
-
-		try {
-			Class margsdef[] = { Collection.class, DynamicContext.class };
-
-			comparator = type.getMethod(mname, margsdef);
-
-		} catch (NoSuchMethodException err) {
-			throw new RuntimeException("Can't find method : " + mname, err);
-		}
+	public static ResultSequence do_cmp_general_op(Collection args, int op,
+			DynamicContext dc) throws DynamicError {
 
 		// sanity check args and get them
 		if (args.size() != 2)
@@ -286,95 +298,215 @@ public class FsEq extends Function {
 
 		Iterator argiter = args.iterator();
 
-		org.eclipse.wst.xml.xpath2.api.ResultSequence one = (org.eclipse.wst.xml.xpath2.api.ResultSequence) argiter.next();
-		org.eclipse.wst.xml.xpath2.api.ResultSequence two = (org.eclipse.wst.xml.xpath2.api.ResultSequence) argiter.next();
+		ResultSequence one = (ResultSequence) argiter.next();
+		ResultSequence two = (ResultSequence) argiter.next();
 
 		// XXX ?
 		if (one.empty() || two.empty())
-			return ResultSequenceFactory.create_new(new XSBoolean(false));
+			return XSBoolean.FALSE;
 
 		// atomize
 		one = FnData.atomize(one);
 		two = FnData.atomize(two);
 
+		GeneralOperand[] others = new GeneralOperand[two.size()];
+		int n = 0;
+		for (Iterator j = two.iterator(); j.hasNext();)
+			others[n++] = new GeneralOperand((AnyType) j.next());
+
+		if (op == EQ && others.length >= HASH_JOIN_THRESHOLD
+				&& LazyResultSequence.hasItem(one, HASH_JOIN_THRESHOLD - 1)) {
+			XSBoolean joined = hash_join(one, others, dc);
+			if (joined != null)
+				return joined;
+		}
+
 		// we gotta find a pair that satisfied the condition
 		for (Iterator i = one.iterator(); i.hasNext();) {
-			AnyType a = (AnyType) i.next();
-			for (Iterator j = two.iterator(); j.hasNext();) {
-				AnyType b = (AnyType) j.next();
+			GeneralOperand a = new GeneralOperand((AnyType) i.next());
+			for (int j = 0; j < others.length; j++) {
+				GeneralOperand b = others[j];
 
-				if (do_general_pair(a, b, comparator, dc))
-					return ResultSequenceFactory
-							.create_new(new XSBoolean(true));
+				if (compare(op, a.value_for(b._value), b.value_for(a._value), dc))
+					return XSBoolean.TRUE;
 			}
 		}
 
-		return ResultSequenceFactory.create_new(new XSBoolean(false));
+		return XSBoolean.FALSE;
 	}
 
-	// voodoo 2
 	/**
-	 * Actual equality operation for fs_eq_value.
+	 * Evaluates one = two by hashing the values of the larger operand and
+	 * probing the table with the values of the smaller one.
 	 * 
-	 * @param args
-	 *            input arguments.
-	 * @param type
-	 *            type of the arguments.
-	 * @param mname
-	 *            Method name for template simulation.
-	 * @param dynamicContext 
-	 *             Dynamic error.
+	 * This is only done when key equality is the same as eq and no pair of
+	 * values can fail to compare: either all values are strings or untyped
+	 * (under the codepoint collation), or they all have the same numeric type,
+	 * or doubles are compared with untyped values from one side only.
+	 * 
+	 * @param one
+	 *            The atomized first operand.
+	 * @param others
+	 *            The atomized second operand.
+	 * @param dc
+	 *            Dynamic context
 	 * @throws DynamicError
 	 *             Dynamic error.
-	 * @return Result of the operation.
+	 * @return Result of the comparison, or null if the operands don't qualify.
 	 */
-	public static ResultSequence do_cmp_value_op(Collection args, Class type,
-			String mname, DynamicContext context) throws DynamicError {
+	private static XSBoolean hash_join(ResultSequence one,
+			GeneralOperand[] others, DynamicContext dc) throws DynamicError {
+		AnyType[] left = new AnyType[one.size()];
+		int n = 0;
+		for (Iterator i = one.iterator(); i.hasNext();)
+			left[n++] = (AnyType) i.next();
 
-		// sanity check args + convert em
-		if (args.size() != 2)
-			DynamicError.throw_type_error();
+		AnyType[] right = new AnyType[others.length];
+		for (int j = 0; j < others.length; j++)
+			right[j] = others[j]._value;
 
-		Collection cargs = value_convert_args(args);
+		int kind = join_kind(left, right, dc);
+		if (kind == JOIN_NONE)
+			return null;
 
-		if (cargs.size() == 0)
-			return ResultBuffer.EMPTY;
+		try {
+			join_convert(left, kind);
+			join_convert(right, kind);
+		} catch (DynamicError err) {
+			// an untyped value isn't a number; leave it to the pairwise loop
+			// to report this (or not) exactly as it always has
+			return null;
+		}
 
-		// make sure arugments are comparable by equality
-		Iterator argi = cargs.iterator();
-		Item arg = ((ResultSequence) argi.next()).first();
-		ResultSequence arg2 = (ResultSequence) argi.next();
+		boolean build_left = left.length > right.length;
+		AnyType[] build = build_left ? left : right;
+		AnyType[] probe = build_left ? right : left;
+
+		HashMap<Object, ArrayList<AnyType>> table = new HashMap<Object, ArrayList<AnyType>>(build.length * 2);
+		for (int i = 0; i < build.length; i++) {
+			Object key = join_key(build[i], kind);
+			if (key == null)
+				continue;
+			ArrayList<AnyType> bucket = table.get(key);
+			if (bucket == null) {
+				bucket = new ArrayList<AnyType>(1);
+				table.put(key, bucket);
+			}
+			bucket.add(build[i]);
+		}
 
-		if (arg2.size() != 1)
-			DynamicError.throw_type_error();
+		for (int i = 0; i < probe.length; i++) {
+			Object key = join_key(probe[i], kind);
+			ArrayList<AnyType> bucket = key != null ? table.get(key) : null;
+			if (bucket == null)
+				continue;
+			for (int j = 0; j < bucket.size(); j++) {
+				AnyType candidate = bucket.get(j);
+				// the first operand is always the one asked to compare
+				if (build_left ? eq(candidate, probe[i], dc) : eq(probe[i], candidate, dc))
+					return XSBoolean.TRUE;
+			}
+		}
+		return XSBoolean.FALSE;
+	}
 
-		if (!(type.isInstance(arg)))
-			DynamicError.throw_type_error();
+	private static int join_kind(AnyType[] left, AnyType[] right,
+			DynamicContext dc) {
+		int[] l = count_kinds(left);
+		int[] r = count_kinds(right);
+		int total = left.length + right.length;
 
-		try {
-			Class margsdef[] = { AnyType.class, DynamicContext.class };
-			Method method = null;
+		int strings = l[JOIN_STRING] + r[JOIN_STRING] + l[JOIN_UNTYPED] + r[JOIN_UNTYPED];
+		if (strings == total)
+			return CollationProvider.CODEPOINT_COLLATION.equals(dc.getCollationProvider().getDefaultCollation()) ? JOIN_STRING : JOIN_NONE;
 
-			method = type.getMethod(mname, margsdef);
+		if (l[JOIN_DECIMAL] + r[JOIN_DECIMAL] == total)
+			return JOIN_DECIMAL;
 
-			Object margs[] = { arg2.first(), context };
-			Boolean cmpres = (Boolean) method.invoke(arg, margs);
+		// untyped values become doubles only when compared with numbers
+		if (l[JOIN_DOUBLE] + r[JOIN_DOUBLE] == total
+				|| (l[JOIN_DOUBLE] == left.length && r[JOIN_DOUBLE] + r[JOIN_UNTYPED] == right.length)
+				|| (r[JOIN_DOUBLE] == right.length && l[JOIN_DOUBLE] + l[JOIN_UNTYPED] == left.length))
+			return JOIN_DOUBLE;
 
-			return ResultSequenceFactory.create_new(new XSBoolean(cmpres
-					.booleanValue()));
-		} catch (NoSuchMethodException err) {
-			assert false;
-			throw new RuntimeException("cannot compare using method " + mname, err);
-		} catch (IllegalAccessException err) {
-			assert false;
-			throw new RuntimeException("cannot compare using method " + mname, err);
-		} catch (InvocationTargetException err) {
-			Throwable ex = err.getTargetException();
+		return JOIN_NONE;
+	}
 
-			if (ex instanceof DynamicError)
-				throw (DynamicError) ex;
+	private static int[] count_kinds(AnyType[] values) {
+		int[] counts = new int[5];
+		for (int i = 0; i < values.length; i++) {
+			AnyType value = values[i];
+			if (value instanceof XSUntypedAtomic)
+				counts[JOIN_UNTYPED]++;
+			else if (value instanceof XSString)
+				counts[JOIN_STRING]++;
+			else if (value instanceof XSDecimal)
+				counts[JOIN_DECIMAL]++;
+			else if (value instanceof XSDouble)
+				counts[JOIN_DOUBLE]++;
+			else
+				counts[JOIN_NONE]++;
+		}
+		return counts;
+	}
 
-			throw new RuntimeException("cannot compare using method " + mname, ex);
+	private static void join_convert(AnyType[] values, int kind)
+			throws DynamicError {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] instanceof XSUntypedAtomic) {
+				String value = values[i].getStringValue();
+				values[i] = kind == JOIN_DOUBLE ? (AnyType) new XSDouble(value) : new XSString(value);
+			}
+		}
+	}
+
+	// equal values (as far as eq is concerned) have equal keys
+	private static Object join_key(AnyType value, int kind) {
+		double d;
+		switch (kind) {
+		case JOIN_STRING:
+			return value.getStringValue();
+		case JOIN_DECIMAL:
+			d = ((XSDecimal) value).getValue().doubleValue();
+			break;
+		default:
+			d = ((XSDouble) value).double_value();
+			if (Double.isNaN(d))
+				return null; // NaN equals nothing
+			break;
 		}
+		return new Double(d == 0 ? 0.0 : d);
+	}
+
+	/**
+	 * Actual operation for the value comparisons.
+	 * 
+	 * @param args
+	 *            input arguments.
+	 * @param op
+	 *            One of EQ, NE, LT, GT, LE or GE.
+	 * @param context
+	 *            Dynamic context
+	 * @throws DynamicError
+	 *             Dynamic error.
+	 * @return Result of the operation, empty if either argument is empty.
+	 */
+	public static ResultSequence do_cmp_value_op(Collection args, int op,
+			DynamicContext context) throws DynamicError {
+
+		// sanity check args + convert em
+		if (args.size() != 2)
+			DynamicError.throw_type_error();
+
+		Iterator argi = args.iterator();
+		AnyType arg = value_convert_arg((ResultSequence) argi.next());
+		if (arg == null)
+			return ResultBuffer.EMPTY;
+
+		AnyType arg2 = value_convert_arg((ResultSequence) argi.next());
+		if (arg2 == null)
+			return ResultBuffer.EMPTY;
+
+		return XSBoolean.valueOf(compare(op, arg, arg2, context));
 	}
 }
@@ -20,9 +20,7 @@ import org.eclipse.wst.xml.xpath2.api.DynamicContext;
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
-import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
-import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
 
 /**
  * Class for the Greater than or equal to function.
@@ -62,17 +60,7 @@ public class FsGe extends Function {
 	 */
 	public static ResultSequence fs_ge_value(Collection args, DynamicContext dc)
 			throws DynamicError {
-		ResultSequence greater = FsGt.fs_gt_value(args, dc);
-
-		if (((XSBoolean) greater.first()).value())
-			return greater;
-
-		ResultSequence equal = FsEq.fs_eq_value(args, dc);
-
-		if (((XSBoolean) equal.first()).value())
-			return equal;
-
-		return ResultSequenceFactory.create_new(new XSBoolean(false));
+		return FsEq.do_cmp_value_op(args, FsEq.GE, dc);
 	}
 
 	/**
@@ -88,6 +76,6 @@ public class FsGe extends Function {
 	 */
 	public static ResultSequence fs_ge_general(Collection args, DynamicContext dc)
 			throws DynamicError {
-		return FsEq.do_cmp_general_op(args, FsGe.class, "fs_ge_value", dc);
+		return FsEq.do_cmp_general_op(args, FsEq.GE, dc);
 	}
 }
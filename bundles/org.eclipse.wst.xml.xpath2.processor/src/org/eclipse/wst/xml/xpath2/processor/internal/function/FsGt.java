@@ -61,7 +61,7 @@ public class FsGt extends Function {
 	 */
 	public static ResultSequence fs_gt_value(Collection args, DynamicContext dynamic)
 			throws DynamicError {
-		return FsEq.do_cmp_value_op(args, CmpGt.class, "gt", dynamic);
+		return FsEq.do_cmp_value_op(args, FsEq.GT, dynamic);
 	}
 
 	/**
@@ -77,7 +77,7 @@ public class FsGt extends Function {
 	 */
 	public static ResultSequence fs_gt_general(Collection args, DynamicContext dc)
 			throws DynamicError {
-		return FsEq.do_cmp_general_op(args, FsGt.class, "fs_gt_value", dc);
+		return FsEq.do_cmp_general_op(args, FsEq.GT, dc);
 	}
 
 }
@@ -20,9 +20,7 @@ import org.eclipse.wst.xml.xpath2.api.DynamicContext;
 import org.eclipse.wst.xml.xpath2.api.EvaluationContext;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
-import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
-import org.eclipse.wst.xml.xpath2.processor.internal.types.XSBoolean;
 
 /**
  * Class for Less than or equal to function.
@@ -63,17 +61,7 @@ public class FsLe extends Function {
 	 */
 	public static ResultSequence fs_le_value(Collection args, DynamicContext dc)
 			throws DynamicError {
-		ResultSequence less = FsLt.fs_lt_value(args, dc);
-
-		if (((XSBoolean) less.first()).value())
-			return less;
-
-		ResultSequence equal = FsEq.fs_eq_value(args, dc);
-
-		if (((XSBoolean) equal.first()).value())
-			return equal;
-
-		return ResultSequenceFactory.create_new(new XSBoolean(false));
+		return FsEq.do_cmp_value_op(args, FsEq.LE, dc);
 	}
 
 	/**
@@ -88,6 +76,6 @@ public class FsLe extends Function {
 	 * @return Result of the operation.
 	 */
 	public static ResultSequence fs_le_general(Collection args, DynamicContext dc) {
-		return FsEq.do_cmp_general_op(args, FsLe.class, "fs_le_value", dc);
+		return FsEq.do_cmp_general_op(args, FsEq.LE, dc);
 	}
 }
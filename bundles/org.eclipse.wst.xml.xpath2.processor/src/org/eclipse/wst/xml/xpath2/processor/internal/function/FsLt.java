@@ -58,7 +58,7 @@ public class FsLt extends Function {
 	 * @return Result of the operation.
 	 */
 	public static ResultSequence fs_lt_value(Collection args, DynamicContext dc) {
-		return FsEq.do_cmp_value_op(args, CmpLt.class, "lt", dc);
+		return FsEq.do_cmp_value_op(args, FsEq.LT, dc);
 	}
 
 	/**
@@ -74,6 +74,6 @@ public class FsLt extends Function {
 	 */
 	public static ResultSequence fs_lt_general(Collection args, DynamicContext dc)
 			throws DynamicError {
-		return FsEq.do_cmp_general_op(args, FsLt.class, "fs_lt_value", dc);
+		return FsEq.do_cmp_general_op(args, FsEq.LT, dc);
 	}
 }
@@ -60,7 +60,7 @@ public class FsNe extends Function {
 	 */
 	public static ResultSequence fs_ne_value(Collection args, DynamicContext context)
 			throws DynamicError {
-		return FnNot.fn_not(FsEq.fs_eq_value(args, context));
+		return FsEq.do_cmp_value_op(args, FsEq.NE, context);
 	}
 
 	/**
@@ -76,7 +76,7 @@ public class FsNe extends Function {
 	 */
 	public static ResultSequence fs_ne_general(Collection args, DynamicContext ec)
 			throws DynamicError {
-		return FsEq.do_cmp_general_op(args, FsNe.class, "fs_ne_value", ec);
+		return FsEq.do_cmp_general_op(args, FsEq.NE, ec);
 	}
 
 }
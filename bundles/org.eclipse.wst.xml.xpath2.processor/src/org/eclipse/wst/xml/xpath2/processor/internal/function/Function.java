@@ -35,6 +35,7 @@ import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
 import org.eclipse.wst.xml.xpath2.processor.internal.SeqType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyAtomicType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType;
+import org.eclipse.wst.xml.xpath2.processor.internal.types.NodeType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.NumericType;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.QName;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.XSAnyURI;
@@ -301,6 +302,31 @@ public abstract class Function implements org.eclipse.wst.xml.xpath2.api.Functio
 		return result;
 	}
 
+	/**
+	 * Converts an xs:string? argument to its value. A single untyped element
+	 * or document node isn't atomized: its string value is returned as a
+	 * view of the text in the tree, so it isn't copied.
+	 * 
+	 * @param arg
+	 *            input argument.
+	 * @param expected
+	 *            Expected Sequence type.
+	 * @throws DynamicError
+	 *             Dynamic error.
+	 * @return The value, "" for the empty sequence.
+	 */
+	protected static CharSequence string_argument(org.eclipse.wst.xml.xpath2.api.ResultSequence arg,
+			SeqType expected) throws DynamicError {
+		if (arg.size() == 1 && arg.first() instanceof NodeType) {
+			CharSequence view = ((NodeType) arg.first()).untyped_string_view();
+			if (view != null)
+				return view;
+		}
+
+		org.eclipse.wst.xml.xpath2.api.ResultSequence converted = convert_argument(arg, expected);
+		return converted.empty() ? "" : ((XSString) converted.first()).value();
+	}
+
 	protected static ResultSequence getResultSetForArityZero(EvaluationContext ec)
 			throws DynamicError {
 		ResultSequence rs = ResultSequenceFactory.create_new();
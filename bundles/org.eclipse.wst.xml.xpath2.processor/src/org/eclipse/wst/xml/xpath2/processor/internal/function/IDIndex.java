@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.function;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.TreeSet;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.DocumentCache;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.TypeInfo;
+
+/**
+ * The IDs and IDREFs of a document, for fn:id and fn:idref.
+ *
+ * Whether a node is an ID or IDREF is taken from its schema type info, which
+ * also reflects DTD attribute declarations. The index is built in one walk
+ * over the document, kept with it and dropped when the document is modified.
+ * A document that cannot report changes is instead scanned on each call, for
+ * the requested values only.
+ */
+final class IDIndex {
+
+	private static final String KEY = IDIndex.class.getName();
+
+	private static final DocumentCache.Builder BUILDER = new DocumentCache.Builder() {
+		public Object build(Document doc) {
+			return new IDIndex(doc, null, null);
+		}
+	};
+
+	// the indexed nodes in document order; the maps hold positions in it
+	private final ArrayList<Node> _nodes = new ArrayList<Node>();
+	private final HashMap<String, Integer> _ids = new HashMap<String, Integer>();
+	private final HashMap<String, ArrayList<Integer>> _idrefs = new HashMap<String, ArrayList<Integer>>();
+
+	// when not null, only these IDs and references to them are indexed
+	private final Set<String> _wanted_ids;
+	private final Set<String> _wanted_idrefs;
+
+	// position of the element being indexed, once it has an ID
+	private Integer _element;
+
+	private IDIndex(Document doc, Set<String> wantedIds, Set<String> wantedIdrefs) {
+		_wanted_ids = wantedIds;
+		_wanted_idrefs = wantedIdrefs;
+
+		Node node = doc.getFirstChild();
+		while (node != null && !complete()) {
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				Element element = (Element) node;
+				_element = null;
+				add(element, element.getSchemaTypeInfo(), element);
+				NamedNodeMap attributes = element.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++) {
+					Attr attr = (Attr) attributes.item(i);
+					add(attr, attr.getSchemaTypeInfo(), element);
+				}
+			}
+			node = next(node);
+		}
+	}
+
+	// whether all the wanted IDs have been found and no references are wanted
+	private boolean complete() {
+		return _wanted_ids != null && _ids.size() == _wanted_ids.size()
+				&& _wanted_idrefs != null && _wanted_idrefs.isEmpty();
+	}
+
+	private static Node next(Node node) {
+		Node next = node.getNodeType() == Node.ELEMENT_NODE ? node.getFirstChild() : null;
+		while (next == null && node != null) {
+			next = node.getNextSibling();
+			node = node.getParentNode();
+		}
+		return next;
+	}
+
+	private void add(Node node, TypeInfo type, Element element) {
+		String name = type == null ? null : type.getTypeName();
+		if (name == null)
+			return;
+
+		if (name.equalsIgnoreCase("ID")) {
+			String id = node.getTextContent().trim();
+			if (_wanted_ids != null && !_wanted_ids.contains(id))
+				return;
+			if (!_ids.containsKey(id)) {
+				// the first element with a given ID wins
+				if (_element == null) {
+					_element = new Integer(_nodes.size());
+					_nodes.add(element);
+				}
+				_ids.put(id, _element);
+			}
+		} else if (name.equalsIgnoreCase("IDREF") || name.equalsIgnoreCase("IDREFS")) {
+			Integer position = null;
+			for (StringTokenizer st = new StringTokenizer(node.getTextContent()); st.hasMoreTokens();) {
+				String idref = st.nextToken();
+				if (_wanted_idrefs != null && !_wanted_idrefs.contains(idref))
+					continue;
+				if (position == null) {
+					position = new Integer(_nodes.size());
+					_nodes.add(node);
+				}
+				ArrayList<Integer> refs = _idrefs.get(idref);
+				if (refs == null) {
+					refs = new ArrayList<Integer>(1);
+					_idrefs.put(idref, refs);
+				}
+				refs.add(position);
+			}
+		}
+	}
+
+	/**
+	 * @param doc
+	 *            The document.
+	 * @param idrefs
+	 *            IDREF values, each of which may hold several IDREFs
+	 *            separated by whitespace.
+	 * @return The elements of the document with one of the IDs, in document
+	 *         order.
+	 */
+	static Collection<Node> elements(Document doc, Collection<String> idrefs) {
+		IDIndex index = (IDIndex) DocumentCache.get(doc, KEY, BUILDER);
+		if (index == null) {
+			HashSet<String> wanted = new HashSet<String>();
+			for (Iterator<String> i = idrefs.iterator(); i.hasNext();) {
+				for (StringTokenizer st = new StringTokenizer(i.next()); st.hasMoreTokens();)
+					wanted.add(st.nextToken());
+			}
+			index = new IDIndex(doc, wanted, Collections.<String>emptySet());
+		}
+		return index.elements(idrefs);
+	}
+
+	/**
+	 * @param doc
+	 *            The document.
+	 * @param ids
+	 *            ID values.
+	 * @return The attributes and elements of the document referring to one of
+	 *         the IDs, in document order.
+	 */
+	static Collection<Node> references(Document doc, Collection<String> ids) {
+		IDIndex index = (IDIndex) DocumentCache.get(doc, KEY, BUILDER);
+		if (index == null) {
+			HashSet<String> wanted = new HashSet<String>();
+			for (Iterator<String> i = ids.iterator(); i.hasNext();)
+				wanted.add(i.next().trim());
+			index = new IDIndex(doc, Collections.<String>emptySet(), wanted);
+		}
+		return index.references(ids);
+	}
+
+	/**
+	 * @param idrefs
+	 *            IDREF values, each of which may hold several IDREFs
+	 *            separated by whitespace.
+	 * @return The elements with one of the IDs, in document order.
+	 */
+	private Collection<Node> elements(Collection<String> idrefs) {
+		TreeSet<Integer> found = new TreeSet<Integer>();
+		for (Iterator<String> i = idrefs.iterator(); i.hasNext();) {
+			for (StringTokenizer st = new StringTokenizer(i.next()); st.hasMoreTokens();) {
+				Integer position = _ids.get(st.nextToken());
+				if (position != null)
+					found.add(position);
+			}
+		}
+		return nodes(found);
+	}
+
+	/**
+	 * @param ids
+	 *            ID values.
+	 * @return The attributes and elements referring to one of the IDs, in
+	 *         document order.
+	 */
+	private Collection<Node> references(Collection<String> ids) {
+		TreeSet<Integer> found = new TreeSet<Integer>();
+		for (Iterator<String> i = ids.iterator(); i.hasNext();) {
+			ArrayList<Integer> refs = _idrefs.get(i.next().trim());
+			if (refs != null)
+				found.addAll(refs);
+		}
+		return nodes(found);
+	}
+
+	private Collection<Node> nodes(TreeSet<Integer> positions) {
+		ArrayList<Node> nodes = new ArrayList<Node>(positions.size());
+		for (Iterator<Integer> i = positions.iterator(); i.hasNext();)
+			nodes.add(_nodes.get(i.next().intValue()));
+		return nodes;
+	}
+}
@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 
-import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
 import org.eclipse.wst.xml.xpath2.processor.internal.SeqType;
@@ -62,8 +61,6 @@ public class OpExcept extends Function {
 	 * @return Result of operation.
 	 */
 	public static ResultSequence op_except(Collection args) throws DynamicError {
-		ResultBuffer rs = new ResultBuffer();
-
 		// convert arguments
 		Collection cargs = Function.convert_arguments(args, expected_args());
 
@@ -72,27 +69,7 @@ public class OpExcept extends Function {
 		ResultSequence one = (ResultSequence) iter.next();
 		ResultSequence two = (ResultSequence) iter.next();
 
-		// XXX lame
-		for (Iterator i = one.iterator(); i.hasNext();) {
-			NodeType node = (NodeType) i.next();
-			boolean found = false;
-
-			// death
-			for (Iterator j = two.iterator(); j.hasNext();) {
-				NodeType node2 = (NodeType) j.next();
-
-				if (node.node_value() == node2.node_value()) {
-					found = true;
-					break;
-				}
-
-			}
-			if (!found)
-				rs.add(node);
-		}
-		rs = NodeType.linarize(rs);
-
-		return rs.getSequence();
+		return NodeType.except(one, two).getSequence();
 	}
 
 	/**
@@ -13,7 +13,6 @@
 
 package org.eclipse.wst.xml.xpath2.processor.internal.function;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -85,7 +84,7 @@ public class OpTo extends Function {
 
 		// inclusive first and last
 		if (one == two) {
-			return new XSInteger(BigInteger.valueOf(one));
+			return new XSInteger(one);
 		}
 		/*
 		 * for(one++; one <= two; one++) { rs.add(new XSInteger(one)); }
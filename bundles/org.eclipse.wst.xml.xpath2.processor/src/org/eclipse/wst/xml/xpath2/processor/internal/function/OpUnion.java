@@ -17,7 +17,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 
-import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.processor.DynamicError;
 import org.eclipse.wst.xml.xpath2.processor.internal.SeqType;
@@ -62,8 +61,6 @@ public class OpUnion extends Function {
 	 * @return Result of operation.
 	 */
 	public static ResultSequence op_union(Collection args) throws DynamicError {
-		ResultBuffer rs = new ResultBuffer();
-
 		// convert arguments
 		Collection cargs = Function.convert_arguments(args, expected_args());
 
@@ -72,12 +69,7 @@ public class OpUnion extends Function {
 		ResultSequence one = (ResultSequence) iter.next();
 		ResultSequence two = (ResultSequence) iter.next();
 
-		// XXX i don't fink u've ever seen anything lamer than this
-		rs.concat(one);
-		rs.concat(two);
-		rs = NodeType.linarize(rs);
-
-		return rs.getSequence();
+		return NodeType.union(one, two).getSequence();
 	}
 
 	/**
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.TypeInfo;
+
+/**
+ * An attribute of a TinyTree. Its number indexes the attribute arrays rather
+ * than the node arrays.
+ */
+final class TinyAttr extends TinyNode implements Attr {
+
+	private final String _value;
+
+	TinyAttr(TinyTree tree, int a) {
+		super(tree, a);
+		_value = tree.attr_value(a);
+	}
+
+	private int owner() {
+		return _tree._attr_parent[_n];
+	}
+
+	long order_key() {
+		int owner = owner();
+		return ((long) owner << 32) + 1 + (_n - _tree._alpha[owner]);
+	}
+
+	public String string_value() {
+		return getValue();
+	}
+
+	int scope() {
+		return owner();
+	}
+
+	public String getNodeName() {
+		return _tree._qnames[_tree._attr_name[_n]];
+	}
+
+	public String getNodeValue() {
+		return getValue();
+	}
+
+	public short getNodeType() {
+		return ATTRIBUTE_NODE;
+	}
+
+	public Node getParentNode() {
+		return null;
+	}
+
+	public NodeList getChildNodes() {
+		return new TinyNodeList(_tree, TinyTree.NONE);
+	}
+
+	public Node getFirstChild() {
+		return null;
+	}
+
+	public Node getLastChild() {
+		return null;
+	}
+
+	public Node getPreviousSibling() {
+		return null;
+	}
+
+	public Node getNextSibling() {
+		return null;
+	}
+
+	public boolean hasChildNodes() {
+		return false;
+	}
+
+	public String getNamespaceURI() {
+		return TinyTree.null_if_empty(_tree._uris[_tree._attr_name[_n]]);
+	}
+
+	public String getPrefix() {
+		return TinyTree.null_if_empty(_tree._prefixes[_tree._attr_name[_n]]);
+	}
+
+	public String getLocalName() {
+		return _tree._locals[_tree._attr_name[_n]];
+	}
+
+	public String getBaseURI() {
+		return getOwnerElement().getBaseURI();
+	}
+
+	public String getName() {
+		return getNodeName();
+	}
+
+	public boolean getSpecified() {
+		return true;
+	}
+
+	public String getValue() {
+		return _value;
+	}
+
+	public void setValue(String value) throws DOMException {
+		throw read_only();
+	}
+
+	public Element getOwnerElement() {
+		return (Element) _tree.node(owner());
+	}
+
+	public TypeInfo getSchemaTypeInfo() {
+		String type = _tree._attr_type[_n];
+		return type == null ? TinyTypeInfo.NONE : new TinyTypeInfo(type);
+	}
+
+	public boolean isId() {
+		return "ID".equals(_tree._attr_type[_n]);
+	}
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.DOMException;
+
+/**
+ * Text and comment nodes of a TinyTree, whose data lives in the shared
+ * character buffer.
+ */
+abstract class TinyCharacterData extends TinyNode implements CharacterData {
+
+	TinyCharacterData(TinyTree tree, int n) {
+		super(tree, n);
+	}
+
+	public String getNodeValue() {
+		return getData();
+	}
+
+	public String getData() {
+		return _tree.data(_n);
+	}
+
+	public int getLength() {
+		return _tree._beta[_n];
+	}
+
+	public String substringData(int offset, int count) throws DOMException {
+		int length = getLength();
+		if (offset < 0 || offset > length || count < 0)
+			throw new DOMException(DOMException.INDEX_SIZE_ERR, "Offset or count out of range");
+		return new String(_tree._chars, _tree._alpha[_n] + offset, Math.min(count, length - offset));
+	}
+
+	public void setData(String data) throws DOMException {
+		throw read_only();
+	}
+
+	public void appendData(String arg) throws DOMException {
+		throw read_only();
+	}
+
+	public void insertData(int offset, String arg) throws DOMException {
+		throw read_only();
+	}
+
+	public void deleteData(int offset, int count) throws DOMException {
+		throw read_only();
+	}
+
+	public void replaceData(int offset, int count, String arg) throws DOMException {
+		throw read_only();
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.Comment;
+
+/**
+ * A comment of a TinyTree.
+ */
+final class TinyComment extends TinyCharacterData implements Comment {
+
+	TinyComment(TinyTree tree, int n) {
+		super(tree, n);
+	}
+
+	public String getNodeName() {
+		return "#comment";
+	}
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import java.util.ArrayList;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.CDATASection;
+import org.w3c.dom.Comment;
+import org.w3c.dom.DOMConfiguration;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.DOMImplementation;
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentFragment;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.EntityReference;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.w3c.dom.Text;
+
+/**
+ * The document node of a TinyTree.
+ *
+ * Only the document URI may be changed after loading, so that documents read
+ * from a stream can still be told apart.
+ */
+public final class TinyDocument extends TinyNode implements Document {
+
+	private static final DOMImplementation IMPLEMENTATION = new DOMImplementation() {
+		public boolean hasFeature(String feature, String version) {
+			return has_feature(feature, version);
+		}
+
+		public DocumentType createDocumentType(String qualifiedName, String publicId, String systemId) {
+			throw not_supported();
+		}
+
+		public Document createDocument(String namespaceURI, String qualifiedName, DocumentType doctype) {
+			throw not_supported();
+		}
+
+		public Object getFeature(String feature, String version) {
+			return null;
+		}
+	};
+
+	TinyDocument(TinyTree tree) {
+		super(tree, 0);
+	}
+
+	static boolean has_feature(String feature, String version) {
+		return ("Core".equalsIgnoreCase(feature) || "XML".equalsIgnoreCase(feature))
+				&& (version == null || version.length() == 0 || "1.0".equals(version) || "2.0".equals(version) || "3.0".equals(version));
+	}
+
+	static DOMException not_supported() {
+		return new DOMException(DOMException.NOT_SUPPORTED_ERR, "Read-only trees can't create nodes");
+	}
+
+	/**
+	 * Lists the elements below a node in document order, matching either the
+	 * qualified name (when namespaceURI is null) or the expanded name. "*"
+	 * matches any name or namespace.
+	 */
+	static NodeList elements(final TinyTree tree, int root, String namespaceURI, String name) {
+		final ArrayList<Node> found = new ArrayList<Node>();
+		boolean any_uri = "*".equals(namespaceURI);
+		boolean any_name = "*".equals(name);
+		for (int i = root + 1, end = tree.subtree_end(root); i < end; i++) {
+			if (tree._kind[i] != ELEMENT_NODE)
+				continue;
+			int code = tree._name[i];
+			boolean match;
+			if (namespaceURI == null)
+				match = any_name || tree._qnames[code].equals(name);
+			else
+				match = (any_uri || tree._uris[code].equals(namespaceURI)) && (any_name || tree._locals[code].equals(name));
+			if (match)
+				found.add(tree.node(i));
+		}
+		return new NodeList() {
+			public Node item(int index) {
+				return index >= 0 && index < found.size() ? found.get(index) : null;
+			}
+
+			public int getLength() {
+				return found.size();
+			}
+		};
+	}
+
+	int scope() {
+		return document_element();
+	}
+
+	private int document_element() {
+		for (int child = _tree.first_child(0); child != TinyTree.NONE; child = _tree._next[child])
+			if (_tree._kind[child] == ELEMENT_NODE)
+				return child;
+		return TinyTree.NONE;
+	}
+
+	public String getNodeName() {
+		return "#document";
+	}
+
+	public Document getOwnerDocument() {
+		return null;
+	}
+
+	public String getBaseURI() {
+		return _tree._document_uri;
+	}
+
+	public DocumentType getDoctype() {
+		return null;
+	}
+
+	public DOMImplementation getImplementation() {
+		return IMPLEMENTATION;
+	}
+
+	public Element getDocumentElement() {
+		return (Element) _tree.node(document_element());
+	}
+
+	public NodeList getElementsByTagName(String tagname) {
+		return elements(_tree, 0, null, tagname);
+	}
+
+	public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+		return elements(_tree, 0, namespaceURI == null ? "" : namespaceURI, localName);
+	}
+
+	public Element getElementById(String elementId) {
+		for (int a = 0; a < _tree._attr_count; a++)
+			if ("ID".equals(_tree._attr_type[a]) && _tree.attr_value_equals(a, elementId))
+				return (Element) _tree.node(_tree._attr_parent[a]);
+		return null;
+	}
+
+	public String getInputEncoding() {
+		return _tree._input_encoding;
+	}
+
+	public String getXmlEncoding() {
+		return _tree._xml_encoding;
+	}
+
+	public boolean getXmlStandalone() {
+		return false;
+	}
+
+	public void setXmlStandalone(boolean xmlStandalone) throws DOMException {
+		throw read_only();
+	}
+
+	public String getXmlVersion() {
+		return _tree._xml_version;
+	}
+
+	public void setXmlVersion(String xmlVersion) throws DOMException {
+		throw read_only();
+	}
+
+	public boolean getStrictErrorChecking() {
+		return true;
+	}
+
+	public void setStrictErrorChecking(boolean strictErrorChecking) {
+		// there is nothing to check on a read-only tree
+	}
+
+	public String getDocumentURI() {
+		return _tree._document_uri;
+	}
+
+	public void setDocumentURI(String documentURI) {
+		_tree._document_uri = documentURI;
+	}
+
+	public DOMConfiguration getDomConfig() {
+		return null;
+	}
+
+	public void normalizeDocument() {
+		// adjacent text is merged while the tree is built
+	}
+
+	public Element createElement(String tagName) throws DOMException {
+		throw not_supported();
+	}
+
+	public DocumentFragment createDocumentFragment() {
+		throw not_supported();
+	}
+
+	public Text createTextNode(String data) {
+		throw not_supported();
+	}
+
+	public Comment createComment(String data) {
+		throw not_supported();
+	}
+
+	public CDATASection createCDATASection(String data) throws DOMException {
+		throw not_supported();
+	}
+
+	public ProcessingInstruction createProcessingInstruction(String target, String data) throws DOMException {
+		throw not_supported();
+	}
+
+	public Attr createAttribute(String name) throws DOMException {
+		throw not_supported();
+	}
+
+	public EntityReference createEntityReference(String name) throws DOMException {
+		throw not_supported();
+	}
+
+	public Node importNode(Node importedNode, boolean deep) throws DOMException {
+		throw not_supported();
+	}
+
+	public Element createElementNS(String namespaceURI, String qualifiedName) throws DOMException {
+		throw not_supported();
+	}
+
+	public Attr createAttributeNS(String namespaceURI, String qualifiedName) throws DOMException {
+		throw not_supported();
+	}
+
+	public Node adoptNode(Node source) throws DOMException {
+		throw read_only();
+	}
+
+	public Node renameNode(Node n, String namespaceURI, String qualifiedName) throws DOMException {
+		throw read_only();
+	}
+}
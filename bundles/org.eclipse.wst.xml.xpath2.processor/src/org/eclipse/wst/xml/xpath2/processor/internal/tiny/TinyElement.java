@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import javax.xml.XMLConstants;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.TypeInfo;
+
+/**
+ * An element of a TinyTree.
+ */
+final class TinyElement extends TinyNode implements Element {
+
+	TinyElement(TinyTree tree, int n) {
+		super(tree, n);
+	}
+
+	public String getNamespaceURI() {
+		return TinyTree.null_if_empty(_tree._uris[_tree._name[_n]]);
+	}
+
+	public String getPrefix() {
+		return TinyTree.null_if_empty(_tree._prefixes[_tree._name[_n]]);
+	}
+
+	public String getLocalName() {
+		return _tree._locals[_tree._name[_n]];
+	}
+
+	public String getTextContent() {
+		return string_value();
+	}
+
+	public String getBaseURI() {
+		String parent = super.getBaseURI();
+		int a = find(XMLConstants.XML_NS_URI, "base");
+		if (a == TinyTree.NONE)
+			return parent;
+
+		String base = _tree.attr_value(a);
+		try {
+			URI uri = new URI(base);
+			if (parent != null && !uri.isAbsolute())
+				uri = new URI(parent).resolve(uri);
+			return uri.toString();
+		} catch (URISyntaxException e) {
+			return base;
+		}
+	}
+
+	public boolean hasAttributes() {
+		return _tree._beta[_n] > 0;
+	}
+
+	public NamedNodeMap getAttributes() {
+		return new TinyNamedNodeMap(_tree, _tree._alpha[_n], _tree._beta[_n]);
+	}
+
+	private int find(String namespaceURI, String localName) {
+		if (namespaceURI == null)
+			namespaceURI = "";
+		for (int a = _tree._alpha[_n], end = a + _tree._beta[_n]; a < end; a++) {
+			int name = _tree._attr_name[a];
+			if (_tree._locals[name].equals(localName) && _tree._uris[name].equals(namespaceURI))
+				return a;
+		}
+		return TinyTree.NONE;
+	}
+
+	private int find(String name) {
+		for (int a = _tree._alpha[_n], end = a + _tree._beta[_n]; a < end; a++)
+			if (_tree._qnames[_tree._attr_name[a]].equals(name))
+				return a;
+		return TinyTree.NONE;
+	}
+
+	public String getTagName() {
+		return getNodeName();
+	}
+
+	public String getAttribute(String name) {
+		int a = find(name);
+		return a == TinyTree.NONE ? "" : _tree.attr_value(a);
+	}
+
+	public Attr getAttributeNode(String name) {
+		return _tree.attr(find(name));
+	}
+
+	public boolean hasAttribute(String name) {
+		return find(name) != TinyTree.NONE;
+	}
+
+	public String getAttributeNS(String namespaceURI, String localName) {
+		int a = find(namespaceURI, localName);
+		return a == TinyTree.NONE ? "" : _tree.attr_value(a);
+	}
+
+	public Attr getAttributeNodeNS(String namespaceURI, String localName) {
+		return _tree.attr(find(namespaceURI, localName));
+	}
+
+	public boolean hasAttributeNS(String namespaceURI, String localName) {
+		return find(namespaceURI, localName) != TinyTree.NONE;
+	}
+
+	public NodeList getElementsByTagName(String name) {
+		return TinyDocument.elements(_tree, _n, null, name);
+	}
+
+	public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+		return TinyDocument.elements(_tree, _n, namespaceURI == null ? "" : namespaceURI, localName);
+	}
+
+	public TypeInfo getSchemaTypeInfo() {
+		return TinyTypeInfo.NONE;
+	}
+
+	public void setAttribute(String name, String value) throws DOMException {
+		throw read_only();
+	}
+
+	public void removeAttribute(String name) throws DOMException {
+		throw read_only();
+	}
+
+	public Attr setAttributeNode(Attr newAttr) throws DOMException {
+		throw read_only();
+	}
+
+	public Attr removeAttributeNode(Attr oldAttr) throws DOMException {
+		throw read_only();
+	}
+
+	public void setAttributeNS(String namespaceURI, String qualifiedName, String value) throws DOMException {
+		throw read_only();
+	}
+
+	public void removeAttributeNS(String namespaceURI, String localName) throws DOMException {
+		throw read_only();
+	}
+
+	public Attr setAttributeNodeNS(Attr newAttr) throws DOMException {
+		throw read_only();
+	}
+
+	public void setIdAttribute(String name, boolean isId) throws DOMException {
+		throw read_only();
+	}
+
+	public void setIdAttributeNS(String namespaceURI, String localName, boolean isId) throws DOMException {
+		throw read_only();
+	}
+
+	public void setIdAttributeNode(Attr idAttr, boolean isId) throws DOMException {
+		throw read_only();
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * The attributes of an element, in document order.
+ */
+final class TinyNamedNodeMap implements NamedNodeMap {
+
+	private final TinyTree _tree;
+	private final int _first;
+	private final int _length;
+
+	TinyNamedNodeMap(TinyTree tree, int first, int length) {
+		_tree = tree;
+		_first = first;
+		_length = length;
+	}
+
+	public Node getNamedItem(String name) {
+		for (int a = _first; a < _first + _length; a++)
+			if (_tree._qnames[_tree._attr_name[a]].equals(name))
+				return _tree.attr(a);
+		return null;
+	}
+
+	public Node getNamedItemNS(String namespaceURI, String localName) {
+		if (namespaceURI == null)
+			namespaceURI = "";
+		for (int a = _first; a < _first + _length; a++) {
+			int name = _tree._attr_name[a];
+			if (_tree._locals[name].equals(localName) && _tree._uris[name].equals(namespaceURI))
+				return _tree.attr(a);
+		}
+		return null;
+	}
+
+	public Node item(int index) {
+		return index >= 0 && index < _length ? _tree.attr(_first + index) : null;
+	}
+
+	public int getLength() {
+		return _length;
+	}
+
+	public Node setNamedItem(Node arg) throws DOMException {
+		throw TinyNode.read_only();
+	}
+
+	public Node removeNamedItem(String name) throws DOMException {
+		throw TinyNode.read_only();
+	}
+
+	public Node setNamedItemNS(Node arg) throws DOMException {
+		throw TinyNode.read_only();
+	}
+
+	public Node removeNamedItemNS(String namespaceURI, String localName) throws DOMException {
+		throw TinyNode.read_only();
+	}
+}
@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import javax.xml.XMLConstants;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.UserDataHandler;
+
+/**
+ * A node of a TinyTree, seen through the DOM interfaces. The node itself only
+ * holds its number; everything else is looked up in the tree.
+ *
+ * Any attempt to modify the tree fails with NO_MODIFICATION_ALLOWED_ERR.
+ */
+public abstract class TinyNode implements Node {
+
+	final TinyTree _tree;
+	final int _n;
+
+	TinyNode(TinyTree tree, int n) {
+		_tree = tree;
+		_n = n;
+	}
+
+	/**
+	 * @return The tree holding this node.
+	 */
+	public TinyTree tree() {
+		return _tree;
+	}
+
+	/**
+	 * Compares the document order of two nodes of the same tree.
+	 *
+	 * @param other
+	 *            Another node of this tree.
+	 * @return A negative number if this node comes first, 0 if the nodes are
+	 *         the same, a positive number otherwise.
+	 */
+	public int compare_order(TinyNode other) {
+		long a = order_key();
+		long b = other.order_key();
+		return a < b ? -1 : (a == b ? 0 : 1);
+	}
+
+	/**
+	 * Position in document order: the node number in the high word, and for
+	 * attributes one plus their index on the element in the low word.
+	 */
+	long order_key() {
+		return (long) _n << 32;
+	}
+
+	/**
+	 * @return The string value of the node as defined by the XPath data model.
+	 */
+	public String string_value() {
+		return _tree.string_value(_n);
+	}
+
+	/**
+	 * @return The string value of the node, read in place from the tree.
+	 */
+	public CharSequence string_view() {
+		return _tree.string_view(_n);
+	}
+
+	/**
+	 * @return The element against which namespace lookups start.
+	 */
+	int scope() {
+		int n = _n;
+		while (n != TinyTree.NONE && _tree._kind[n] != ELEMENT_NODE)
+			n = _tree._parent[n];
+		return n;
+	}
+
+	static DOMException read_only() {
+		return new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR, "The tree is read-only");
+	}
+
+	public String getNodeName() {
+		return _tree._qnames[_tree._name[_n]];
+	}
+
+	public String getNodeValue() {
+		return null;
+	}
+
+	public void setNodeValue(String nodeValue) {
+		throw read_only();
+	}
+
+	public short getNodeType() {
+		return _tree._kind[_n];
+	}
+
+	public Node getParentNode() {
+		return _tree.node(_tree._parent[_n]);
+	}
+
+	public NodeList getChildNodes() {
+		return new TinyNodeList(_tree, _tree.first_child(_n));
+	}
+
+	public Node getFirstChild() {
+		return _tree.node(_tree.first_child(_n));
+	}
+
+	public Node getLastChild() {
+		int child = _tree.first_child(_n);
+		if (child == TinyTree.NONE)
+			return null;
+		while (_tree._next[child] != TinyTree.NONE)
+			child = _tree._next[child];
+		return _tree.node(child);
+	}
+
+	public Node getPreviousSibling() {
+		return _tree.node(_tree.previous_sibling(_n));
+	}
+
+	public Node getNextSibling() {
+		return _tree.node(_tree._next[_n]);
+	}
+
+	public NamedNodeMap getAttributes() {
+		return null;
+	}
+
+	public Document getOwnerDocument() {
+		return _tree.document();
+	}
+
+	public Node insertBefore(Node newChild, Node refChild) {
+		throw read_only();
+	}
+
+	public Node replaceChild(Node newChild, Node oldChild) {
+		throw read_only();
+	}
+
+	public Node removeChild(Node oldChild) {
+		throw read_only();
+	}
+
+	public Node appendChild(Node newChild) {
+		throw read_only();
+	}
+
+	public boolean hasChildNodes() {
+		return _tree.first_child(_n) != TinyTree.NONE;
+	}
+
+	public Node cloneNode(boolean deep) {
+		throw new DOMException(DOMException.NOT_SUPPORTED_ERR, "Nodes of a read-only tree can't be cloned");
+	}
+
+	public void normalize() {
+		// adjacent text is merged while the tree is built
+	}
+
+	public boolean isSupported(String feature, String version) {
+		return TinyDocument.has_feature(feature, version);
+	}
+
+	public String getNamespaceURI() {
+		return null;
+	}
+
+	public String getPrefix() {
+		return null;
+	}
+
+	public void setPrefix(String prefix) {
+		throw read_only();
+	}
+
+	public String getLocalName() {
+		return null;
+	}
+
+	public boolean hasAttributes() {
+		return false;
+	}
+
+	public String getBaseURI() {
+		Node parent = getParentNode();
+		return parent == null ? null : parent.getBaseURI();
+	}
+
+	public short compareDocumentPosition(Node other) {
+		if (other == this)
+			return 0;
+		if (!(other instanceof TinyNode) || ((TinyNode) other)._tree != _tree) {
+			// documents are ordered by their document nodes, of whatever
+			// implementation, so both nodes agree on the order
+			Node doc = other.getNodeType() == DOCUMENT_NODE ? other : other.getOwnerDocument();
+			short order = System.identityHashCode(_tree.document()) < System.identityHashCode(doc) ? DOCUMENT_POSITION_FOLLOWING : DOCUMENT_POSITION_PRECEDING;
+			return (short) (DOCUMENT_POSITION_DISCONNECTED | DOCUMENT_POSITION_IMPLEMENTATION_SPECIFIC | order);
+		}
+
+		TinyNode node = (TinyNode) other;
+		if (compare_order(node) > 0) {
+			if (node.getNodeType() != ATTRIBUTE_NODE && node.contains(this))
+				return DOCUMENT_POSITION_CONTAINS | DOCUMENT_POSITION_PRECEDING;
+			return DOCUMENT_POSITION_PRECEDING;
+		}
+		if (getNodeType() != ATTRIBUTE_NODE && contains(node))
+			return DOCUMENT_POSITION_CONTAINED_BY | DOCUMENT_POSITION_FOLLOWING;
+		return DOCUMENT_POSITION_FOLLOWING;
+	}
+
+	private boolean contains(TinyNode node) {
+		int n = node.getNodeType() == ATTRIBUTE_NODE ? _tree._attr_parent[node._n] : node._n;
+		return n == _n || _tree.is_ancestor(_n, n);
+	}
+
+	public String getTextContent() {
+		return getNodeValue();
+	}
+
+	public void setTextContent(String textContent) {
+		throw read_only();
+	}
+
+	public boolean isSameNode(Node other) {
+		return other == this;
+	}
+
+	public String lookupPrefix(String namespaceURI) {
+		if (namespaceURI == null || namespaceURI.length() == 0)
+			return null;
+		for (int e = scope(); e != TinyTree.NONE; e = _tree._parent[e]) {
+			int name = _tree._name[e];
+			if (namespaceURI.equals(_tree._uris[name]) && _tree._prefixes[name].length() > 0)
+				return _tree._prefixes[name];
+			for (int a = _tree._alpha[e], end = a + _tree._beta[e]; a < end; a++) {
+				int attr = _tree._attr_name[a];
+				if (XMLConstants.XMLNS_ATTRIBUTE.equals(_tree._prefixes[attr]) && _tree.attr_value_equals(a, namespaceURI))
+					return _tree._locals[attr];
+			}
+		}
+		return null;
+	}
+
+	public boolean isDefaultNamespace(String namespaceURI) {
+		String uri = lookupNamespaceURI(null);
+		return uri == null ? namespaceURI == null || namespaceURI.length() == 0 : uri.equals(namespaceURI);
+	}
+
+	public String lookupNamespaceURI(String prefix) {
+		if (prefix == null)
+			prefix = "";
+		for (int e = scope(); e != TinyTree.NONE; e = _tree._parent[e]) {
+			int name = _tree._name[e];
+			if (_tree._uris[name].length() > 0 && prefix.equals(_tree._prefixes[name]))
+				return _tree._uris[name];
+			for (int a = _tree._alpha[e], end = a + _tree._beta[e]; a < end; a++) {
+				int attr = _tree._attr_name[a];
+				if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(_tree._uris[attr]))
+					continue;
+				String declared = _tree._prefixes[attr].length() == 0 ? "" : _tree._locals[attr];
+				if (prefix.equals(declared))
+					return TinyTree.null_if_empty(_tree.attr_value(a));
+			}
+		}
+		return null;
+	}
+
+	public boolean isEqualNode(Node arg) {
+		if (arg == this)
+			return true;
+		if (arg == null || arg.getNodeType() != getNodeType()
+				|| !equal(getNodeName(), arg.getNodeName())
+				|| !equal(getLocalName(), arg.getLocalName())
+				|| !equal(getNamespaceURI(), arg.getNamespaceURI())
+				|| !equal(getPrefix(), arg.getPrefix())
+				|| !equal(getNodeValue(), arg.getNodeValue()))
+			return false;
+
+		NamedNodeMap attrs = getAttributes();
+		NamedNodeMap otherAttrs = arg.getAttributes();
+		if (attrs != null && otherAttrs != null) {
+			if (attrs.getLength() != otherAttrs.getLength())
+				return false;
+			for (int i = 0; i < attrs.getLength(); i++) {
+				Node attr = attrs.item(i);
+				Node otherAttr = attr.getLocalName() == null ? otherAttrs.getNamedItem(attr.getNodeName())
+						: otherAttrs.getNamedItemNS(attr.getNamespaceURI(), attr.getLocalName());
+				if (otherAttr == null || !attr.isEqualNode(otherAttr))
+					return false;
+			}
+		} else if (attrs != otherAttrs) {
+			return false;
+		}
+
+		Node child = getFirstChild();
+		Node otherChild = arg.getFirstChild();
+		while (child != null && otherChild != null) {
+			if (!child.isEqualNode(otherChild))
+				return false;
+			child = child.getNextSibling();
+			otherChild = otherChild.getNextSibling();
+		}
+		return child == otherChild;
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	public Object getFeature(String feature, String version) {
+		return isSupported(feature, version) ? this : null;
+	}
+
+	public Object setUserData(String key, Object data, UserDataHandler handler) {
+		// the tree is never cloned, imported or renamed, so handlers never run
+		return _tree.set_user_data(this, key, data);
+	}
+
+	public Object getUserData(String key) {
+		return _tree.get_user_data(this, key);
+	}
+
+	public String toString() {
+		return "[" + getNodeName() + ": " + getNodeValue() + "]";
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * The children of a node. The list remembers where the last lookup ended, so
+ * walking it from the start is linear overall.
+ */
+final class TinyNodeList implements NodeList {
+
+	private final TinyTree _tree;
+	private final int _first;
+	private int _length = -1;
+	private int _index; // of _child in the list
+	private int _child;
+
+	TinyNodeList(TinyTree tree, int first) {
+		_tree = tree;
+		_first = first;
+		_child = first;
+	}
+
+	public Node item(int index) {
+		if (index < 0 || _first == TinyTree.NONE)
+			return null;
+		if (index < _index) {
+			_index = 0;
+			_child = _first;
+		}
+		while (_index < index && _child != TinyTree.NONE) {
+			_child = _tree._next[_child];
+			_index++;
+		}
+		return _tree.node(_child);
+	}
+
+	public int getLength() {
+		if (_length < 0) {
+			_length = 0;
+			for (int child = _first; child != TinyTree.NONE; child = _tree._next[child])
+				_length++;
+		}
+		return _length;
+	}
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * A processing instruction of a TinyTree. The target is kept as the name of
+ * the node.
+ */
+final class TinyPI extends TinyNode implements ProcessingInstruction {
+
+	TinyPI(TinyTree tree, int n) {
+		super(tree, n);
+	}
+
+	public String getNodeValue() {
+		return getData();
+	}
+
+	public String getTarget() {
+		return getNodeName();
+	}
+
+	public String getData() {
+		return _tree.data(_n);
+	}
+
+	public void setData(String data) throws DOMException {
+		throw read_only();
+	}
+}
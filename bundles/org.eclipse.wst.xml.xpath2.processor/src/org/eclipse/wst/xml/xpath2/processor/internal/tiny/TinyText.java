@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Text;
+
+/**
+ * A text node of a TinyTree. Adjacent text and CDATA sections are merged into
+ * one node, as in the XPath data model.
+ */
+final class TinyText extends TinyCharacterData implements Text {
+
+	TinyText(TinyTree tree, int n) {
+		super(tree, n);
+	}
+
+	public String getNodeName() {
+		return "#text";
+	}
+
+	public boolean isElementContentWhitespace() {
+		return false;
+	}
+
+	public String getWholeText() {
+		return getData();
+	}
+
+	public Text splitText(int offset) throws DOMException {
+		throw read_only();
+	}
+
+	public Text replaceWholeText(String content) throws DOMException {
+		throw read_only();
+	}
+}
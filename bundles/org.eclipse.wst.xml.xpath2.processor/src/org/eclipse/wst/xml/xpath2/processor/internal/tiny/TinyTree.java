@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.TextValue;
+
+import org.w3c.dom.Node;
+
+/**
+ * A read-only document held in a handful of parallel arrays rather than one
+ * object per node.
+ *
+ * The nodes of the tree are numbered in document order, the document node
+ * being 0. For each node the tree records its kind, its parent, its next
+ * sibling and its name (an index into a small name table). Character data
+ * lives in a single shared buffer. For text, comment and processing
+ * instruction nodes, alpha and beta are the offset and length of the data in
+ * that buffer; for elements they are the index of the first attribute and
+ * the number of attributes. Attributes are kept in their own arrays, those
+ * of each element together, and their values are in the character buffer too.
+ *
+ * DOM nodes are only created when they are asked for, and each is created
+ * once, so node identity works as it does for any other DOM.
+ */
+public final class TinyTree {
+
+	static final int NONE = -1;
+
+	// nodes
+	int _count;
+	short[] _kind;
+	int[] _parent;
+	int[] _next;
+	int[] _name;
+	int[] _alpha;
+	int[] _beta;
+
+	// attributes
+	int _attr_count;
+	int[] _attr_parent;
+	int[] _attr_name;
+	int[] _attr_alpha;
+	int[] _attr_beta;
+	String[] _attr_type;
+
+	// names
+	int _name_count;
+	String[] _uris;
+	String[] _locals;
+	String[] _prefixes;
+	String[] _qnames;
+
+	// character data of text, comment, processing instruction and attribute nodes
+	char[] _chars;
+	int _chars_length;
+
+	String _document_uri;
+	String _xml_version = "1.0";
+	String _xml_encoding;
+	String _input_encoding;
+
+	private volatile TinyNode[] _nodes;
+	private volatile TinyAttr[] _attrs;
+	private HashMap<Node, HashMap<String, Object>> _user_data;
+
+	TinyTree() {
+		_kind = new short[256];
+		_parent = new int[256];
+		_next = new int[256];
+		_name = new int[256];
+		_alpha = new int[256];
+		_beta = new int[256];
+		_attr_parent = new int[64];
+		_attr_name = new int[64];
+		_attr_alpha = new int[64];
+		_attr_beta = new int[64];
+		_attr_type = new String[64];
+		_uris = new String[32];
+		_locals = new String[32];
+		_prefixes = new String[32];
+		_qnames = new String[32];
+		_chars = new char[1024];
+	}
+
+	/**
+	 * @return The document node of the tree.
+	 */
+	public TinyDocument document() {
+		return (TinyDocument) node(0);
+	}
+
+	/**
+	 * @return Number of nodes in the tree, not counting attributes.
+	 */
+	public int size() {
+		return _count;
+	}
+
+	// building, called by TinyTreeHandler only
+
+	int add_node(short kind, int parent, int name, int alpha, int beta) {
+		if (_count == _kind.length) {
+			int capacity = _count * 2;
+			_kind = grow(_kind, capacity);
+			_parent = grow(_parent, capacity);
+			_next = grow(_next, capacity);
+			_name = grow(_name, capacity);
+			_alpha = grow(_alpha, capacity);
+			_beta = grow(_beta, capacity);
+		}
+		int n = _count++;
+		_kind[n] = kind;
+		_parent[n] = parent;
+		_next[n] = NONE;
+		_name[n] = name;
+		_alpha[n] = alpha;
+		_beta[n] = beta;
+		return n;
+	}
+
+	void add_attr(int parent, int name, String value, String type) {
+		if (_attr_count == _attr_parent.length) {
+			int capacity = _attr_count * 2;
+			_attr_parent = grow(_attr_parent, capacity);
+			_attr_name = grow(_attr_name, capacity);
+			_attr_alpha = grow(_attr_alpha, capacity);
+			_attr_beta = grow(_attr_beta, capacity);
+			_attr_type = grow(_attr_type, capacity);
+		}
+		char[] ch = value.toCharArray();
+		_attr_parent[_attr_count] = parent;
+		_attr_name[_attr_count] = name;
+		_attr_alpha[_attr_count] = append_chars(ch, 0, ch.length);
+		_attr_beta[_attr_count] = ch.length;
+		_attr_type[_attr_count] = type;
+		_attr_count++;
+	}
+
+	/**
+	 * Puts the attributes of an element in order of their qualified names, as
+	 * the Xerces DOM does, so queries see them in the same order.
+	 */
+	void sort_attrs(int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			int name = _attr_name[i];
+			int alpha = _attr_alpha[i];
+			int beta = _attr_beta[i];
+			String type = _attr_type[i];
+			int j = i;
+			for (; j > from && _qnames[_attr_name[j - 1]].compareTo(_qnames[name]) > 0; j--) {
+				_attr_name[j] = _attr_name[j - 1];
+				_attr_alpha[j] = _attr_alpha[j - 1];
+				_attr_beta[j] = _attr_beta[j - 1];
+				_attr_type[j] = _attr_type[j - 1];
+			}
+			_attr_name[j] = name;
+			_attr_alpha[j] = alpha;
+			_attr_beta[j] = beta;
+			_attr_type[j] = type;
+		}
+	}
+
+	int append_chars(char[] ch, int start, int length) {
+		int offset = _chars_length;
+		if (offset + length > _chars.length) {
+			char[] chars = new char[Math.max(_chars.length * 2, offset + length)];
+			System.arraycopy(_chars, 0, chars, 0, offset);
+			_chars = chars;
+		}
+		System.arraycopy(ch, start, _chars, offset, length);
+		_chars_length += length;
+		return offset;
+	}
+
+	int add_name(String uri, String local, String prefix, String qname) {
+		if (_name_count == _uris.length) {
+			int capacity = _name_count * 2;
+			_uris = grow(_uris, capacity);
+			_locals = grow(_locals, capacity);
+			_prefixes = grow(_prefixes, capacity);
+			_qnames = grow(_qnames, capacity);
+		}
+		_uris[_name_count] = uri;
+		_locals[_name_count] = local;
+		_prefixes[_name_count] = prefix;
+		_qnames[_name_count] = qname;
+		return _name_count++;
+	}
+
+	/**
+	 * Trims the arrays to size once the whole document has been read.
+	 */
+	void finish() {
+		_kind = grow(_kind, _count);
+		_parent = grow(_parent, _count);
+		_next = grow(_next, _count);
+		_name = grow(_name, _count);
+		_alpha = grow(_alpha, _count);
+		_beta = grow(_beta, _count);
+		_attr_parent = grow(_attr_parent, _attr_count);
+		_attr_name = grow(_attr_name, _attr_count);
+		_attr_alpha = grow(_attr_alpha, _attr_count);
+		_attr_beta = grow(_attr_beta, _attr_count);
+		_attr_type = grow(_attr_type, _attr_count);
+		char[] chars = new char[_chars_length];
+		System.arraycopy(_chars, 0, chars, 0, _chars_length);
+		_chars = chars;
+	}
+
+	private static short[] grow(short[] a, int capacity) {
+		short[] b = new short[capacity];
+		System.arraycopy(a, 0, b, 0, Math.min(a.length, capacity));
+		return b;
+	}
+
+	private static int[] grow(int[] a, int capacity) {
+		int[] b = new int[capacity];
+		System.arraycopy(a, 0, b, 0, Math.min(a.length, capacity));
+		return b;
+	}
+
+	private static String[] grow(String[] a, int capacity) {
+		String[] b = new String[capacity];
+		System.arraycopy(a, 0, b, 0, Math.min(a.length, capacity));
+		return b;
+	}
+
+	// navigation
+
+	/**
+	 * Returns the DOM node for a node number, creating it on first use.
+	 */
+	TinyNode node(int n) {
+		if (n == NONE)
+			return null;
+		TinyNode[] nodes = _nodes;
+		TinyNode node = nodes == null ? null : nodes[n];
+		if (node != null)
+			return node;
+
+		synchronized (this) {
+			// the table is only allocated once a node is asked for
+			if (_nodes == null)
+				_nodes = new TinyNode[_count];
+			node = _nodes[n];
+			if (node == null) {
+				switch (_kind[n]) {
+				case Node.DOCUMENT_NODE:
+					node = new TinyDocument(this);
+					break;
+				case Node.ELEMENT_NODE:
+					node = new TinyElement(this, n);
+					break;
+				case Node.TEXT_NODE:
+					node = new TinyText(this, n);
+					break;
+				case Node.COMMENT_NODE:
+					node = new TinyComment(this, n);
+					break;
+				default:
+					node = new TinyPI(this, n);
+				}
+				_nodes[n] = node;
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * Returns the DOM node for an attribute number, creating it on first use.
+	 */
+	TinyAttr attr(int a) {
+		if (a == NONE)
+			return null;
+		TinyAttr[] attrs = _attrs;
+		TinyAttr attr = attrs == null ? null : attrs[a];
+		if (attr != null)
+			return attr;
+
+		synchronized (this) {
+			if (_attrs == null)
+				_attrs = new TinyAttr[_attr_count];
+			attr = _attrs[a];
+			if (attr == null) {
+				attr = new TinyAttr(this, a);
+				_attrs[a] = attr;
+			}
+			return attr;
+		}
+	}
+
+	int first_child(int n) {
+		int child = n + 1;
+		return child < _count && _parent[child] == n ? child : NONE;
+	}
+
+	int previous_sibling(int n) {
+		int parent = _parent[n];
+		if (parent == NONE || n - 1 == parent)
+			return NONE;
+		// n - 1 is the previous sibling itself, or its last descendant
+		int prev = n - 1;
+		while (_parent[prev] != parent)
+			prev = _parent[prev];
+		return prev;
+	}
+
+	/**
+	 * @return The number of the first node after the subtree rooted at n.
+	 */
+	int subtree_end(int n) {
+		while (n != NONE && _next[n] == NONE)
+			n = _parent[n];
+		return n == NONE ? _count : _next[n];
+	}
+
+	boolean is_ancestor(int ancestor, int n) {
+		return ancestor < n && n < subtree_end(ancestor);
+	}
+
+	/**
+	 * @return Concatenation of the text nodes in the subtree rooted at n.
+	 */
+	String string_value(int n) {
+		if (_kind[n] != Node.ELEMENT_NODE && _kind[n] != Node.DOCUMENT_NODE)
+			return data(n);
+
+		int end = subtree_end(n);
+		int length = 0;
+		for (int i = n + 1; i < end; i++)
+			if (_kind[i] == Node.TEXT_NODE)
+				length += _beta[i];
+
+		StringBuffer buf = new StringBuffer(length);
+		for (int i = n + 1; i < end; i++)
+			if (_kind[i] == Node.TEXT_NODE)
+				buf.append(_chars, _alpha[i], _beta[i]);
+		return buf.toString();
+	}
+
+	/**
+	 * @return The text nodes in the subtree rooted at n, read in place.
+	 */
+	CharSequence string_view(int n) {
+		if (_kind[n] != Node.ELEMENT_NODE && _kind[n] != Node.DOCUMENT_NODE)
+			return new Slice(_chars, _alpha[n], _beta[n]);
+
+		int end = subtree_end(n);
+		ArrayList<CharSequence> segments = new ArrayList<CharSequence>();
+		for (int i = n + 1; i < end; i++)
+			if (_kind[i] == Node.TEXT_NODE)
+				segments.add(new Slice(_chars, _alpha[i], _beta[i]));
+
+		if (segments.isEmpty())
+			return "";
+		if (segments.size() == 1)
+			return segments.get(0);
+		return new TextValue(segments.toArray(new CharSequence[segments.size()]));
+	}
+
+	/**
+	 * A read-only window on the character buffer.
+	 */
+	private static final class Slice implements CharSequence {
+		private final char[] _chars;
+		private final int _offset;
+		private final int _length;
+
+		Slice(char[] chars, int offset, int length) {
+			_chars = chars;
+			_offset = offset;
+			_length = length;
+		}
+
+		public int length() {
+			return _length;
+		}
+
+		public char charAt(int index) {
+			if (index < 0 || index >= _length)
+				throw new IndexOutOfBoundsException(String.valueOf(index));
+			return _chars[_offset + index];
+		}
+
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end > _length || start > end)
+				throw new IndexOutOfBoundsException(start + ", " + end);
+			return new String(_chars, _offset + start, end - start);
+		}
+
+		public String toString() {
+			return new String(_chars, _offset, _length);
+		}
+	}
+
+	String data(int n) {
+		return new String(_chars, _alpha[n], _beta[n]);
+	}
+
+	String attr_value(int a) {
+		return new String(_chars, _attr_alpha[a], _attr_beta[a]);
+	}
+
+	/**
+	 * @return true if the value of attribute a is s, without creating a
+	 *         String for the value.
+	 */
+	boolean attr_value_equals(int a, String s) {
+		int length = _attr_beta[a];
+		if (s.length() != length)
+			return false;
+		for (int i = 0, offset = _attr_alpha[a]; i < length; i++)
+			if (_chars[offset + i] != s.charAt(i))
+				return false;
+		return true;
+	}
+
+	// names
+
+	static String null_if_empty(String s) {
+		return s == null || s.length() == 0 ? null : s;
+	}
+
+	// user data is rare, so it is kept apart from the nodes
+
+	synchronized Object get_user_data(Node node, String key) {
+		if (_user_data == null)
+			return null;
+		HashMap<String, Object> data = _user_data.get(node);
+		return data == null ? null : data.get(key);
+	}
+
+	synchronized Object set_user_data(Node node, String key, Object value) {
+		if (_user_data == null)
+			_user_data = new HashMap<Node, HashMap<String, Object>>();
+		HashMap<String, Object> data = _user_data.get(node);
+		if (data == null) {
+			if (value == null)
+				return null;
+			data = new HashMap<String, Object>();
+			_user_data.put(node, data);
+		}
+		return value == null ? data.remove(key) : data.put(key, value);
+	}
+}
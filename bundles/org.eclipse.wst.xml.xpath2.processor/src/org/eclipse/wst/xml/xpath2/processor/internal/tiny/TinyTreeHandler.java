@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.xml.XMLConstants;
+
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.ext.Locator2;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Builds a TinyTree from namespace-aware SAX events. Comments are only seen
+ * if the handler is also registered as the reader's lexical handler.
+ */
+public class TinyTreeHandler extends DefaultHandler implements LexicalHandler {
+
+	private final TinyTree _tree = new TinyTree();
+	private final HashMap<String, Integer> _names = new HashMap<String, Integer>();
+	private final ArrayList<String> _declarations = new ArrayList<String>();
+	private Locator _locator;
+
+	// open nodes: _open[d] is the node at depth d, _last[d] its last child so far
+	private int[] _open = new int[32];
+	private int[] _last = new int[32];
+	private int _depth = -1;
+
+	private int _text = -1; // start of pending text in the character buffer
+	private boolean _in_dtd;
+
+	/**
+	 * @return The document built, once the end of the document has been
+	 *         reached.
+	 */
+	public TinyDocument document() {
+		return _tree.document();
+	}
+
+	private int name(String uri, String local, String qname) {
+		String key = qname + '\u0000' + uri;
+		Integer code = _names.get(key);
+		if (code == null) {
+			int colon = qname.indexOf(':');
+			String prefix = colon > 0 ? qname.substring(0, colon) : "";
+			code = new Integer(_tree.add_name(uri, local, prefix, qname));
+			_names.put(key, code);
+		}
+		return code.intValue();
+	}
+
+	private int add(short kind, int name, int alpha, int beta) {
+		int n = _tree.add_node(kind, _depth < 0 ? TinyTree.NONE : _open[_depth], name, alpha, beta);
+		if (_depth >= 0) {
+			if (_last[_depth] != TinyTree.NONE)
+				_tree._next[_last[_depth]] = n;
+			_last[_depth] = n;
+		}
+		return n;
+	}
+
+	private void open(int n) {
+		if (++_depth == _open.length) {
+			int[] open = new int[_depth * 2];
+			System.arraycopy(_open, 0, open, 0, _depth);
+			_open = open;
+			int[] last = new int[_depth * 2];
+			System.arraycopy(_last, 0, last, 0, _depth);
+			_last = last;
+		}
+		_open[_depth] = n;
+		_last[_depth] = TinyTree.NONE;
+	}
+
+	private void flush_text() {
+		if (_text < 0)
+			return;
+		int length = _tree._chars_length - _text;
+		if (length > 0)
+			add(Node.TEXT_NODE, TinyTree.NONE, _text, length);
+		_text = -1;
+	}
+
+	public void setDocumentLocator(Locator locator) {
+		_locator = locator;
+	}
+
+	public void startDocument() {
+		if (_locator instanceof Locator2) {
+			Locator2 locator = (Locator2) _locator;
+			_tree._input_encoding = locator.getEncoding();
+			if (locator.getXMLVersion() != null)
+				_tree._xml_version = locator.getXMLVersion();
+		}
+		if (_locator != null)
+			_tree._document_uri = _locator.getSystemId();
+		open(add(Node.DOCUMENT_NODE, TinyTree.NONE, 0, 0));
+	}
+
+	public void endDocument() {
+		flush_text();
+		_tree.finish();
+	}
+
+	public void startPrefixMapping(String prefix, String uri) {
+		_declarations.add(prefix);
+		_declarations.add(uri);
+	}
+
+	public void startElement(String uri, String localName, String qName, Attributes atts) {
+		flush_text();
+		int first = _tree._attr_count;
+		int element = add(Node.ELEMENT_NODE, name(uri, localName, qName), first, 0);
+
+		// namespace declarations are attributes in the DOM, so they are here too
+		for (int i = 0; i < _declarations.size(); i += 2) {
+			String prefix = _declarations.get(i);
+			int name = prefix.length() == 0
+					? name(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, XMLConstants.XMLNS_ATTRIBUTE, XMLConstants.XMLNS_ATTRIBUTE)
+					: name(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, prefix, XMLConstants.XMLNS_ATTRIBUTE + ':' + prefix);
+			_tree.add_attr(element, name, _declarations.get(i + 1), "CDATA");
+		}
+		_declarations.clear();
+
+		for (int i = 0; i < atts.getLength(); i++) {
+			String qname = atts.getQName(i);
+			if (qname.startsWith(XMLConstants.XMLNS_ATTRIBUTE) && (qname.length() == 5 || qname.charAt(5) == ':'))
+				continue;
+			_tree.add_attr(element, name(atts.getURI(i), atts.getLocalName(i), qname), atts.getValue(i), atts.getType(i));
+		}
+		_tree._beta[element] = _tree._attr_count - first;
+		_tree.sort_attrs(first, _tree._attr_count);
+		open(element);
+	}
+
+	public void endElement(String uri, String localName, String qName) {
+		flush_text();
+		_depth--;
+	}
+
+	public void characters(char[] ch, int start, int length) {
+		int offset = _tree.append_chars(ch, start, length);
+		if (_text < 0)
+			_text = offset;
+	}
+
+	public void ignorableWhitespace(char[] ch, int start, int length) {
+		characters(ch, start, length);
+	}
+
+	public void processingInstruction(String target, String data) {
+		if (_in_dtd)
+			return;
+		flush_text();
+		char[] ch = data.toCharArray();
+		add(Node.PROCESSING_INSTRUCTION_NODE, name("", target, target), _tree.append_chars(ch, 0, ch.length), ch.length);
+	}
+
+	public void comment(char[] ch, int start, int length) {
+		if (_in_dtd)
+			return;
+		flush_text();
+		add(Node.COMMENT_NODE, TinyTree.NONE, _tree.append_chars(ch, start, length), length);
+	}
+
+	public void startDTD(String name, String publicId, String systemId) {
+		_in_dtd = true;
+	}
+
+	public void endDTD() {
+		_in_dtd = false;
+	}
+
+	public void startEntity(String name) {
+	}
+
+	public void endEntity(String name) {
+	}
+
+	public void startCDATA() {
+	}
+
+	public void endCDATA() {
+	}
+}
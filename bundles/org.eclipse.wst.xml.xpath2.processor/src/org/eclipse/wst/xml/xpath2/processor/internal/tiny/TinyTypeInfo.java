@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.tiny;
+
+import org.w3c.dom.TypeInfo;
+
+/**
+ * The DTD type of an attribute, as reported by the parser.
+ */
+final class TinyTypeInfo implements TypeInfo {
+
+	static final String DTD_NAMESPACE = "http://www.w3.org/TR/REC-xml";
+
+	static final TypeInfo NONE = new TinyTypeInfo(null);
+
+	private final String _name;
+
+	TinyTypeInfo(String name) {
+		_name = name;
+	}
+
+	public String getTypeName() {
+		return _name;
+	}
+
+	public String getTypeNamespace() {
+		return _name == null ? null : DTD_NAMESPACE;
+	}
+
+	public boolean isDerivedFrom(String typeNamespaceArg, String typeNameArg, int derivationMethod) {
+		return false;
+	}
+}
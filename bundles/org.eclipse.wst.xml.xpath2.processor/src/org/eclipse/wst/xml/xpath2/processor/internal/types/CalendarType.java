@@ -15,6 +15,7 @@ package org.eclipse.wst.xml.xpath2.processor.internal.types;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.TimeZone;
 
 // common base for anything that uses a calendar... basically stuff doing with
 // time... hopefully in the future this may be factored out here
@@ -43,6 +44,49 @@ public abstract class CalendarType extends CtrType {
 		
 	}
 
+	/**
+	 * Retrieves the time of the calendar, in milliseconds since the epoch.
+	 * Types which know it without building their calendar override this.
+	 * 
+	 * @return The time of calendar()
+	 */
+	protected long calendar_millis() {
+		return calendar().getTimeInMillis();
+	}
+
+	/**
+	 * Retrieves the point in time represented once the timezone is applied,
+	 * which is what normalizeCalendar(calendar(), timezone).getTimeInMillis()
+	 * returns, without copying and adjusting the calendar.
+	 * 
+	 * @param timezone
+	 *            The timezone of the value, or null.
+	 * @return Milliseconds since the epoch.
+	 */
+	protected long normalized_millis(XSDuration timezone) {
+		long millis = calendar_millis();
+		if (timezone != null) {
+			// adding hours and minutes to a calendar moves its time exactly
+			long offset = (timezone.hours() * 60L + timezone.minutes()) * 60000L;
+			millis += timezone.negative() ? offset : -offset;
+		}
+		return millis;
+	}
+
+	/**
+	 * Creates a calendar in UTC set to the supplied time, like the ones the
+	 * parsers build.
+	 * 
+	 * @param millis
+	 *            Milliseconds since the epoch.
+	 * @return The calendar.
+	 */
+	protected static Calendar utc_calendar(long millis) {
+		GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		cal.setTimeInMillis(millis);
+		return cal;
+	}
+
 	protected boolean isGDataType(AnyType aat) {
 		if (! (aat instanceof AnyAtomicType)) return false;
 	
@@ -17,6 +17,7 @@ import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeDefinition;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLibrary;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.TextValue;
 import org.w3c.dom.Document;
 
 /**
@@ -70,6 +71,10 @@ public class DocType extends NodeType {
 		return _string_value;
 	}
 
+	public CharSequence untyped_string_view() {
+		return _string_value != null ? _string_value : TextValue.of(_value);
+	}
+
 	/**
 	 * Creates a new ResultSequence consisting of the document being stored
 	 * 
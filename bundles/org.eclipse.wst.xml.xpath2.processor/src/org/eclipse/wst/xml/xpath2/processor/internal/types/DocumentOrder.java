@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.types;
+
+import java.util.ArrayList;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyDocument;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.DocumentCache;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Numbers the nodes of a document in document order, so comparing the
+ * position of two nodes is an integer comparison rather than a walk up and
+ * across the tree.
+ *
+ * The numbering is a pre-order walk in which the attributes of an element
+ * follow the element itself and precede its children. It is built once per
+ * document and dropped when the document is modified.
+ */
+public final class DocumentOrder {
+
+	private static final String KEY = DocumentOrder.class.getName();
+
+	private static final DocumentCache.Builder BUILDER = new DocumentCache.Builder() {
+		public Object build(Document doc) {
+			return new DocumentOrder(doc);
+		}
+	};
+
+	// open addressing on node identity: _nodes[i] is at position _positions[i]
+	private final Node[] _nodes;
+	private final int[] _positions;
+	private final int _mask;
+
+	private DocumentOrder(Document doc) {
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		Node node = doc;
+		while (node != null) {
+			nodes.add(node);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				NamedNodeMap attributes = node.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++)
+					nodes.add(attributes.item(i));
+			}
+			node = nextInPreOrder(node);
+		}
+
+		int capacity = 16;
+		while (capacity < nodes.size() * 2)
+			capacity <<= 1;
+		_nodes = new Node[capacity];
+		_positions = new int[capacity];
+		_mask = capacity - 1;
+
+		for (int pos = 0; pos < nodes.size(); pos++) {
+			Node n = nodes.get(pos);
+			int slot = System.identityHashCode(n) & _mask;
+			while (_nodes[slot] != null)
+				slot = (slot + 1) & _mask;
+			_nodes[slot] = n;
+			_positions[slot] = pos;
+		}
+	}
+
+	private static Node nextInPreOrder(Node node) {
+		Node next = node.getFirstChild();
+		if (next != null)
+			return next;
+		while (node != null) {
+			next = node.getNextSibling();
+			if (next != null)
+				return next;
+			node = node.getParentNode();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the document order index of a document, building it if needed.
+	 *
+	 * @param doc
+	 *            The document.
+	 * @return The index, or null if the document can't be indexed safely.
+	 *         Tiny trees aren't indexed, as their nodes are numbered already.
+	 */
+	public static DocumentOrder of(Document doc) {
+		if (doc instanceof TinyDocument)
+			return null;
+		return (DocumentOrder) DocumentCache.get(doc, KEY, BUILDER);
+	}
+
+	/**
+	 * @param node
+	 *            A node of the indexed document.
+	 * @return The position of the node in document order, or -1 if the node
+	 *         isn't part of the document tree (e.g. it has been detached).
+	 */
+	public int position(Node node) {
+		int slot = System.identityHashCode(node) & _mask;
+		Node n;
+		while ((n = _nodes[slot]) != null) {
+			if (n == node)
+				return _positions[slot];
+			slot = (slot + 1) & _mask;
+		}
+		return -1;
+	}
+}
@@ -27,11 +27,11 @@ import org.eclipse.wst.xml.xpath2.api.ResultBuffer;
 import org.eclipse.wst.xml.xpath2.api.ResultSequence;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeDefinition;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyNode;
 import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLibrary;
+import org.eclipse.wst.xml.xpath2.processor.internal.utils.TextValue;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Text;
 import org.w3c.dom.TypeInfo;
 
 /**
@@ -125,34 +125,25 @@ public class ElementType extends NodeType {
 		return TRUE_VALUE.equals(_value2.getAttributeNS(SCHEMA_INSTANCE, NIL_ATTRIBUTE));
 	}
 
-	// recursively concatenate TextNode strings
 	/**
-	 * Recursively concatenate TextNode strings
+	 * Concatenates the text and CDATA nodes of a subtree, in one walk and a
+	 * single copy.
 	 * 
 	 * @param node
-	 *            Node to recurse
+	 *            Root of the subtree
 	 * @return String representation of the node supplied
 	 */
 	public static String textnode_strings(Node node) {
-		String result = "";
+		if (node instanceof TinyNode)
+			return ((TinyNode) node).string_value();
 
-		if (node.getNodeType() == Node.TEXT_NODE) {
-			Text tn = (Text) node;
-			result += tn.getData();
-		}
-
-		NodeList nl = node.getChildNodes();
-
-		StringBuffer buf = new StringBuffer(result);
-		// concatenate children
-		for (int i = 0; i < nl.getLength(); i++) {
-			Node n = nl.item(i);
-
-			buf.append(textnode_strings(n));
-		}
+		return TextValue.of(node).toString();
+	}
 
-		result = buf.toString();
-		return result;
+	public CharSequence untyped_string_view() {
+		if (getType() != null || isNilled(_value))
+			return null;
+		return _string_value != null ? _string_value : TextValue.of(_value);
 	}
 
 	/**
@@ -25,8 +25,10 @@
 package org.eclipse.wst.xml.xpath2.processor.internal.types;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.TreeSet;
@@ -40,6 +42,7 @@ import org.eclipse.wst.xml.xpath2.api.typesystem.TypeDefinition;
 import org.eclipse.wst.xml.xpath2.api.typesystem.TypeModel;
 import org.eclipse.wst.xml.xpath2.processor.PsychoPathTypeHelper;
 import org.eclipse.wst.xml.xpath2.processor.ResultSequenceFactory;
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyNode;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Comment;
 import org.w3c.dom.Document;
@@ -103,6 +106,18 @@ public abstract class NodeType extends AnyType {
 	 */
 	public abstract QName node_name(); // may return null ["empty sequence"]
 
+	/**
+	 * Returns the string value of the node without copying it out of the
+	 * tree, for nodes whose typed value is just that string as
+	 * xs:untypedAtomic. Functions which only scan their string argument can
+	 * use it to skip atomization.
+	 * 
+	 * @return The string value, or null if the typed value is anything else.
+	 */
+	public CharSequence untyped_string_view() {
+		return null;
+	}
+
 	// XXX element should override
 	public ResultSequence nilled() {
 		return ResultSequenceFactory.create_new();
@@ -203,8 +218,42 @@ public abstract class NodeType extends AnyType {
 	public static boolean after(NodeType a, NodeType b) {
 		return compare_node(a, b) > 0;
 	}
-	
+
+	/**
+	 * Compares nodes in document order for one sort or set operation, looking
+	 * the order index of each document up once rather than on every
+	 * comparison. Not to be shared between threads.
+	 */
+	private static final class NodeOrder implements Comparator {
+		private final IdentityHashMap<Document, DocumentOrder> _orders = new IdentityHashMap<Document, DocumentOrder>();
+		private Document _last;
+		private DocumentOrder _last_order;
+
+		DocumentOrder of(Document doc) {
+			if (doc == _last)
+				return _last_order;
+			DocumentOrder order;
+			if (_orders.containsKey(doc)) {
+				order = _orders.get(doc);
+			} else {
+				order = DocumentOrder.of(doc);
+				_orders.put(doc, order);
+			}
+			_last = doc;
+			_last_order = order;
+			return order;
+		}
+
+		public int compare(Object o1, Object o2) {
+			return compare_node((NodeType) o1, (NodeType) o2, this);
+		}
+	}
+
 	private static int compare_node(NodeType a, NodeType b) {
+		return compare_node(a, b, null);
+	}
+
+	private static int compare_node(NodeType a, NodeType b, NodeOrder orders) {
 		Node nodeA = a.node_value();
 		Node nodeB = b.node_value();
 		
@@ -216,6 +265,16 @@ public abstract class NodeType extends AnyType {
 		if (docA != docB && ! docA.isSameNode(docB)) {
 			return compareDocuments(docA, docB);
 		}
+		if (nodeA instanceof TinyNode)
+			return ((TinyNode) nodeA).compare_order((TinyNode) nodeB);
+
+		DocumentOrder order = orders != null ? orders.of(docA) : DocumentOrder.of(docA);
+		if (order != null) {
+			int posA = order.position(nodeA);
+			int posB = order.position(nodeB);
+			if (posA >= 0 && posB >= 0)
+				return posA < posB ? -1 : 1;
+		}
 		short relation = nodeA.compareDocumentPosition(nodeB);
 		if ((relation & Node.DOCUMENT_POSITION_PRECEDING) != 0) 
 			  return 1;
@@ -411,8 +470,137 @@ public abstract class NodeType extends AnyType {
 	}
 
 	public static ResultBuffer linarize(ResultBuffer rs) {
-		TreeSet all = new TreeSet(NODE_COMPARATOR);
+		int size = rs.size();
+		if (size < 2)
+			return rs;
+
+		// Look every node up in the document order index once, rather than
+		// comparing pairs of nodes. Nodes from several documents, or from
+		// documents which can't be indexed, take the general route below.
+		Document doc = getDocument(((NodeType) rs.item(0)).node_value());
+		DocumentOrder order = DocumentOrder.of(doc);
+		if (order != null) {
+			long[] keys = new long[size];
+			boolean ordered = true;
+			int i = 0;
+			for (Iterator iter = rs.iterator(); iter.hasNext(); i++) {
+				Node node = ((NodeType) iter.next()).node_value();
+				int pos = getDocument(node) == doc ? order.position(node) : -1;
+				if (pos < 0) {
+					keys = null;
+					break;
+				}
+				// position in the high half, index into rs in the low half
+				keys[i] = ((long) pos << 32) | i;
+				if (i > 0 && (keys[i - 1] >>> 32) >= pos)
+					ordered = false;
+			}
+			if (keys != null) {
+				if (ordered)
+					return rs;
+				Arrays.sort(keys);
+				ResultBuffer result = new ResultBuffer();
+				long previous = -1;
+				for (i = 0; i < size; i++) {
+					long pos = keys[i] >>> 32;
+					if (pos != previous)
+						result.add(rs.item((int) keys[i]));
+					previous = pos;
+				}
+				return result;
+			}
+		}
+
+		TreeSet all = new TreeSet(new NodeOrder());
 		all.addAll(rs.getCollection());
 		return new ResultBuffer().concat(all);
 	}
+
+	/**
+	 * Union of two node sequences, by merging them in document order.
+	 * Sequences which are in document order already aren't sorted again.
+	 * 
+	 * @param one
+	 *            First sequence of nodes.
+	 * @param two
+	 *            Second sequence of nodes.
+	 * @return The nodes in either sequence, in document order, without
+	 *         duplicates.
+	 */
+	public static ResultBuffer union(ResultSequence one, ResultSequence two) {
+		ResultBuffer a = linarize(new ResultBuffer().concat(one));
+		ResultBuffer b = linarize(new ResultBuffer().concat(two));
+
+		NodeOrder orders = new NodeOrder();
+		ResultBuffer rs = new ResultBuffer();
+		int sizeA = a.size();
+		int sizeB = b.size();
+		int i = 0;
+		int j = 0;
+		while (i < sizeA && j < sizeB) {
+			NodeType nodeA = (NodeType) a.item(i);
+			NodeType nodeB = (NodeType) b.item(j);
+			int cmp = compare_node(nodeA, nodeB, orders);
+			if (cmp <= 0) {
+				rs.add(nodeA);
+				i++;
+				if (cmp == 0)
+					j++;
+			} else {
+				rs.add(nodeB);
+				j++;
+			}
+		}
+		for (; i < sizeA; i++)
+			rs.add(a.item(i));
+		for (; j < sizeB; j++)
+			rs.add(b.item(j));
+		return rs;
+	}
+
+	/**
+	 * Intersection of two node sequences, by looking the nodes of the first
+	 * sequence up in an identity set of the nodes of the second.
+	 * 
+	 * @param one
+	 *            First sequence of nodes.
+	 * @param two
+	 *            Second sequence of nodes.
+	 * @return The nodes in both sequences, in document order.
+	 */
+	public static ResultBuffer intersect(ResultSequence one, ResultSequence two) {
+		return filter(one, two, true);
+	}
+
+	/**
+	 * Difference of two node sequences, by looking the nodes of the first
+	 * sequence up in an identity set of the nodes of the second.
+	 * 
+	 * @param one
+	 *            First sequence of nodes.
+	 * @param two
+	 *            Second sequence of nodes.
+	 * @return The nodes in the first sequence but not in the second, in
+	 *         document order.
+	 */
+	public static ResultBuffer except(ResultSequence one, ResultSequence two) {
+		return filter(one, two, false);
+	}
+
+	private static ResultBuffer filter(ResultSequence one, ResultSequence two, boolean keepFound) {
+		ResultBuffer rs = new ResultBuffer();
+		if (one.empty())
+			return rs;
+
+		IdentityHashMap<Node, Boolean> others = new IdentityHashMap<Node, Boolean>();
+		for (Iterator i = two.iterator(); i.hasNext();) {
+			others.put(((NodeType) i.next()).node_value(), Boolean.TRUE);
+		}
+		for (Iterator i = one.iterator(); i.hasNext();) {
+			NodeType node = (NodeType) i.next();
+			if (others.containsKey(node.node_value()) == keepFound)
+				rs.add(node);
+		}
+		return linarize(rs);
+	}
 }
@@ -38,11 +38,36 @@ public class XPathDecimalFormat extends DecimalFormat {
 	private static final String NEG_INFINITY = "-INF";
 	private static final String POS_INFINITY = "INF";
 
+	// formats aren't thread safe, and creating one for each number costs
+	// more than formatting it
+	private static final ThreadLocal<XPathDecimalFormat> _formats = new ThreadLocal<XPathDecimalFormat>() {
+		protected XPathDecimalFormat initialValue() {
+			return new XPathDecimalFormat("0");
+		}
+	};
+
 	public XPathDecimalFormat(String pattern) {
 		// Xpath hardcodes this to US locale
 		super(pattern, new DecimalFormatSymbols(Locale.US));
 	}
 
+	/**
+	 * Formats a number with a format kept for the current thread, so that
+	 * values shared between threads can be printed without sharing a format.
+	 * 
+	 * @param pattern
+	 *            The pattern to format with.
+	 * @param obj
+	 *            The number.
+	 * @return The formatted number.
+	 */
+	public static String xpathFormat(String pattern, Object obj) {
+		XPathDecimalFormat format = _formats.get();
+		// formatting may change the pattern, so set it every time
+		format.applyPattern(pattern);
+		return format.xpathFormat(obj);
+	}
+
 	/**
 	 * Formats the string dropping a Zero Exponent Value if it exists.
 	 * @param obj
@@ -30,7 +30,7 @@ public class XSByte extends XSShort {
 	 * Initializes a representation of 0
 	 */
 	public XSByte() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -42,6 +42,16 @@ public class XSByte extends XSShort {
 	public XSByte(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied byte value
+	 * 
+	 * @param x
+	 *            Byte to be stored
+	 */
+	public XSByte(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -79,18 +89,15 @@ public class XSByte extends XSShort {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
-			BigInteger min = BigInteger.valueOf(-128L);
-			BigInteger max = BigInteger.valueOf(127L);			
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(-128L, 127L)) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSByte(bigInt);
+			return new XSByte(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
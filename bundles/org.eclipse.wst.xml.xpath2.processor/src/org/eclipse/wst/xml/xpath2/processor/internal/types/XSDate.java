@@ -48,7 +48,10 @@ MathMinus, MathPlus,
 
 Cloneable {
 	private static final String XS_DATE = "xs:date";
+
+	// null until needed if the value was parsed into _millis
 	private Calendar _calendar;
+	private long _millis;
 	private boolean _timezoned;
 	private XSDuration _tz;
 
@@ -70,6 +73,20 @@ Cloneable {
 			_timezoned = true;
 	}
 
+	/**
+	 * Initializes a new representation of a supplied date, whose calendar is
+	 * only built when somebody asks for it.
+	 * 
+	 * @param millis
+	 *            The time of the UTC calendar representing the date
+	 * @param tz
+	 *            The time zone of the date to be stored.
+	 */
+	XSDate(long millis, XSDuration tz) {
+		this((Calendar) null, tz);
+		_millis = millis;
+	}
+
 	/**
 	 * Initializes a new representation of the current date
 	 */
@@ -92,12 +109,15 @@ Cloneable {
 	 * @return A copy of this date representation
 	 */
 	public Object clone() throws CloneNotSupportedException {
-		Calendar c = (Calendar) calendar().clone();
 		XSDuration t = tz();
 
 		if (t != null)
 			t = (XSDuration) t.clone();
 
+		if (_calendar == null)
+			return new XSDate(_millis, t);
+
+		Calendar c = (Calendar) calendar().clone();
 		return new XSDate(c, t);
 	}
 
@@ -141,7 +161,7 @@ Cloneable {
 		if (dt == null)
 			return null;
 
-		return new XSDate(dt.calendar(), dt.tz());
+		return new XSDate(dt.calendar_millis(), dt.tz());
 	}
 
 	/**
@@ -215,8 +235,8 @@ Cloneable {
 	 * @return the year value of the date stored
 	 */
 	public int year() {
-		int y = _calendar.get(Calendar.YEAR);
-		if (_calendar.get(Calendar.ERA) == GregorianCalendar.BC)
+		int y = calendar().get(Calendar.YEAR);
+		if (calendar().get(Calendar.ERA) == GregorianCalendar.BC)
 			y *= -1;
 
 		return y;
@@ -228,7 +248,7 @@ Cloneable {
 	 * @return the month value of the date stored
 	 */
 	public int month() {
-		return _calendar.get(Calendar.MONTH) + 1;
+		return calendar().get(Calendar.MONTH) + 1;
 	}
 
 	/**
@@ -237,7 +257,7 @@ Cloneable {
 	 * @return the day value of the date stored
 	 */
 	public int day() {
-		return _calendar.get(Calendar.DAY_OF_MONTH);
+		return calendar().get(Calendar.DAY_OF_MONTH);
 	}
 
 	/**
@@ -312,9 +332,17 @@ Cloneable {
 	 * @return Calendar representation of the date stored
 	 */
 	public Calendar calendar() {
+		if (_calendar == null)
+			_calendar = utc_calendar(_millis);
 		return _calendar;
 	}
 
+	protected long calendar_millis() {
+		if (_calendar == null)
+			return _millis;
+		return _calendar.getTimeInMillis();
+	}
+
 	/**
 	 * Retrieves the timezone associated with the date stored
 	 * 
@@ -337,6 +365,13 @@ Cloneable {
 	 */
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSDate val = (XSDate) NumericType.get_single_type((Item)arg, XSDate.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
+		// parsed values have identical calendars
+		if (_calendar == null && val._calendar == null)
+			return true;
+
+		// Calendar.equals() also compares the zones and settings
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
@@ -354,10 +389,8 @@ Cloneable {
 	 */
 	public boolean lt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSDate val = (XSDate) NumericType.get_single_type((Item)arg, XSDate.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
-		return thiscal.before(thatcal);
+		return normalized_millis(tz()) < val.normalized_millis(val.tz());
 	}
 
 	/**
@@ -371,10 +404,8 @@ Cloneable {
 	 */
 	public boolean gt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSDate val = (XSDate) NumericType.get_single_type((Item)arg, XSDate.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
-		return thiscal.after(thatcal);
+		return normalized_millis(tz()) > val.normalized_millis(val.tz());
 	}
 
 	// XXX this is incorrect [epoch]
@@ -464,10 +495,8 @@ Cloneable {
 	private ResultSequence minusXSDate(ResultSequence arg) throws DynamicError {
 		XSDate val = (XSDate) NumericType.get_single_type(arg, XSDate.class);
 		Duration dtduration = null;
-		Calendar thisCal = normalizeCalendar(calendar(), tz());
-		Calendar thatCal = normalizeCalendar(val.calendar(), val.tz());
-		long duration = thisCal.getTimeInMillis()
-				- thatCal.getTimeInMillis();
+		long duration = normalized_millis(tz())
+				- val.normalized_millis(val.tz());
 		dtduration = _datatypeFactory.newDuration(duration);
 		return ResultSequenceFactory.create_new(XSDayTimeDuration
 				.parseDTDuration(dtduration.toString()));
@@ -47,7 +47,11 @@ MathMinus, MathPlus,
 
 Cloneable {
 	private static final String XS_DATE_TIME = "xs:dateTime";
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+	// null until needed if the value was parsed into _millis
 	private Calendar _calendar;
+	private long _millis;
 	private boolean _timezoned;
 	private XSDuration _tz;
 
@@ -70,18 +74,35 @@ Cloneable {
 			_timezoned = true;
 	}
 
+	/**
+	 * Initiates a new representation of a supplied date and time, whose
+	 * calendar is only built when somebody asks for it.
+	 * 
+	 * @param millis
+	 *            The time of the UTC calendar representing the date and time
+	 * @param tz
+	 *            The timezone of the date to be stored.
+	 */
+	XSDateTime(long millis, XSDuration tz) {
+		this((Calendar) null, tz);
+		_millis = millis;
+	}
+
 	/**
 	 * Creates a copy of this date and time representation
 	 * 
 	 * @return A copy of this date and time representation
 	 */
 	public Object clone() throws CloneNotSupportedException {
-		Calendar c = (Calendar) calendar().clone();
 		XSDuration t = tz();
 
 		if (t != null)
 			t = (XSDuration) t.clone();
 
+		if (_calendar == null)
+			return new XSDateTime(_millis, t);
+
+		Calendar c = (Calendar) calendar().clone();
 		return new XSDateTime(c, t);
 	}
 
@@ -424,6 +445,10 @@ Cloneable {
 		if (d == null)
 			return null;
 
+		XSDateTime common = parse_common(d, time, timezone);
+		if (common != null)
+			return common;
+
 		// SANITY CHEX
 		TimeZone UTC = TimeZone.getTimeZone("UTC");
 		GregorianCalendar cal = new GregorianCalendar(UTC);
@@ -488,6 +513,110 @@ Cloneable {
 		return new XSDateTime(cal, tzd);
 	}
 
+	/**
+	 * Builds the common case of a date and time of a year after the Gregorian
+	 * reform, with a two digit seconds field, straight into milliseconds
+	 * without going through a Calendar. Anything else is left to
+	 * parseDateTime, which has the last word on odd input.
+	 * 
+	 * @param d
+	 *            The year, month and day as parsed by parse_date
+	 * @param time
+	 *            The time part of the string
+	 * @param timezone
+	 *            The timezone part of the string, or null
+	 * @return The XSDateTime, or null if the value isn't a common case
+	 */
+	private static XSDateTime parse_common(int[] d, String time, String timezone) {
+		int year = d[0], month = d[1], day = d[2];
+		if (year < 1600 || year > 9999 || month < 1 || month > 12 || day < 1
+				|| day > days_in_month(year, month))
+			return null;
+
+		int len = time.length();
+		if (len < 8 || time.charAt(2) != ':' || time.charAt(5) != ':')
+			return null;
+		int hour = two_digits(time, 0);
+		int minute = two_digits(time, 3);
+		int second = two_digits(time, 6);
+		if (hour == 24)
+			hour = 0; // as parse_time does
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59
+				|| second < 0 || second > 59)
+			return null;
+
+		int ms = 0;
+		if (len > 8) {
+			if (time.charAt(8) != '.' || len == 9)
+				return null;
+			for (int i = 9; i < len; i++) {
+				if (!is_digit(time.charAt(i)))
+					return null;
+			}
+			// the same rounding as parseDateTime
+			double sec = Double.parseDouble(time.substring(6));
+			ms = (int) ((sec - ((int) sec)) * 1000);
+		}
+
+		XSDuration tzd = null;
+		if (timezone != null) {
+			if (timezone.length() == 6) {
+				if (timezone.charAt(3) != ':')
+					return null;
+				int tzh = two_digits(timezone, 1);
+				int tzm = two_digits(timezone, 4);
+				if (tzh < 0 || tzh > 14 || tzm < 0 || tzm > 59)
+					return null;
+				char sign = timezone.charAt(0);
+				if (sign != '+' && sign != '-')
+					return null;
+				tzd = new XSDayTimeDuration(0, tzh, tzm, 0.0, sign == '-');
+			} else if (timezone.equals("Z")) {
+				tzd = new XSDayTimeDuration(0, 0, 0, 0.0, false);
+			} else {
+				return null;
+			}
+		}
+
+		long millis = days_since_epoch(year, month, day) * MILLIS_PER_DAY
+				+ ((hour * 60L + minute) * 60 + second) * 1000 + ms;
+		return new XSDateTime(millis, tzd);
+	}
+
+	// the value of two decimal digits at index, or -1
+	private static int two_digits(String str, int index) {
+		char hi = str.charAt(index), lo = str.charAt(index + 1);
+		if (!is_digit(hi) || !is_digit(lo))
+			return -1;
+		return (hi - '0') * 10 + (lo - '0');
+	}
+
+	private static int days_in_month(int year, int month) {
+		switch (month) {
+		case 2:
+			boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+			return leap ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	// days from 1970-01-01 in the proleptic Gregorian calendar, for positive years
+	private static long days_since_epoch(int year, int month, int day) {
+		if (month <= 2)
+			year--;
+		int era = year / 400;
+		int yearOfEra = year - era * 400;
+		int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468;
+	}
+
 	/**
 	 * Creates a new result sequence consisting of the retrievable date and time
 	 * value in the supplied result sequence
@@ -559,8 +688,8 @@ Cloneable {
 	 * @return the year value of the date stored
 	 */
 	public int year() {
-		int y = _calendar.get(Calendar.YEAR);
-		if (_calendar.get(Calendar.ERA) == GregorianCalendar.BC)
+		int y = calendar().get(Calendar.YEAR);
+		if (calendar().get(Calendar.ERA) == GregorianCalendar.BC)
 			y *= -1;
 
 		return y;
@@ -572,7 +701,7 @@ Cloneable {
 	 * @return the month value of the date stored
 	 */
 	public int month() {
-		return _calendar.get(Calendar.MONTH) + 1;
+		return calendar().get(Calendar.MONTH) + 1;
 	}
 
 	/**
@@ -581,7 +710,7 @@ Cloneable {
 	 * @return the day value of the date stored
 	 */
 	public int day() {
-		return _calendar.get(Calendar.DAY_OF_MONTH);
+		return calendar().get(Calendar.DAY_OF_MONTH);
 	}
 
 	/**
@@ -590,7 +719,7 @@ Cloneable {
 	 * @return the hour value of the date stored
 	 */
 	public int hour() {
-		return _calendar.get(Calendar.HOUR_OF_DAY);
+		return calendar().get(Calendar.HOUR_OF_DAY);
 	}
 
 	/**
@@ -599,7 +728,7 @@ Cloneable {
 	 * @return the minute value of the date stored
 	 */
 	public int minute() {
-		return _calendar.get(Calendar.MINUTE);
+		return calendar().get(Calendar.MINUTE);
 	}
 
 	/**
@@ -608,9 +737,9 @@ Cloneable {
 	 * @return the seconds value of the date stored
 	 */
 	public double second() {
-		double s = _calendar.get(Calendar.SECOND);
+		double s = calendar().get(Calendar.SECOND);
 
-		double ms = _calendar.get(Calendar.MILLISECOND);
+		double ms = calendar().get(Calendar.MILLISECOND);
 
 		ms /= 1000;
 
@@ -736,9 +865,17 @@ Cloneable {
 	 * @return Calendar representation of the date stored
 	 */
 	public Calendar calendar() {
+		if (_calendar == null)
+			_calendar = utc_calendar(_millis);
 		return _calendar;
 	}
 
+	protected long calendar_millis() {
+		if (_calendar == null)
+			return _millis;
+		return _calendar.getTimeInMillis();
+	}
+
 	// comparisons
 	/**
 	 * Equality comparison on this and the supplied dates and times (taking
@@ -753,6 +890,13 @@ Cloneable {
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSDateTime val = (XSDateTime) NumericType.get_single_type(arg,
 				XSDateTime.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
+		// parsed values have identical calendars
+		if (_calendar == null && val._calendar == null)
+			return true;
+
+		// Calendar.equals() also compares the zones and settings
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
@@ -772,10 +916,8 @@ Cloneable {
 	public boolean lt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSDateTime val = (XSDateTime) NumericType.get_single_type(arg,
 				XSDateTime.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
-		return thiscal.before(thatcal);
+		return normalized_millis(tz()) < val.normalized_millis(val.tz());
 	}
 
 	/**
@@ -791,10 +933,8 @@ Cloneable {
 	public boolean gt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSDateTime val = (XSDateTime) NumericType.get_single_type(arg,
 				XSDateTime.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
-		return thiscal.after(thatcal);
+		return normalized_millis(tz()) > val.normalized_millis(val.tz());
 	}
 
 	/**
@@ -865,10 +1005,8 @@ Cloneable {
 		XSDateTime val = (XSDateTime) NumericType.get_single_type(arg,
 				XSDateTime.class);
 
-		Calendar thisCal = normalizeCalendar(calendar(), tz());
-		Calendar thatCal = normalizeCalendar(val.calendar(), val.tz());
-		long duration = thisCal.getTimeInMillis()
-				- thatCal.getTimeInMillis();
+		long duration = normalized_millis(tz())
+				- val.normalized_millis(val.tz());
 		Duration dtduration = _datatypeFactory.newDuration(duration);
 		return ResultSequenceFactory.create_new(XSDayTimeDuration
 				.parseDTDuration(dtduration.toString()));
@@ -39,8 +39,8 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLi
 public class XSDecimal extends NumericType {
 
 	private static final String XS_DECIMAL = "xs:decimal";
+	private static final String PATTERN = "0.####################";
 	private BigDecimal _value;
-	private XPathDecimalFormat format = new XPathDecimalFormat("0.####################");
 
 	/**
 	 * Initiates a representation of 0.0
@@ -94,9 +94,9 @@ public class XSDecimal extends NumericType {
 		}
 		
 		// strip trailing zeros
-		_value = new BigDecimal((_value.toString()).replaceFirst("0*", ""));
+		BigDecimal value = new BigDecimal((_value.toString()).replaceFirst("0*", ""));
 		
-		return format.xpathFormat(_value);
+		return XPathDecimalFormat.xpathFormat(PATTERN, value);
 	}
 
 	/**
@@ -105,7 +105,7 @@ public class XSDecimal extends NumericType {
 	 * @return True if this XSDecimal represents 0. False otherwise
 	 */
 	public boolean zero() {
-		return (_value.compareTo(new BigDecimal(0.0)) == 0);
+		return getValue().signum() == 0;
 	}
 
 	/**
@@ -197,7 +197,7 @@ public class XSDecimal extends NumericType {
 	 * @deprecated Use getValue() instead.
 	 */
 	public double double_value() {
-		return _value.doubleValue();
+		return getValue().doubleValue();
 	}
 	
 	public BigDecimal getValue() {
@@ -241,7 +241,7 @@ public class XSDecimal extends NumericType {
 	    } else {
 	    	dt = (XSDecimal) at;
 	    }
-		return (_value.compareTo(dt.getValue()) == 0);
+		return (getValue().compareTo(dt.getValue()) == 0);
 	}
 
 	/**
@@ -257,7 +257,7 @@ public class XSDecimal extends NumericType {
 		Item carg = convertArg(arg);
 		
 		XSDecimal val = (XSDecimal) get_single_type(carg, XSDecimal.class);
-		return (_value.compareTo(val.getValue()) == 1);
+		return (getValue().compareTo(val.getValue()) == 1);
 	}
 
 	protected Item convertArg(AnyType arg) throws DynamicError {
@@ -279,7 +279,7 @@ public class XSDecimal extends NumericType {
 	public boolean lt(AnyType arg, DynamicContext context) throws DynamicError {
 		Item carg = convertArg(arg);
 		XSDecimal val = (XSDecimal) get_single_type(carg, XSDecimal.class);
-		return (_value.compareTo(val.getValue()) == -1);
+		return (getValue().compareTo(val.getValue()) == -1);
 	}
 
 	// math
@@ -302,7 +302,7 @@ public class XSDecimal extends NumericType {
 		XSDecimal dt = (XSDecimal) at;
 
 		// own it
-		return ResultSequenceFactory.create_new(new XSDecimal(_value.add(dt.getValue())));
+		return ResultSequenceFactory.create_new(new XSDecimal(getValue().add(dt.getValue())));
 	}
 	
 	private ResultSequence convertResultSequence(ResultSequence arg)
@@ -338,7 +338,7 @@ public class XSDecimal extends NumericType {
 			DynamicError.throw_type_error();
 		XSDecimal dt = (XSDecimal) at;
 
-		return ResultSequenceFactory.create_new(new XSDecimal(_value.subtract(dt.getValue())));
+		return ResultSequenceFactory.create_new(new XSDecimal(getValue().subtract(dt.getValue())));
 	}
 
 	/**
@@ -354,7 +354,7 @@ public class XSDecimal extends NumericType {
 		ResultSequence carg = convertResultSequence(arg);
 
 		XSDecimal val = (XSDecimal) get_single_type(carg, XSDecimal.class);
-		BigDecimal result = _value.multiply(val.getValue());
+		BigDecimal result = getValue().multiply(val.getValue());
 		return ResultSequenceFactory.create_new(new XSDecimal(result));
 	}
 
@@ -395,7 +395,7 @@ public class XSDecimal extends NumericType {
 
 		if (val.zero())
 			throw DynamicError.div_zero(null);
-		BigInteger _ivalue = _value.toBigInteger();
+		BigInteger _ivalue = getValue().toBigInteger();
 		BigInteger ival =  val.getValue().toBigInteger();
 		BigInteger result = _ivalue.divide(ival);
 		return ResultSequenceFactory.create_new(new 
@@ -416,8 +416,8 @@ public class XSDecimal extends NumericType {
 
 		XSDecimal val = (XSDecimal) get_single_type(carg, XSDecimal.class);
 		
-		// BigDecimal result = _value.remainder(val.getValue());
-		BigDecimal result = remainder(_value, val.getValue()); 
+		// BigDecimal result = getValue().remainder(val.getValue());
+		BigDecimal result = remainder(getValue(), val.getValue()); 
 		
 		return ResultSequenceFactory.create_new(new XSDecimal(result));
 	}
@@ -438,7 +438,7 @@ public class XSDecimal extends NumericType {
 	 * @return A XSDecimal representing the negation of this XSDecimal
 	 */
 	public ResultSequence unary_minus() {
-		BigDecimal result = _value.negate();
+		BigDecimal result = getValue().negate();
 		return ResultSequenceFactory.create_new(new XSDecimal(result));
 	}
 
@@ -449,7 +449,7 @@ public class XSDecimal extends NumericType {
 	 * @return A XSDecimal representing the absolute value of the number stored
 	 */
 	public NumericType abs() {
-		return new XSDecimal(_value.abs());
+		return new XSDecimal(getValue().abs());
 	}
 
 	/**
@@ -459,7 +459,7 @@ public class XSDecimal extends NumericType {
 	 *         number stored
 	 */
 	public NumericType ceiling() {
-		BigDecimal ceiling = _value.setScale(0, BigDecimal.ROUND_CEILING);
+		BigDecimal ceiling = getValue().setScale(0, BigDecimal.ROUND_CEILING);
 		return new XSDecimal(ceiling);
 	}
 
@@ -470,7 +470,7 @@ public class XSDecimal extends NumericType {
 	 *         number stored
 	 */
 	public NumericType floor() {
-		BigDecimal floor = _value.setScale(0, BigDecimal.ROUND_FLOOR);
+		BigDecimal floor = getValue().setScale(0, BigDecimal.ROUND_FLOOR);
 		return new XSDecimal(floor);
 	}
 
@@ -480,7 +480,7 @@ public class XSDecimal extends NumericType {
 	 * @return A XSDecimal representing the closest long of the number stored.
 	 */
 	public NumericType round() {
-		BigDecimal round = _value.setScale(0, BigDecimal.ROUND_UP);
+		BigDecimal round = getValue().setScale(0, BigDecimal.ROUND_UP);
 		return new XSDecimal(round);
 	}
 
@@ -500,7 +500,7 @@ public class XSDecimal extends NumericType {
 	 * @return A XSDecimal representing the closest long of the number stored.
 	 */
 	public NumericType round_half_to_even(int precision) {
-		BigDecimal round = _value.setScale(precision, BigDecimal.ROUND_HALF_EVEN);
+		BigDecimal round = getValue().setScale(precision, BigDecimal.ROUND_HALF_EVEN);
 		return new XSDecimal(round);
 	}
 
@@ -510,7 +510,7 @@ public class XSDecimal extends NumericType {
 
 	@Override
 	public Number getNativeValue() {
-		return _value;
+		return getValue();
 	}
 
 }
@@ -37,8 +37,7 @@ public class XSDouble extends NumericType {
 
 	private static final String XS_DOUBLE = "xs:double";
 	private Double _value;
-	private XPathDecimalFormat format = new XPathDecimalFormat(
-			"0.################E0");
+	private static final String PATTERN = "0.################E0";
 
 	/**
 	 * Initialises a representation of the supplied number
@@ -193,7 +192,7 @@ public class XSDouble extends NumericType {
 			return "NaN";
 		}
 
-		return format.xpathFormat(_value);
+		return XPathDecimalFormat.xpathFormat(PATTERN, _value);
 	}
 
 	/**
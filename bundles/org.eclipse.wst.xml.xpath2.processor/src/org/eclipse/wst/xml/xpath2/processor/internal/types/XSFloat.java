@@ -37,7 +37,7 @@ public class XSFloat extends NumericType {
 
 	private static final String XS_FLOAT = "xs:float";
 	private Float _value;
-	private XPathDecimalFormat format = new XPathDecimalFormat("0.#######E0");
+	private static final String PATTERN = "0.#######E0";
 	/**
 	 * Initiates a representation of the supplied number
 	 * 
@@ -109,7 +109,7 @@ public class XSFloat extends NumericType {
 		   return "NaN";	
 		}
 								
-		return format.xpathFormat(_value);
+		return XPathDecimalFormat.xpathFormat(PATTERN, _value);
 	}
 
 	/**
@@ -301,6 +301,8 @@ public class XSGDay extends CalendarType implements CmpEq {
 	 */
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSGDay val = (XSGDay) NumericType.get_single_type(arg, XSGDay.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 		
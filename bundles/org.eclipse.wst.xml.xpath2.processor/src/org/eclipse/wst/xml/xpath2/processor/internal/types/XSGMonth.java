@@ -297,6 +297,8 @@ public class XSGMonth extends CalendarType implements CmpEq {
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSGMonth val = (XSGMonth) NumericType.get_single_type(arg,
 				XSGMonth.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
@@ -274,6 +274,8 @@ public class XSGYear extends CalendarType implements CmpEq {
 	 */
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSGYear val = (XSGYear) NumericType.get_single_type(arg, XSGYear.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
@@ -299,6 +299,8 @@ public class XSGYearMonth extends CalendarType implements CmpEq {
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSGYearMonth val = (XSGYearMonth) NumericType.get_single_type(arg,
 				XSGYearMonth.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
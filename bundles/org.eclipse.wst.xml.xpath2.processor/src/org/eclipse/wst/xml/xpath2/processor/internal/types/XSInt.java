@@ -29,7 +29,7 @@ public class XSInt extends XSLong {
 	 * Initializes a representation of 0
 	 */
 	public XSInt() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -41,6 +41,16 @@ public class XSInt extends XSLong {
 	public XSInt(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied int value
+	 * 
+	 * @param x
+	 *            Int to be stored
+	 */
+	public XSInt(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -79,18 +89,15 @@ public class XSInt extends XSLong {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
-			BigInteger min = BigInteger.valueOf(-2147483648L);
-			BigInteger max = BigInteger.valueOf(2147483647L);			
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(-2147483648L, 2147483647L)) {
 			   // invalid input
 			   DynamicError.throw_type_error();	
 			}
 			
-			return new XSInt(bigInt);
+			return new XSInt(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
@@ -33,17 +33,36 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLi
 
 /**
  * A representation of the Integer datatype
+ * 
+ * Values which fit in a long are kept as one, and arithmetic on them is done
+ * in long arithmetic as long as it doesn't overflow. Only larger values are
+ * kept as a BigInteger. The BigDecimal seen by XSDecimal is made on demand.
  */
 public class XSInteger extends XSDecimal {
 
 	private static final String XS_INTEGER = "xs:integer";
-	private BigInteger _value;
+
+	// _big is null whenever the value fits in _long
+	private long _long;
+	private BigInteger _big;
+	private BigDecimal _decimal;
 
 	/**
 	 * Initializes a representation of 0
 	 */
 	public XSInteger() {
-		this(BigInteger.valueOf(0));
+		this(0L);
+	}
+
+	/**
+	 * Initializes a representation of the supplied integer
+	 * 
+	 * @param x
+	 *            Integer to be stored
+	 */
+	public XSInteger(long x) {
+		super((BigDecimal) null);
+		_long = x;
 	}
 
 	/**
@@ -53,8 +72,8 @@ public class XSInteger extends XSDecimal {
 	 *            Integer to be stored
 	 */
 	public XSInteger(BigInteger x) {
-		super(new BigDecimal(x));
-		_value = x;
+		super((BigDecimal) null);
+		store(x);
 	}
 
 	/**
@@ -64,8 +83,49 @@ public class XSInteger extends XSDecimal {
 	 *            Integer to be stored
 	 */
 	public XSInteger(String x) {
-		super(new BigDecimal(x));
-		_value = new BigInteger(x);
+		super((BigDecimal) null);
+		try {
+			_long = Long.parseLong(x);
+		} catch (NumberFormatException e) {
+			store(new BigInteger(x));
+		}
+	}
+
+	private void store(BigInteger x) {
+		if (x.bitLength() < 64) {
+			_long = x.longValue();
+			_big = null;
+		} else {
+			_big = x;
+		}
+		_decimal = null;
+	}
+
+	// the result of an operation which overflowed long arithmetic
+	private static ResultSequence big_result(BigInteger x) {
+		return ResultSequenceFactory.create_new(new XSInteger(x));
+	}
+
+	private static ResultSequence long_result(long x) {
+		return ResultSequenceFactory.create_new(new XSInteger(x));
+	}
+
+	/**
+	 * Reads an integer from the lexical form of an item, without going
+	 * through the lexical form if the item already is an integer.
+	 * 
+	 * @param aat
+	 *            The item.
+	 * @return The integer.
+	 * @throws NumberFormatException
+	 *             If the item isn't an integer in lexical form.
+	 */
+	protected static XSInteger lexical_integer(Item aat) {
+		if (aat instanceof XSInteger) {
+			XSInteger i = (XSInteger) aat;
+			return i._big == null ? new XSInteger(i._long) : new XSInteger(i._big);
+		}
+		return new XSInteger(aat.getStringValue());
 	}
 
 	/**
@@ -92,12 +152,12 @@ public class XSInteger extends XSDecimal {
 	 * @return String representation of the integer stored
 	 */
 	public String getStringValue() {
-		return _value.toString();
+		return _big == null ? Long.toString(_long) : _big.toString();
 	}
 
 	@Override
 	public Number getNativeValue() {
-		return _value;
+		return int_value();
 	}
 	
 	/**
@@ -106,7 +166,35 @@ public class XSInteger extends XSDecimal {
 	 * @return True is the integer represented is 0. False otherwise
 	 */
 	public boolean zero() {
-		return (_value.compareTo(BigInteger.ZERO) == 0);
+		return _big == null && _long == 0;
+	}
+
+	public BigDecimal getValue() {
+		if (_decimal == null)
+			_decimal = _big == null ? BigDecimal.valueOf(_long) : new BigDecimal(_big);
+		return _decimal;
+	}
+
+	public double double_value() {
+		return _big == null ? (double) _long : _big.doubleValue();
+	}
+
+	/**
+	 * @param min
+	 *            Smallest value allowed.
+	 * @param max
+	 *            Largest value allowed.
+	 * @return True if the integer stored lies in the range, inclusively.
+	 */
+	public boolean in_range(long min, long max) {
+		return _big == null && _long >= min && _long <= max;
+	}
+
+	/**
+	 * @return The sign of the integer stored: -1, 0 or 1.
+	 */
+	public int signum() {
+		return _big == null ? (_long < 0 ? -1 : (_long == 0 ? 0 : 1)) : _big.signum();
 	}
 
 	/**
@@ -138,6 +226,8 @@ public class XSInteger extends XSDecimal {
 
 		
 		try {
+			if (aat instanceof XSInteger)
+				return lexical_integer(aat);
 			BigInteger bigInt = castInteger(aat);
 			return new XSInteger(bigInt);
 		} catch (NumberFormatException e) {
@@ -182,7 +272,7 @@ public class XSInteger extends XSDecimal {
 	protected boolean isLexicalValue(String value) {
 		
 		try {
-			new BigInteger(value);
+			new XSInteger(value);
 		} catch (NumberFormatException ex) {
 			return false;
 		}
@@ -196,7 +286,17 @@ public class XSInteger extends XSDecimal {
 	 * @return The actual integer value stored
 	 */
 	public BigInteger int_value() {
-		return _value;
+		return _big == null ? BigInteger.valueOf(_long) : _big;
+	}
+
+	/**
+	 * Retrieves the integer stored as a long, keeping only the low-order 64
+	 * bits of larger values like BigInteger.longValue() does
+	 * 
+	 * @return The integer stored, as a long
+	 */
+	public long long_value() {
+		return _big == null ? _long : _big.longValue();
 	}
 
 	/**
@@ -206,8 +306,7 @@ public class XSInteger extends XSDecimal {
 	 *            Integer to be stored
 	 */
 	public void set_int(BigInteger x) {
-		_value = x;
-		set_double(x.intValue());
+		store(x);
 	}
 
 	/**
@@ -227,9 +326,13 @@ public class XSInteger extends XSDecimal {
 		
 		XSInteger val = (XSInteger)at;
 
-		return ResultSequenceFactory.create_new(new 
-				                   XSInteger(int_value().add(val.int_value())));
-		
+		if (_big == null && val._big == null) {
+			long a = _long, b = val._long, r = a + b;
+			// overflow iff both operands have the sign opposite to the result
+			if (((a ^ r) & (b ^ r)) >= 0)
+				return long_result(r);
+		}
+		return big_result(int_value().add(val.int_value()));
 	}
 
 	
@@ -261,8 +364,13 @@ public class XSInteger extends XSDecimal {
 		ResultSequence carg = convertResultSequence(arg);
 		XSInteger val = (XSInteger) get_single_type(carg, XSInteger.class);
 		
-		return ResultSequenceFactory.create_new(new 
-				                 XSInteger(int_value().subtract(val.int_value())));
+		if (_big == null && val._big == null) {
+			long a = _long, b = val._long, r = a - b;
+			// overflow iff the operands differ in sign and the result has b's sign
+			if (((a ^ b) & (a ^ r)) >= 0)
+				return long_result(r);
+		}
+		return big_result(int_value().subtract(val.int_value()));
 	}
 
 	/**
@@ -279,8 +387,16 @@ public class XSInteger extends XSDecimal {
 
 		XSInteger val = (XSInteger) get_single_type(carg, XSInteger.class);
 		
-		return ResultSequenceFactory.create_new(new 
-				                 XSInteger(int_value().multiply(val.int_value())));
+		if (_big == null && val._big == null) {
+			long a = _long, b = val._long, r = a * b;
+			// operands of 31 bits or less can't overflow; check the rest by
+			// dividing back
+			if (((Math.abs(a) | Math.abs(b)) >>> 31) == 0
+					|| (a != Long.MIN_VALUE && b != Long.MIN_VALUE
+						&& (b == 0 || r / b == a)))
+				return long_result(r);
+		}
+		return big_result(int_value().multiply(val.int_value()));
 	}
 
 	/**
@@ -295,6 +411,9 @@ public class XSInteger extends XSDecimal {
 		ResultSequence carg = convertResultSequence(arg);
 
 		XSInteger val = (XSInteger) get_single_type(carg, XSInteger.class);
+		if (_big == null && val._big == null && val._long != 0)
+			return long_result(_long % val._long);
+
 		BigInteger result = int_value().remainder(val.int_value()); 
 		
 		return ResultSequenceFactory.create_new(new XSInteger(result));
@@ -306,8 +425,9 @@ public class XSInteger extends XSDecimal {
 	 * @return New XSInteger representing the negation of the integer stored
 	 */
 	public ResultSequence unary_minus() {
-		return ResultSequenceFactory
-				.create_new(new XSInteger(int_value().multiply(BigInteger.valueOf(-1))));
+		if (_big == null && _long != Long.MIN_VALUE)
+			return long_result(-_long);
+		return big_result(int_value().negate());
 	}
 
 	/**
@@ -316,8 +436,26 @@ public class XSInteger extends XSDecimal {
 	 * @return New XSInteger representing the absolute of the integer stored
 	 */
 	public NumericType abs() {
+		if (_big == null && _long != Long.MIN_VALUE)
+			return new XSInteger(Math.abs(_long));
 		return new XSInteger(int_value().abs());
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.wst.xml.xpath2.processor.internal.types.XSDecimal#eq(org.eclipse.wst.xml.xpath2.processor.internal.types.AnyType)
+	 */
+	public boolean eq(AnyType at, DynamicContext dynamicContext) throws DynamicError {
+		if (at instanceof XSInteger)
+			return compare((XSInteger) at) == 0;
+		return super.eq(at, dynamicContext);
+	}
+
+	private int compare(XSInteger val) {
+		if (_big == null && val._big == null)
+			return _long < val._long ? -1 : (_long == val._long ? 0 : 1);
+		return int_value().compareTo(val.int_value());
+	}
 	
 	/*
 	 * (non-Javadoc)
@@ -327,9 +465,7 @@ public class XSInteger extends XSDecimal {
 		Item carg = convertArg(arg);
         XSInteger val = (XSInteger) get_single_type(carg, XSInteger.class);
         
-        int compareResult = int_value().compareTo(val.int_value());
-		
-		return compareResult > 0;
+		return compare(val) > 0;
 	}
 	
 	protected Item convertArg(AnyType arg) throws DynamicError {
@@ -347,9 +483,7 @@ public class XSInteger extends XSDecimal {
 		Item carg = convertArg(arg);
         XSInteger val = (XSInteger) get_single_type(carg, XSInteger.class);
         
-        int compareResult = int_value().compareTo(val.int_value());
-		
-		return compareResult < 0;
+		return compare(val) < 0;
 	}
 	
 	public ResultSequence div(ResultSequence arg) throws DynamicError {
@@ -30,7 +30,7 @@ public class XSLong extends XSInteger {
 	 * Initializes a representation of 0
 	 */
 	public XSLong() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -42,6 +42,16 @@ public class XSLong extends XSInteger {
 	public XSLong(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied long value
+	 * 
+	 * @param x
+	 *            Long to be stored
+	 */
+	public XSLong(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,18 +90,15 @@ public class XSLong extends XSInteger {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
-			BigInteger min = BigInteger.valueOf(-9223372036854775808L);
-			BigInteger max = BigInteger.valueOf(9223372036854775807L);			
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(-9223372036854775808L, 9223372036854775807L)) {
 			   // invalid input
 			   DynamicError.throw_type_error();	
 			}
 			
-			return new XSLong(bigInt);
+			return new XSLong(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
@@ -31,7 +31,7 @@ public class XSNonNegativeInteger extends XSInteger {
 	 * Initializes a representation of 0
 	 */
 	public XSNonNegativeInteger() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -43,6 +43,16 @@ public class XSNonNegativeInteger extends XSInteger {
 	public XSNonNegativeInteger(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied nonNegativeInteger value
+	 * 
+	 * @param x
+	 *            nonNegativeInteger to be stored
+	 */
+	public XSNonNegativeInteger(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,19 +90,17 @@ public class XSNonNegativeInteger extends XSInteger {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
 			// min value is, 0
 			// max value is INF
-			BigInteger min = BigInteger.valueOf(0L);			
-
-			if (bigInt.compareTo(min) < 0) {
+			if (val.signum() < 0) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSNonNegativeInteger(bigInt);
+			return new XSNonNegativeInteger(val.int_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
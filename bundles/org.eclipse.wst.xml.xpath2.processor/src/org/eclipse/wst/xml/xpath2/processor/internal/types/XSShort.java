@@ -29,7 +29,7 @@ public class XSShort extends XSInt {
 	 * Initializes a representation of 0
 	 */
 	public XSShort() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -41,6 +41,16 @@ public class XSShort extends XSInt {
 	public XSShort(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied short value
+	 * 
+	 * @param x
+	 *            Short to be stored
+	 */
+	public XSShort(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -78,18 +88,15 @@ public class XSShort extends XSInt {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
-			BigInteger min = BigInteger.valueOf(-32768L);
-			BigInteger max = BigInteger.valueOf(32767L);			
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(-32768L, 32767L)) {
 			   // invalid input
 			   DynamicError.throw_type_error();	
 			}
 			
-			return new XSShort(bigInt);
+			return new XSShort(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
@@ -318,6 +318,10 @@ Cloneable {
 	 */
 	public boolean eq(AnyType arg, DynamicContext dynamicContext) throws DynamicError {
 		XSTime val = (XSTime) NumericType.get_single_type(arg, XSTime.class);
+		if (normalized_millis(tz()) != val.normalized_millis(val.tz()))
+			return false;
+
+		// Calendar.equals() also compares the zones and settings
 		Calendar thiscal = normalizeCalendar(calendar(), tz());
 		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
@@ -334,9 +338,7 @@ Cloneable {
 	 */
 	public boolean lt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSTime val = (XSTime) NumericType.get_single_type(arg, XSTime.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
-		return thiscal.before(thatcal);
+		return normalized_millis(tz()) < val.normalized_millis(val.tz());
 	}
 	
 	/**
@@ -350,10 +352,8 @@ Cloneable {
 	 */
 	public boolean gt(AnyType arg, DynamicContext context) throws DynamicError {
 		XSTime val = (XSTime) NumericType.get_single_type(arg, XSTime.class);
-		Calendar thiscal = normalizeCalendar(calendar(), tz());
-		Calendar thatcal = normalizeCalendar(val.calendar(), val.tz());
 
-		return thiscal.after(thatcal);
+		return normalized_millis(tz()) > val.normalized_millis(val.tz());
 	}
 
 	/**
@@ -409,9 +409,7 @@ Cloneable {
 	private ResultSequence minusXSTimeDuration(Item at) {
 		XSTime val = (XSTime) at;
 		Duration dtduration = null;
-		Calendar thisCal = normalizeCalendar(calendar(), tz());
-		Calendar thatCal = normalizeCalendar(val.calendar(), val.tz());
-		long duration = thisCal.getTimeInMillis() - thatCal.getTimeInMillis();
+		long duration = normalized_millis(tz()) - val.normalized_millis(val.tz());
 		dtduration = _datatypeFactory.newDuration(duration);
 		return ResultSequenceFactory.create_new(XSDayTimeDuration.parseDTDuration(dtduration.toString()));
 	}
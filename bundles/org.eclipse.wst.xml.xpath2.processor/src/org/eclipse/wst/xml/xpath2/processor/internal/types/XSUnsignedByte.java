@@ -31,7 +31,7 @@ public class XSUnsignedByte extends XSUnsignedShort {
 	 * Initializes a representation of 0
 	 */
 	public XSUnsignedByte() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -43,6 +43,16 @@ public class XSUnsignedByte extends XSUnsignedShort {
 	public XSUnsignedByte(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied unsignedByte value
+	 * 
+	 * @param x
+	 *            unsignedByte to be stored
+	 */
+	public XSUnsignedByte(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,20 +90,17 @@ public class XSUnsignedByte extends XSUnsignedShort {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
 			// min value is 0
 			// max value is 255
-			BigInteger min = BigInteger.valueOf(0);
-			BigInteger max = BigInteger.valueOf(255L);
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(0L, 255L)) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSUnsignedByte(bigInt);
+			return new XSUnsignedByte(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
@@ -31,7 +31,7 @@ public class XSUnsignedInt extends XSUnsignedLong {
 	 * Initializes a representation of 0
 	 */
 	public XSUnsignedInt() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -43,6 +43,16 @@ public class XSUnsignedInt extends XSUnsignedLong {
 	public XSUnsignedInt(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied unsignedInt value
+	 * 
+	 * @param x
+	 *            unsignedInt to be stored
+	 */
+	public XSUnsignedInt(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,20 +90,17 @@ public class XSUnsignedInt extends XSUnsignedLong {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
 			// min value is 0
 			// max value is 4294967295
-			BigInteger min = BigInteger.valueOf(0);
-			BigInteger max = BigInteger.valueOf(4294967295L);
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(0L, 4294967295L)) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSUnsignedInt(bigInt);
+			return new XSUnsignedInt(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
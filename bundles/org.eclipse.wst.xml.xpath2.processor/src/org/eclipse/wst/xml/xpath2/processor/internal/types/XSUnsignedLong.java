@@ -26,12 +26,13 @@ import org.eclipse.wst.xml.xpath2.processor.internal.types.builtin.BuiltinTypeLi
 public class XSUnsignedLong extends XSNonNegativeInteger {
 	
 	private static final String XS_UNSIGNED_LONG = "xs:unsignedLong";
+	private static final BigInteger MAX_VALUE = new BigInteger("18446744073709551615");
 
 	/**
 	 * Initializes a representation of 0
 	 */
 	public XSUnsignedLong() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -43,6 +44,16 @@ public class XSUnsignedLong extends XSNonNegativeInteger {
 	public XSUnsignedLong(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied unsignedLong value
+	 * 
+	 * @param x
+	 *            unsignedLong to be stored
+	 */
+	public XSUnsignedLong(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,20 +91,17 @@ public class XSUnsignedLong extends XSNonNegativeInteger {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
 			// min value is 0
 			// max value is 18446744073709551615
-			BigInteger min = BigInteger.valueOf(0);
-			BigInteger max = new BigInteger("18446744073709551615");
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (val.signum() < 0 || val.int_value().compareTo(MAX_VALUE) > 0) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSUnsignedLong(bigInt);
+			return new XSUnsignedLong(val.int_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
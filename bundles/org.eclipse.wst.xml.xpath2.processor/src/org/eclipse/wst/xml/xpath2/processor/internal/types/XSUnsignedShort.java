@@ -31,7 +31,7 @@ public class XSUnsignedShort extends XSUnsignedInt {
 	 * Initializes a representation of 0
 	 */
 	public XSUnsignedShort() {
-	  this(BigInteger.valueOf(0));
+	  this(0L);
 	}
 	
 	/**
@@ -43,6 +43,16 @@ public class XSUnsignedShort extends XSUnsignedInt {
 	public XSUnsignedShort(BigInteger x) {
 		super(x);
 	}
+
+	/**
+	 * Initializes a representation of the supplied unsignedShort value
+	 * 
+	 * @param x
+	 *            unsignedShort to be stored
+	 */
+	public XSUnsignedShort(long x) {
+		super(x);
+	}
 	
 	/**
 	 * Retrieves the datatype's full pathname
@@ -80,20 +90,17 @@ public class XSUnsignedShort extends XSUnsignedInt {
 		Item aat = arg.first();
 
 		try {
-			BigInteger bigInt = new BigInteger(aat.getStringValue());
+			XSInteger val = lexical_integer(aat);
 			
 			// doing the range checking
 			// min value is 0
 			// max value is 65535
-			BigInteger min = BigInteger.valueOf(0);
-			BigInteger max = BigInteger.valueOf(65535L);
-
-			if (bigInt.compareTo(min) < 0 || bigInt.compareTo(max) > 0) {
+			if (!val.in_range(0L, 65535L)) {
 			   // invalid input
 			   throw DynamicError.cant_cast(null);	
 			}
 			
-			return new XSUnsignedShort(bigInt);
+			return new XSUnsignedShort(val.long_value());
 		} catch (NumberFormatException e) {
 			throw DynamicError.cant_cast(null);
 		}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe map of bounded size, for caching values which are expensive to
+ * compute. Lookups never block; when the cache grows beyond its maximum size,
+ * the least recently used entries are evicted.
+ */
+public class BoundedCache<K, V> {
+
+	private final int _maxSize;
+	private final ConcurrentHashMap<K, Entry<V>> _cache;
+	private final Object _evictionLock = new Object();
+
+	private final AtomicLong _clock = new AtomicLong();
+	private final AtomicLong _hits = new AtomicLong();
+	private final AtomicLong _misses = new AtomicLong();
+	private final AtomicLong _evictions = new AtomicLong();
+
+	static final class Entry<V> {
+		final V value;
+		volatile long lastAccess;
+
+		Entry(V value, long lastAccess) {
+			this.value = value;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	/**
+	 * @param maxSize
+	 *            Maximum number of values to keep.
+	 */
+	public BoundedCache(int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+		_maxSize = maxSize;
+		_cache = new ConcurrentHashMap<K, Entry<V>>(Math.min(maxSize, 1024));
+	}
+
+	/**
+	 * @param key
+	 *            The key.
+	 * @return The cached value, or null if there is none.
+	 */
+	public V get(K key) {
+		Entry<V> entry = _cache.get(key);
+		if (entry == null) {
+			_misses.incrementAndGet();
+			return null;
+		}
+		_hits.incrementAndGet();
+		entry.lastAccess = _clock.incrementAndGet();
+		return entry.value;
+	}
+
+	/**
+	 * Caches a value, unless another thread has cached one for the key first.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value.
+	 * @return The value now cached for the key, which is the one to use.
+	 */
+	public V put(K key, V value) {
+		Entry<V> existing = _cache.putIfAbsent(key, new Entry<V>(value, _clock.incrementAndGet()));
+		if (existing != null) {
+			// somebody beat us to it, so share their copy
+			return existing.value;
+		}
+
+		if (_cache.size() > _maxSize)
+			evict();
+
+		return value;
+	}
+
+	// Trims the cache to 90% of its maximum size in one go, so the sort is
+	// amortized over a number of insertions. Entries used while we sort are
+	// newer than the cut-off and survive.
+	private void evict() {
+		synchronized (_evictionLock) {
+			int excess = _cache.size() - _maxSize;
+			if (excess <= 0) return;
+			excess = Math.min(excess + _maxSize / 10, _cache.size());
+
+			long[] stamps = new long[_cache.size()];
+			int count = 0;
+			for (Iterator<Entry<V>> i = _cache.values().iterator(); i.hasNext() && count < stamps.length;) {
+				stamps[count++] = i.next().lastAccess;
+			}
+			if (count == 0) return;
+			Arrays.sort(stamps, 0, count);
+			long cutOff = stamps[Math.min(excess, count) - 1];
+
+			for (Iterator<Map.Entry<K, Entry<V>>> i = _cache.entrySet().iterator(); i.hasNext();) {
+				Map.Entry<K, Entry<V>> e = i.next();
+				if (e.getValue().lastAccess <= cutOff && _cache.remove(e.getKey(), e.getValue()))
+					_evictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Removes all values from the cache. The statistics are kept.
+	 */
+	public void clear() {
+		_cache.clear();
+	}
+
+	/**
+	 * @return Number of values currently cached.
+	 */
+	public int size() {
+		return _cache.size();
+	}
+
+	/**
+	 * @return Maximum number of values kept.
+	 */
+	public int getMaxSize() {
+		return _maxSize;
+	}
+
+	/**
+	 * @return Number of lookups which found a value.
+	 */
+	public long getHitCount() {
+		return _hits.get();
+	}
+
+	/**
+	 * @return Number of lookups which found nothing.
+	 */
+	public long getMissCount() {
+		return _misses.get();
+	}
+
+	/**
+	 * @return Number of values evicted to respect the maximum size.
+	 */
+	public long getEvictionCount() {
+		return _evictions.get();
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.utils;
+
+import java.util.ArrayList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Document builders made by one configured factory, kept for reuse.
+ *
+ * Looking up and configuring a factory and creating a builder costs more
+ * than parsing a small document, so a pool is made once per configuration
+ * and builders are reset between documents. Grammars are not shared between
+ * builders: Xerces looks XML schema grammars up by target namespace alone
+ * and DTD grammars by public and system id, so documents naming different
+ * schemas or internal subsets would be validated against each other's.
+ *
+ * The pool may be used by several threads; a builder is only ever used by
+ * the thread which acquired it.
+ */
+public final class DocumentBuilderPool {
+
+	// idle builders beyond this are left to the garbage collector
+	private static final int MAX_IDLE = 16;
+
+	private final DocumentBuilderFactory _factory;
+	private final ArrayList<DocumentBuilder> _idle = new ArrayList<DocumentBuilder>();
+
+	/**
+	 * @param factory
+	 *            A configured factory. It must not be changed afterwards.
+	 */
+	public DocumentBuilderPool(DocumentBuilderFactory factory) {
+		_factory = factory;
+	}
+
+	/**
+	 * Takes a builder from the pool, creating one if none is idle. It must be
+	 * handed back with release() once the document is parsed.
+	 *
+	 * @return A builder in its initial state.
+	 * @throws ParserConfigurationException
+	 *             If the factory configuration isn't supported.
+	 */
+	public DocumentBuilder acquire() throws ParserConfigurationException {
+		synchronized (_idle) {
+			int size = _idle.size();
+			if (size > 0)
+				return _idle.remove(size - 1);
+		}
+		// JAXP doesn't promise factories are thread safe
+		synchronized (_factory) {
+			return _factory.newDocumentBuilder();
+		}
+	}
+
+	/**
+	 * Resets a builder and returns it to the pool. Error handlers and entity
+	 * resolvers set on it are forgotten.
+	 *
+	 * @param builder
+	 *            A builder obtained from acquire().
+	 */
+	public void release(DocumentBuilder builder) {
+		try {
+			builder.reset();
+		} catch (UnsupportedOperationException e) {
+			// can't be brought back to its initial state, so drop it
+			return;
+		}
+		synchronized (_idle) {
+			if (_idle.size() < MAX_IDLE)
+				_idle.add(builder);
+		}
+	}
+}
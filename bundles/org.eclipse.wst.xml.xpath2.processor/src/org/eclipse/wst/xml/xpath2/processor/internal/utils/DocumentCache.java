@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.utils;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyDocument;
+import org.w3c.dom.Document;
+import org.w3c.dom.events.Event;
+import org.w3c.dom.events.EventListener;
+import org.w3c.dom.events.EventTarget;
+
+/**
+ * Keeps data derived from a DOM document (such as indexes) as user data on
+ * the document itself, so it lives exactly as long as the document does.
+ *
+ * The data is dropped as soon as the document is modified. This relies on DOM
+ * mutation events, so documents which don't support them are never cached,
+ * unless they are read-only tiny trees.
+ */
+public final class DocumentCache {
+
+	private static final String SUBTREE_MODIFIED = "DOMSubtreeModified";
+
+	/**
+	 * Computes the data to cache for a document.
+	 */
+	public interface Builder {
+		Object build(Document doc);
+	}
+
+	private DocumentCache() {
+	}
+
+	/**
+	 * Returns the data cached under the key, building it first if necessary.
+	 *
+	 * @param doc
+	 *            The document.
+	 * @param key
+	 *            User data key, unique for the kind of data.
+	 * @param builder
+	 *            Computes the data if it isn't cached.
+	 * @return The cached data, or null if the document cannot tell us when
+	 *         it changes.
+	 */
+	public static Object get(final Document doc, final String key, Builder builder) {
+		if (doc instanceof TinyDocument) {
+			synchronized (doc) {
+				Object data = doc.getUserData(key);
+				if (data == null) {
+					data = builder.build(doc);
+					doc.setUserData(key, data, null);
+				}
+				return data;
+			}
+		}
+		if (!(doc instanceof EventTarget))
+			return null;
+
+		synchronized (doc) {
+			Object data = doc.getUserData(key);
+			if (data != null)
+				return data;
+
+			data = builder.build(doc);
+			doc.setUserData(key, data, null);
+
+			// not a capturing listener: those miss events targeted at the
+			// document itself, such as changes to its own children, while
+			// this one sees them and, as the event bubbles, all the others
+			final EventTarget target = (EventTarget) doc;
+			target.addEventListener(SUBTREE_MODIFIED, new EventListener() {
+				public void handleEvent(Event evt) {
+					synchronized (doc) {
+						doc.setUserData(key, null, null);
+						target.removeEventListener(SUBTREE_MODIFIED, this, false);
+					}
+				}
+			}, false);
+			return data;
+		}
+	}
+}
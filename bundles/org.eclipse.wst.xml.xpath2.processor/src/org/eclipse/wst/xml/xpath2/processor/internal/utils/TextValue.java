@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation, and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Eclipse Foundation contributors - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.wst.xml.xpath2.processor.internal.utils;
+
+import java.io.Reader;
+import java.util.ArrayList;
+
+import org.eclipse.wst.xml.xpath2.processor.internal.tiny.TinyNode;
+import org.w3c.dom.Node;
+
+/**
+ * The string value of a node, seen as the sequence of its text nodes rather
+ * than copied into a single String.
+ *
+ * The text is gathered in one walk over the subtree, without recursion, and
+ * only copied if toString() is called, and then straight into a buffer of
+ * the right size.
+ */
+public final class TextValue implements CharSequence {
+
+	private final CharSequence[] _segments;
+	private final int[] _starts; // offset of each segment in the value
+	private final int _length;
+	private int _last; // segment of the last charAt(), as reads are mostly in order
+
+	/**
+	 * @param segments
+	 *            The text, in order. Empty segments are allowed.
+	 */
+	public TextValue(CharSequence[] segments) {
+		_segments = segments;
+		_starts = new int[segments.length];
+		int length = 0;
+		for (int i = 0; i < segments.length; i++) {
+			_starts[i] = length;
+			length += segments[i].length();
+		}
+		_length = length;
+	}
+
+	/**
+	 * Returns the string value of a node: the concatenation of the text and
+	 * CDATA nodes below it, or its own data for a text node.
+	 *
+	 * @param node
+	 *            The node.
+	 * @return The value as a String if it is held in one piece (or is empty),
+	 *         otherwise as a TextValue.
+	 */
+	public static CharSequence of(Node node) {
+		if (node instanceof TinyNode)
+			return ((TinyNode) node).string_view();
+		if (is_text(node))
+			return ((org.w3c.dom.CharacterData) node).getData();
+
+		ArrayList<String> segments = null;
+		String first = null;
+		Node n = node.getFirstChild();
+		while (n != null) {
+			if (is_text(n)) {
+				String data = ((org.w3c.dom.CharacterData) n).getData();
+				if (first == null) {
+					first = data;
+				} else {
+					if (segments == null) {
+						segments = new ArrayList<String>();
+						segments.add(first);
+					}
+					segments.add(data);
+				}
+			}
+
+			// next node in document order, without leaving the subtree
+			Node next = n.getFirstChild();
+			while (next == null && n != node) {
+				next = n.getNextSibling();
+				if (next == null)
+					n = n.getParentNode();
+			}
+			n = next;
+		}
+
+		if (segments == null)
+			return first == null ? "" : first;
+		return new TextValue(segments.toArray(new CharSequence[segments.size()]));
+	}
+
+	private static boolean is_text(Node node) {
+		short type = node.getNodeType();
+		return type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE;
+	}
+
+	/**
+	 * Finds a string in a sequence of characters.
+	 *
+	 * @param chars
+	 *            The characters to search.
+	 * @param s
+	 *            The string to look for.
+	 * @return The index of the first occurrence, or -1.
+	 */
+	public static int index_of(CharSequence chars, String s) {
+		if (chars instanceof String)
+			return ((String) chars).indexOf(s);
+
+		int length = s.length();
+		int last = chars.length() - length;
+		if (length == 0)
+			return 0;
+		char c = s.charAt(0);
+		for (int i = 0; i <= last; i++) {
+			if (chars.charAt(i) != c)
+				continue;
+			int j = 1;
+			while (j < length && chars.charAt(i + j) == s.charAt(j))
+				j++;
+			if (j == length)
+				return i;
+		}
+		return -1;
+	}
+
+	public int length() {
+		return _length;
+	}
+
+	public char charAt(int index) {
+		if (index < 0 || index >= _length)
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+
+		int s = _last;
+		if (index < _starts[s] || index - _starts[s] >= _segments[s].length()) {
+			// binary search for the last segment starting at or before index
+			int lo = 0;
+			int hi = _segments.length - 1;
+			while (lo < hi) {
+				int mid = (lo + hi + 1) >>> 1;
+				if (_starts[mid] <= index)
+					lo = mid;
+				else
+					hi = mid - 1;
+			}
+			s = lo;
+			_last = s;
+		}
+		return _segments[s].charAt(index - _starts[s]);
+	}
+
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > _length || start > end)
+			throw new IndexOutOfBoundsException(start + ", " + end);
+		StringBuffer buf = new StringBuffer(end - start);
+		for (int i = start; i < end; i++)
+			buf.append(charAt(i));
+		return buf.toString();
+	}
+
+	public String toString() {
+		StringBuffer buf = new StringBuffer(_length);
+		for (int i = 0; i < _segments.length; i++)
+			buf.append(_segments[i]);
+		return buf.toString();
+	}
+
+	/**
+	 * @return A reader over the value, which reads the segments in place.
+	 */
+	public Reader reader() {
+		return new Reader() {
+			private int _segment;
+			private int _offset;
+
+			public int read(char[] cbuf, int off, int len) {
+				if (len == 0)
+					return 0;
+				int count = 0;
+				while (count < len && _segment < _segments.length) {
+					CharSequence segment = _segments[_segment];
+					int n = Math.min(len - count, segment.length() - _offset);
+					for (int i = 0; i < n; i++)
+						cbuf[off + count + i] = segment.charAt(_offset + i);
+					count += n;
+					_offset += n;
+					if (_offset == segment.length()) {
+						_segment++;
+						_offset = 0;
+					}
+				}
+				return count == 0 ? -1 : count;
+			}
+
+			public void close() {
+				_segment = _segments.length;
+			}
+		};
+	}
+}
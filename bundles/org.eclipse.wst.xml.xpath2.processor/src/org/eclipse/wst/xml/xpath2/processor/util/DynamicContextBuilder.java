@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
@@ -71,6 +72,10 @@ public class DynamicContextBuilder implements DynamicContext {
 
 	private Map<URI, Document> _loaded_documents = new HashMap<URI, Document>();
 
+	private ExecutorService _predicate_executor;
+	private int _predicate_parallelism;
+	private int _predicate_threshold;
+
 	public DynamicContextBuilder(StaticContext sc) {
 		_staticContext = sc;
 	}
@@ -114,6 +119,18 @@ public class DynamicContextBuilder implements DynamicContext {
 		return doc;
 	}
 
+	/**
+	 * @param resolved
+	 *            The resolved URI of a document.
+	 * @return Whether the document has been looked up already, in which case
+	 *         getDocument returns it, or null if it could not be loaded,
+	 *         without loading it again.
+	 * @since 2.1
+	 */
+	public boolean isDocumentLoaded(URI resolved) {
+		return _loaded_documents.containsKey(resolved);
+	}
+
 	// XXX make it nice, and move it out as a utility function
 	private Document retrieve_doc(URI uri) {
 		try {
@@ -169,4 +186,64 @@ public class DynamicContextBuilder implements DynamicContext {
 	public CollationProvider getCollationProvider() {
 		return _staticContext.getCollationProvider();
 	}
+
+	/**
+	 * Lets predicates over long sequences be evaluated on several threads.
+	 * The sequence is split into chunks, each tested by an evaluator of its
+	 * own, and the items kept are merged back in order. Predicates inside a
+	 * chunk are evaluated serially.
+	 * 
+	 * As DOM implementations are not in general safe to read from several
+	 * threads, a predicate is only split when the only nodes it can reach
+	 * are from trees built by TinyTreeBuilder: those of the sequence and of
+	 * the variables it uses. Predicates calling fn:doc, fn:collection or
+	 * functions other than the standard and constructor functions are
+	 * evaluated serially. Collations must be safe to use from several
+	 * threads.
+	 * 
+	 * The thread evaluating the expression tests chunks as well, and only
+	 * waits for those other threads have started, so the executor may be
+	 * one the evaluation itself runs on.
+	 * 
+	 * @param executor
+	 *            The executor to run the chunks on, or null to evaluate
+	 *            predicates serially. It must not be shut down while the
+	 *            context is used.
+	 * @param parallelism
+	 *            How many chunks to run at once, usually the number of
+	 *            threads of the executor.
+	 * @param threshold
+	 *            The shortest sequence worth splitting.
+	 * @since 2.1
+	 */
+	public DynamicContextBuilder withParallelPredicates(ExecutorService executor, int parallelism, int threshold) {
+		this._predicate_executor = executor;
+		this._predicate_parallelism = Math.max(1, parallelism);
+		this._predicate_threshold = Math.max(2, threshold);
+		return this;
+	}
+
+	/**
+	 * @return The executor predicates are evaluated on, or null.
+	 * @since 2.1
+	 */
+	public ExecutorService getPredicateExecutor() {
+		return _predicate_executor;
+	}
+
+	/**
+	 * @return How many chunks of a sequence are tested at once.
+	 * @since 2.1
+	 */
+	public int getPredicateParallelism() {
+		return _predicate_parallelism;
+	}
+
+	/**
+	 * @return The shortest sequence whose predicates are split.
+	 * @since 2.1
+	 */
+	public int getPredicateThreshold() {
+		return _predicate_threshold;
+	}
 }